@@ -13,7 +13,7 @@ import org.lwjgl.vulkan.VkCommandBuffer;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.locks.Lock;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class BasicRenderJobContext implements RenderJobContext {
 
@@ -22,19 +22,72 @@ public class BasicRenderJobContext implements RenderJobContext {
 
     private final DependencyFence created = new DependencyFence();
 
-    private final Map<Long, RenderJob> cmds = new HashMap<>();
+    private final Map<Long, BasicRenderJob> cmds = new HashMap<>();
+    /** The command buffers of the latest recreateJobs() call. */
+    private volatile Generation current;
 
     private ContextDictionary dict;
     private Runnable update;
 
+    /**
+     * The command buffers created by a single recreateJobs() call. They are released once the
+     * generation is replaced and all of its jobs that were handed out were released.
+     */
+    private class Generation {
+
+        private final VkCommandBuffer[] buffers;
+        /** The number of the handed out jobs that were not released yet. */
+        private int jobs = 0;
+        private boolean retired = false, recycled = false;
+
+        private Generation(VkCommandBuffer[] buffers) {
+            this.buffers = buffers;
+        }
+
+        private synchronized void jobHandedOut() {
+            jobs++;
+        }
+
+        private synchronized void retire() {
+            retired = true;
+            releaseIfUnused();
+        }
+
+        private synchronized void jobReleased() {
+            jobs--;
+            releaseIfUnused();
+        }
+
+        private void releaseIfUnused() {
+            if (retired && jobs == 0 && !recycled) {
+                recycled = true;
+                cmdFactory.releaseCmdBuffers(buffers);
+            }
+        }
+    }
+
     private static class BasicRenderJob implements RenderJob {
 
         private VkCommandBuffer cmd;
         private Runnable update;
+        private final Generation generation;
+        private final AtomicBoolean handedOut = new AtomicBoolean(), released = new AtomicBoolean();
 
-        public BasicRenderJob(VkCommandBuffer cmd, @Nullable Runnable update) {
+        public BasicRenderJob(VkCommandBuffer cmd, @Nullable Runnable update, Generation generation) {
             this.cmd = cmd;
             this.update = update;
+            this.generation = generation;
+        }
+
+        private void handOut() {
+            if (handedOut.compareAndSet(false, true))
+                generation.jobHandedOut();
+        }
+
+        @Override
+        public void release() {
+            if (handedOut.get() && released.compareAndSet(false, true))
+                generation.jobReleased();
         }
 
         @Override
@@ -61,14 +114,26 @@ public class BasicRenderJobContext implements RenderJobContext {
     @Override
     public void recreateJobs(long... frameBuffers) {
         VkCommandBuffer[] bufs = cmdFactory.createCmdBuffers(frameBuffers);
+        Generation generation = new Generation(bufs);
 
+        // The previous command buffers are reused once their frames are released.
+        Generation previous = current;
+        current = generation;
+        if (previous != null)
+            previous.retire();
+
+        cmds.clear();
         for (int i = 0; i < frameBuffers.length; i++)
-            cmds.put(frameBuffers[i], new BasicRenderJob(bufs[i], update));
+            cmds.put(frameBuffers[i], new BasicRenderJob(bufs[i], update, generation));
     }
 
     @Override
     public RenderJob getJob(long frameBuffer) {
-        return cmds.get(frameBuffer);
+        BasicRenderJob job = cmds.get(frameBuffer);
+        if (job != null)
+            job.handOut();
+
+        return job;
     }
 
     @Override
@@ -4,6 +4,7 @@ import com.sfengine.core.context.ContextDictionary;
 import com.sfengine.core.context.ContextFactoryProvider;
 import com.sfengine.core.context.renderjob.RenderJobContextFactory;
 import com.sfengine.core.rendering.CommandBufferFactory;
+import com.sfengine.core.rendering.PipelineCommandCache;
 import org.jetbrains.annotations.Nullable;
 
 public class BasicRenderJobContextFactory {
@@ -22,4 +23,14 @@ public class BasicRenderJobContextFactory {
         return createContext(name, cmdFactory, dict, null);
     }
 
+    public static IncrementalRenderJobContext createIncrementalContext(String name, PipelineCommandCache cache, ContextDictionary dict, @Nullable Runnable update) {
+        IncrementalRenderJobContext context =
+                new IncrementalRenderJobContext(name, RenderJobContextFactory.CONTEXT_IDENTIFIER, cache, update);
+        RenderJobContextFactory factory =
+                ContextFactoryProvider.getFactory(
+                        RenderJobContextFactory.CONTEXT_IDENTIFIER, RenderJobContextFactory.class);
+        factory.putContext(context);
+        return context;
+    }
+
 }
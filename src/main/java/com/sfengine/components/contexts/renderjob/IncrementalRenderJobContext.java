@@ -0,0 +1,111 @@
+package com.sfengine.components.contexts.renderjob;
+
+import com.sfengine.core.context.renderjob.RenderJobContext;
+import com.sfengine.core.rendering.PipelineCommandCache;
+import com.sfengine.core.rendering.recording.RenderJob;
+import com.sfengine.core.synchronization.Dependency;
+import com.sfengine.core.synchronization.DependencyFence;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.vulkan.VkCommandBuffer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Render job context backed by a pipeline command cache. Before a job is submitted the out of
+ * date command buffers of its frame buffer are recorded again, so only the changed pipelines are
+ * recorded. The command buffers of a job are reused once the job is released by its frame.
+ */
+public class IncrementalRenderJobContext implements RenderJobContext {
+
+    private volatile String name, factoryIdentifier;
+    private volatile PipelineCommandCache cache;
+
+    private final DependencyFence created = new DependencyFence();
+
+    private final Map<Long, IncrementalRenderJob> cmds = new HashMap<>();
+    /** The jobs of the latest generation that were handed out. */
+    private final Set<IncrementalRenderJob> handedOut = new HashSet<>();
+
+    private Runnable update;
+
+    private class IncrementalRenderJob implements RenderJob {
+
+        private final PipelineCommandCache.FrameCommands commands;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        public IncrementalRenderJob(PipelineCommandCache.FrameCommands commands) {
+            this.commands = commands;
+        }
+
+        @Override
+        public VkCommandBuffer getCMD() {
+            return commands.getPrimary();
+        }
+
+        @Override
+        public void performUpdate() {
+            if (update != null)
+                update.run();
+
+            cache.update(commands);
+        }
+
+        @Override
+        public void release() {
+            if (released.compareAndSet(false, true))
+                cache.release(commands);
+        }
+    }
+
+    public IncrementalRenderJobContext(String name, String factoryIdentifier, PipelineCommandCache cache, @Nullable Runnable update) {
+        this.name = name;
+        this.factoryIdentifier = factoryIdentifier;
+        this.cache = cache;
+        created.release();
+        this.update = update;
+    }
+
+    @Override
+    public void recreateJobs(long... frameBuffers) {
+        PipelineCommandCache.FrameCommands[] commands = cache.recreate(frameBuffers);
+
+        // The jobs that were never handed out to the frames will not be released by them.
+        for (IncrementalRenderJob job : cmds.values()) {
+            if (!handedOut.contains(job))
+                job.release();
+        }
+        handedOut.clear();
+
+        cmds.clear();
+        for (int i = 0; i < frameBuffers.length; i++)
+            cmds.put(frameBuffers[i], new IncrementalRenderJob(commands[i]));
+    }
+
+    @Override
+    public RenderJob getJob(long frameBuffer) {
+        IncrementalRenderJob job = cmds.get(frameBuffer);
+        if (job != null)
+            handedOut.add(job);
+
+        return job;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getFactoryIdentifier() {
+        return factoryIdentifier;
+    }
+
+    @Override
+    public Dependency getDependency() {
+        return created;
+    }
+}
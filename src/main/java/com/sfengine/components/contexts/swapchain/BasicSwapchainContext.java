@@ -1,7 +1,9 @@
 package com.sfengine.components.contexts.swapchain;
 
 import com.sfengine.components.window.CFrame;
+import com.sfengine.core.Application;
 import com.sfengine.core.context.ContextDictionary;
+import com.sfengine.core.context.ContextFactoryProvider;
 import com.sfengine.core.context.ContextUtil;
 import com.sfengine.core.context.framebufferfactory.FrameBufferFactoryContext;
 import com.sfengine.core.context.swapchain.SwapchainContext;
@@ -13,6 +15,7 @@ import com.sfengine.core.rendering.ColorFormatAndSpace;
 import com.sfengine.core.rendering.RenderUtil;
 import com.sfengine.core.rendering.Window;
 import com.sfengine.core.rendering.recording.BasicAttachemntSet;
+import com.sfengine.core.resources.ConfigFile;
 import com.sfengine.core.result.VulkanException;
 import com.sfengine.core.result.VulkanResult;
 import com.sfengine.core.synchronization.Dependency;
@@ -22,6 +25,7 @@ import org.lwjgl.vulkan.VkPhysicalDevice;
 import org.lwjgl.vulkan.VkSurfaceCapabilitiesKHR;
 import org.lwjgl.vulkan.VkSwapchainCreateInfoKHR;
 
+import java.io.IOException;
 import java.nio.IntBuffer;
 import java.nio.LongBuffer;
 import java.util.concurrent.locks.Lock;
@@ -39,9 +43,8 @@ import static org.lwjgl.vulkan.VK10.*;
 
 public class BasicSwapchainContext implements SwapchainContext {
 
-    private static final int[] PRESENT_MODE_HIERARCHY = {
-            VK_PRESENT_MODE_MAILBOX_KHR, VK_PRESENT_MODE_FIFO_KHR
-    };
+    /** The policy used when neither the configuration nor the system property specifies one. */
+    public static final PresentPolicy DEFAULT_PRESENT_POLICY = PresentPolicy.DOUBLE_BUFFERED;
 
     private final Logger logger = Logger.getLogger(BasicSwapchainContext.class.getSimpleName());
 
@@ -64,6 +67,10 @@ public class BasicSwapchainContext implements SwapchainContext {
 
     private final AttachmentBlueprint[] attachmentBlueprints;
 
+    private volatile PresentPolicy presentPolicy = DEFAULT_PRESENT_POLICY;
+    private volatile int imageCount;
+    private volatile int presentMode;
+
     protected BasicSwapchainContext(String name, ContextDictionary dict, PropertyDictionary pdict, CFrame frame) {
         this.name = name;
         this.dict = dict;
@@ -115,11 +122,40 @@ public class BasicSwapchainContext implements SwapchainContext {
 
     private void init() {
 
+        presentPolicy = loadPresentPolicy();
+        logger.log(Level.INFO, "Swapchain present policy:" + presentPolicy);
+
         recreate();
         created.release();
 
     }
 
+    /**
+     * Reads the present policy from the swapchain configuration. The system property(if set)
+     * overrides the configured policy.
+     *
+     * @return the present policy.
+     */
+    private PresentPolicy loadPresentPolicy() {
+        String property = System.getProperty(PresentPolicy.PROPERTY);
+        if (property != null)
+            return PresentPolicy.parse(property, DEFAULT_PRESENT_POLICY);
+
+        ConfigFile cfg = null;
+        try {
+            cfg = ContextFactoryProvider.getConfig(this, Application.getConfigAssets());
+            return PresentPolicy.parse(
+                    cfg.getString(PresentPolicy.CFG_KEY, DEFAULT_PRESENT_POLICY.name()),
+                    DEFAULT_PRESENT_POLICY);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to load the swapchain configuration.", e);
+            return DEFAULT_PRESENT_POLICY;
+        } finally {
+            if (cfg != null)
+                cfg.close();
+        }
+    }
+
     private void getColorAndSpace(VkDevice device, VkPhysicalDevice physicalDevice, PropertyDictionary pdict) {
         ColorFormatAndSpace colorFormat = new ColorFormatAndSpace(0, 0);
         try {
@@ -165,7 +201,8 @@ public class BasicSwapchainContext implements SwapchainContext {
         Integer swapchainPresentMode;
         try {
             swapchainPresentMode =
-                    getBestPresentMode(physicalDevice, window.getSurface(), PRESENT_MODE_HIERARCHY);
+                    getBestPresentMode(
+                            physicalDevice, window.getSurface(), presentPolicy.getPresentModes());
         } catch (VulkanException e) {
             throw new AssertionError("Failed to obtain adequate present mode!", e);
         }
@@ -173,9 +210,10 @@ public class BasicSwapchainContext implements SwapchainContext {
             throw new AssertionError("Failed to locate any suitable mode!");
         }
 
-        // Double buffering:
-        int imageCount = 2;
-        imageCount = Math.min(imageCount, caps.maxImageCount());
+        // Buffering(maxImageCount equal to 0 means no limit):
+        int imageCount = presentPolicy.getImageCount();
+        if (caps.maxImageCount() != 0)
+            imageCount = Math.min(imageCount, caps.maxImageCount());
         imageCount = Math.max(imageCount, caps.minImageCount());
 
         logger.log(Level.INFO, "Swapchain min images count:" + imageCount);
@@ -228,6 +266,7 @@ public class BasicSwapchainContext implements SwapchainContext {
         handle = pSwapchain.get(0);
         memFree(pSwapchain);
 
+        presentMode = swapchainPresentMode;
         createImageViews();
 
         created.release();
@@ -245,6 +284,7 @@ public class BasicSwapchainContext implements SwapchainContext {
 
         int swapchainImageCount = pSwapchainImageCount.get(0);
         logger.log(Level.INFO, "Swapchain images count:" + swapchainImageCount);
+        imageCount = swapchainImageCount;
 
         LongBuffer pSwapchainImages = memAllocLong(swapchainImageCount);
         err = vkGetSwapchainImagesKHR(device, swapchainContext.getHandle(), pSwapchainImageCount, pSwapchainImages);
@@ -277,6 +317,25 @@ public class BasicSwapchainContext implements SwapchainContext {
         return frameBuffers;
     }
 
+    @Override
+    public int getImageCount() {
+        return imageCount;
+    }
+
+    @Override
+    public int getPresentMode() {
+        return presentMode;
+    }
+
+    /**
+     * Returns the present policy of the swapchain.
+     *
+     * @return the present policy.
+     */
+    public PresentPolicy getPresentPolicy() {
+        return presentPolicy;
+    }
+
     @Override
     public String getName() {
         return name;
@@ -0,0 +1,70 @@
+package com.sfengine.components.contexts.swapchain;
+
+import static org.lwjgl.vulkan.KHRSurface.*;
+
+/**
+ * Latency/throughput policy of a swapchain. Every policy consists of the preferred present
+ * modes(the first supported one is used) and the requested image count(clamped to the surface
+ * capabilities).
+ */
+public enum PresentPolicy {
+
+    /**
+     * Mailbox with 3 images, the newest rendered image replaces the queued one, so the frames
+     * are not throttled and the presented image is always the most recent one.
+     */
+    LOW_LATENCY(3, VK_PRESENT_MODE_MAILBOX_KHR, VK_PRESENT_MODE_FIFO_KHR),
+    /** FIFO with triple buffering, every rendered image is presented(v-synced, no tearing). */
+    THROUGHPUT(3, VK_PRESENT_MODE_FIFO_KHR),
+    /** Mailbox(or FIFO) with 2 images. */
+    DOUBLE_BUFFERED(2, VK_PRESENT_MODE_MAILBOX_KHR, VK_PRESENT_MODE_FIFO_KHR);
+
+    /** The configuration key of the policy. */
+    public static final String CFG_KEY = "presentPolicy";
+    /** System property overriding the configured policy(eg. for benchmarking). */
+    public static final String PROPERTY = "rendering_present_policy";
+
+    private final int imageCount;
+    private final int[] presentModes;
+
+    PresentPolicy(int imageCount, int... presentModes) {
+        this.imageCount = imageCount;
+        this.presentModes = presentModes;
+    }
+
+    /**
+     * Returns the requested swapchain image count.
+     *
+     * @return the image count.
+     */
+    public int getImageCount() {
+        return imageCount;
+    }
+
+    /**
+     * Returns the present modes in the order of preference.
+     *
+     * @return the present mode hierarchy.
+     */
+    public int[] getPresentModes() {
+        return presentModes.clone();
+    }
+
+    /**
+     * Parses the policy name.
+     *
+     * @param name the name of the policy(case insensitive).
+     * @param defaultPolicy the policy returned when the name is null.
+     * @return the policy.
+     */
+    public static PresentPolicy parse(String name, PresentPolicy defaultPolicy) {
+        if (name == null)
+            return defaultPolicy;
+
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new AssertionError("Unknown present policy: " + name + ".", e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.sfengine.components.engines;
+
+/**
+ * Main thread executor that limits the time spent on the one time tasks in every tick. Instead of
+ * performing a fixed share of the queue it drains the tasks until the per tick time budget is
+ * spent, and carries the remaining tasks over to the next tick. At least one task is performed
+ * per tick so that the queue always makes progress.
+ */
+public class BudgetedEngineExecutor extends OscillatoryEngineExecutor {
+
+    /** Default time budget for the one time tasks(4ms). */
+    public static final long DEFAULT_TICK_BUDGET_NANOS = 4_000_000L;
+
+    /** The time budget for the one time tasks per tick. */
+    private final long budgetNanos;
+
+    /** Number of performed ticks. */
+    private volatile long ticks = 0;
+    /** Number of tasks carried over to the next tick in the last tick. */
+    private volatile int deferredTasks = 0;
+    /** Number of ticks that ended with deferred tasks. */
+    private volatile long deferringTicks = 0;
+    /** Number of ticks that exceeded the time budget. */
+    private volatile long overrunTicks = 0;
+    /** Sum of the time by which the ticks exceeded the budget. */
+    private volatile long totalOverrunNanos = 0;
+    /** The biggest time by which a tick exceeded the budget. */
+    private volatile long maxOverrunNanos = 0;
+
+    /** Creates an executor with the default time budget. */
+    public BudgetedEngineExecutor() {
+        this(DEFAULT_TICK_BUDGET_NANOS);
+    }
+
+    /**
+     * Creates an executor with the given time budget.
+     *
+     * @param budgetNanos time that can be spent on the one time tasks per tick(in nanoseconds).
+     */
+    public BudgetedEngineExecutor(long budgetNanos) {
+        if (budgetNanos <= 0) {
+            throw new IllegalArgumentException("The tick budget must be positive.");
+        }
+
+        this.budgetNanos = budgetNanos;
+    }
+
+    @Override
+    protected int performTasks() {
+        long start = System.nanoTime();
+        long elapsed = 0;
+        int performed = 0;
+
+        Runnable task;
+        while (elapsed < budgetNanos && (task = pollTask()) != null) {
+            task.run();
+            performed++;
+            elapsed = System.nanoTime() - start;
+        }
+
+        // Only the main thread updates the statistics.
+        ticks++;
+
+        if (elapsed >= budgetNanos) {
+            deferredTasks = pendingTasks();
+            if (deferredTasks > 0) {
+                deferringTicks++;
+            }
+        } else {
+            deferredTasks = 0;
+        }
+
+        long overrun = elapsed - budgetNanos;
+        if (overrun > 0) {
+            overrunTicks++;
+            totalOverrunNanos += overrun;
+            if (overrun > maxOverrunNanos) {
+                maxOverrunNanos = overrun;
+            }
+        }
+
+        return performed;
+    }
+
+    /**
+     * Returns the time budget for the one time tasks per tick.
+     *
+     * @return the budget in nanoseconds.
+     */
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    /**
+     * Returns the number of ticks performed by the executor.
+     *
+     * @return the tick count.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns the number of tasks that were carried over to the next tick in the last tick.
+     *
+     * @return the deferred task count.
+     */
+    public int getDeferredTasks() {
+        return deferredTasks;
+    }
+
+    /**
+     * Returns the number of ticks that ended with some tasks carried over.
+     *
+     * @return the number of deferring ticks.
+     */
+    public long getDeferringTicks() {
+        return deferringTicks;
+    }
+
+    /**
+     * Returns the number of ticks in which the one time tasks exceeded the budget.
+     *
+     * @return the overrun tick count.
+     */
+    public long getOverrunTicks() {
+        return overrunTicks;
+    }
+
+    /**
+     * Returns the summed time by which the ticks exceeded the budget.
+     *
+     * @return the total overrun in nanoseconds.
+     */
+    public long getTotalOverrunNanos() {
+        return totalOverrunNanos;
+    }
+
+    /**
+     * Returns the biggest time by which a single tick exceeded the budget.
+     *
+     * @return the maximal overrun in nanoseconds.
+     */
+    public long getMaxOverrunNanos() {
+        return maxOverrunNanos;
+    }
+}
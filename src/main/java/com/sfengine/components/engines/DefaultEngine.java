@@ -2,6 +2,7 @@ package com.sfengine.components.engines;
 
 import com.sfengine.core.engine.Engine;
 import com.sfengine.core.engine.EngineTask;
+import com.sfengine.core.synchronization.ConcurrentSmartWaitQueue;
 import com.sfengine.core.synchronization.Dependency;
 import com.sfengine.core.synchronization.SmartWaitQueue;
 import com.sfengine.core.synchronization.SyncTask;
@@ -21,13 +22,42 @@ public class DefaultEngine implements Engine {
             FAST_POOL_MAX_THREADS = 64,
             SLOW_POOL_MAX_THREADS = 64;
 
-    private volatile ThreadPoolExecutor configPool, fastPool, slowPool;
+    /** Tells whether the slow tasks should run on virtual threads by default. */
+    public static final boolean VIRTUAL_SLOW_POOL =
+            Boolean.valueOf(System.getProperty("engine_virtual_slow_pool", "false"));
 
-    private final EngineExecutor mainThread = new OscillatoryEngineExecutor();
+    private volatile ThreadPoolExecutor configPool, fastPool;
+    /** The slow task pool(virtual threads or a thread pool executor). */
+    private volatile ExecutorService slowPool;
 
-    private final SmartWaitQueue smartQueue = new SmartWaitQueue();
+    private final EngineExecutor mainThread;
 
+    private final SmartWaitQueue smartQueue = new ConcurrentSmartWaitQueue();
+
+    /** Creates an engine that uses the oscillatory main thread executor. */
     public DefaultEngine() {
+        this(new OscillatoryEngineExecutor());
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @param mainThread the executor for the first thread tasks.
+     */
+    public DefaultEngine(EngineExecutor mainThread) {
+        this(mainThread, VIRTUAL_SLOW_POOL);
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @param mainThread the executor for the first thread tasks.
+     * @param virtualSlowPool whether the slow(blocking) tasks should run on virtual threads. If
+     *     the JVM does not support virtual threads the regular slow pool is used.
+     */
+    public DefaultEngine(EngineExecutor mainThread, boolean virtualSlowPool) {
+        this.mainThread = mainThread;
+
         configPool =
                 new ThreadPoolExecutor(
                         1,
@@ -42,13 +72,19 @@ public class DefaultEngine implements Engine {
                         30,
                         TimeUnit.MILLISECONDS,
                         new ArrayBlockingQueue<Runnable>(FAST_POOL_MAX_THREADS));
-        slowPool =
-                new ThreadPoolExecutor(
-                        1,
-                        16,
-                        20,
-                        TimeUnit.MILLISECONDS,
-                        new ArrayBlockingQueue<Runnable>(SLOW_POOL_MAX_THREADS));
+
+        if (virtualSlowPool) {
+            slowPool = VirtualThreads.newVirtualThreadExecutor();
+        }
+        if (slowPool == null) {
+            slowPool =
+                    new ThreadPoolExecutor(
+                            1,
+                            16,
+                            20,
+                            TimeUnit.MILLISECONDS,
+                            new ArrayBlockingQueue<Runnable>(SLOW_POOL_MAX_THREADS));
+        }
 
     }
 
@@ -106,6 +142,11 @@ public class DefaultEngine implements Engine {
         mainThread.removeTickTask(tickTask);
     }
 
+    @Override
+    public void setIdleWait(IdleWait idleWait) {
+        mainThread.setIdleWait(idleWait);
+    }
+
     @Override
     public synchronized void destroy() {
         configPool.shutdown();
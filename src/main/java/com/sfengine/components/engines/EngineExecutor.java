@@ -14,4 +14,12 @@ public interface EngineExecutor extends Executor, Runnable {
     void addTickTask(EngineTask task);
 
     void removeTickTask(EngineTask tickTask);
+
+    /**
+     * Sets the strategy used to wait when there is no work for the executor. The executors that
+     * never wait ignore it.
+     *
+     * @param idleWait the idle wait strategy or null to keep the thread busy spinning.
+     */
+    default void setIdleWait(IdleWait idleWait) {}
 }
@@ -0,0 +1,34 @@
+package com.sfengine.components.engines;
+
+import com.sfengine.core.engine.EngineTask;
+
+/**
+ * Strategy used by the main thread executor to wait when there is no work to be done.
+ */
+public interface IdleWait {
+
+    /**
+     * Blocks the executor thread until the timeout elapses or until {@link #wake()} is invoked.
+     * It may return earlier(spuriously).
+     *
+     * @param timeoutNanos the maximal waiting time in nanoseconds.
+     */
+    void await(long timeoutNanos);
+
+    /**
+     * Wakes up the executor thread if it is waiting. If it is not waiting the next
+     * {@link #await(long)} may return immediately. Can be invoked from any thread.
+     */
+    void wake();
+
+    /**
+     * Tells whether the strategy may be used while the per tick task is registered. If it does not
+     * support one of the tasks, the executor waits with the default strategy instead.
+     *
+     * @param tickTask the per tick task.
+     * @return true if the strategy supports the task.
+     */
+    default boolean supports(EngineTask tickTask) {
+        return true;
+    }
+}
@@ -0,0 +1,130 @@
+package com.sfengine.components.engines;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free, multi-producer single-consumer ring queue. Any thread may offer an element
+ * but only one thread at a time may poll. Every slot carries a sequence number which tells
+ * whether it is free for the producers or published for the consumer, so the queue does not
+ * allocate anything after it was created.
+ *
+ * @param <E> the element type.
+ */
+public class MpscRingQueue<E> {
+
+    /** The elements. */
+    private final AtomicReferenceArray<E> buffer;
+    /** The slot sequence numbers. */
+    private final AtomicLongArray sequence;
+    /** Index mask(capacity - 1). */
+    private final int mask;
+
+    /** Next index to be claimed by a producer. */
+    private final AtomicLong tail = new AtomicLong();
+    /** Next index to be polled by the consumer. */
+    private volatile long head = 0;
+
+    /**
+     * Creates an empty queue.
+     *
+     * @param capacity the minimal capacity of the queue(rounded up to a power of two).
+     */
+    public MpscRingQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive.");
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+
+        buffer = new AtomicReferenceArray<>(size);
+        sequence = new AtomicLongArray(size);
+        mask = size - 1;
+
+        for (int i = 0; i < size; i++) {
+            sequence.set(i, i);
+        }
+    }
+
+    /**
+     * Inserts the element at the tail of the queue. Can be invoked from any thread.
+     *
+     * @param e the element(cannot be null).
+     * @return true if the element was inserted and false if the queue is full.
+     */
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+
+        while (true) {
+            long t = tail.get();
+            int index = (int) t & mask;
+            long dif = sequence.get(index) - t;
+
+            if (dif == 0) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    buffer.lazySet(index, e);
+                    sequence.lazySet(index, t + 1);
+                    return true;
+                }
+            } else if (dif < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Removes the element from the head of the queue. Must be invoked only from the consumer
+     * thread.
+     *
+     * @return the element or null if the queue is empty.
+     */
+    public E poll() {
+        long h = head;
+        int index = (int) h & mask;
+
+        if (sequence.get(index) != h + 1) {
+            return null;
+        }
+
+        E e = buffer.get(index);
+        buffer.lazySet(index, null);
+        sequence.lazySet(index, h + mask + 1);
+        head = h + 1;
+
+        return e;
+    }
+
+    /**
+     * Returns the approximate number of elements in the queue.
+     *
+     * @return the number of elements.
+     */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    /**
+     * Tells whether the queue is (approximately) empty.
+     *
+     * @return true if there are no elements in the queue.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the capacity of the queue.
+     *
+     * @return the capacity.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -5,26 +5,213 @@ import com.sfengine.core.synchronization.Dependency;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class OscillatoryEngineExecutor implements EngineExecutor {
     /** A minimal amount of tasks to be performed per tick. */
     private static final int MINIMUM_TASKS_PER_TICK = 5;
     /** A percentage of tasks that will be executed per tick(from queue). */
     private static final float TASKS_PER_TICK_SCALING = 0.5f;
+    /**
+     * The default capacity of the lock-free task queue. It should hold the largest burst of the
+     * tasks submitted between two ticks, as the tasks that do not fit go through the(allocating)
+     * overflow queue.
+     */
+    public static final int TASK_QUEUE_CAPACITY =
+            Integer.getInteger("engine_task_queue_capacity", 4096);
+    /** Number of idle ticks after which the executor starts yielding the thread. */
+    private static final int IDLE_SPIN_TICKS = 100;
+    /** Number of idle ticks after which the executor starts waiting. */
+    private static final int IDLE_YIELD_TICKS = 200;
+    /** The first(shortest) idle wait timeout. */
+    private static final long MIN_IDLE_WAIT_NANOS = 50_000L;
+    /** The longest idle wait timeout, it bounds the delay of the per tick tasks. */
+    private static final long MAX_IDLE_WAIT_NANOS = 1_000_000L;
+
+    /** Empty per tick task snapshot. */
+    private static final EngineTask[] NO_TICK_TASKS = new EngineTask[0];
+    /** Orders the per tick tasks by their priorities(higher first). */
+    private static final Comparator<EngineTask> TICK_TASK_ORDER =
+            (a, b) -> Integer.compare(b.priority(), a.priority());
 
-    /** A list of tasks that should be executed once per engine tick. */
-    private Set<EngineTask> tickTasks = Collections.synchronizedSet(new HashSet<>());
-    /** A list of task for engine to complete. */
-    private Queue<Runnable> tasks = new LinkedList<>();
+    /** A list of tasks that should be executed once per engine tick(in the insertion order). */
+    private final List<EngineTask> tickTasks = new ArrayList<>();
+    /**
+     * Snapshot of the per tick tasks in the execution order. It is rebuilt only when the tick
+     * task list changes, so that the ticks can iterate over it without allocations.
+     */
+    private volatile EngineTask[] tickTaskSnapshot = NO_TICK_TASKS;
+    /** A queue of tasks for engine to complete. */
+    private final MpscRingQueue<Runnable> tasks;
+    /**
+     * Tasks that did not fit into the ring queue. It is only used when the ring is full so the
+     * steady state remains allocation free.
+     */
+    private final Queue<Runnable> overflow = new ConcurrentLinkedQueue<>();
+    /** Number of the tasks that went through the overflow queue. */
+    private final AtomicLong overflowed = new AtomicLong();
     /** Tells whether the engine should be running or if it should shut itself down. */
     private volatile boolean running = false;
 
     private volatile boolean acceptNewTasks = true;
 
+    /** The strategy used to wait when the executor is idle(or null to spin). */
+    private volatile IdleWait idleWait = new ParkingIdleWait();
+    /** The strategy used when the selected one does not support some of the per tick tasks. */
+    private final IdleWait defaultWait = new ParkingIdleWait();
+    /** The strategy the executor thread is (about to start) waiting with. */
+    private volatile IdleWait activeWait;
+    /** Tells whether the executor thread is (about to start) waiting. */
+    private volatile boolean waiting = false;
+    /** Number of consecutive ticks without one time tasks. */
+    private int idleTicks = 0;
+
+    /** Creates an executor with the default task queue capacity. */
+    public OscillatoryEngineExecutor() {
+        this(TASK_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates an executor.
+     *
+     * @param queueCapacity the capacity of the lock-free task queue(rounded up to a power of two).
+     */
+    public OscillatoryEngineExecutor(int queueCapacity) {
+        tasks = new MpscRingQueue<>(queueCapacity);
+    }
+
     @Override
     public void execute(@NotNull Runnable command) {
-        if (acceptNewTasks)
-            tasks.add(command);
+        if (!acceptNewTasks)
+            return;
+
+        // Once the overflow is in use the tasks must follow it to preserve the order.
+        if (overflow.isEmpty() && tasks.offer(command)) {
+            wakeUp();
+            return;
+        }
+
+        overflow.add(command);
+        overflowed.incrementAndGet();
+        wakeUp();
+    }
+
+    /**
+     * Returns the number of the tasks that did not fit into the task queue and went through the
+     * overflow queue. It stays constant while the queue is large enough for the task bursts.
+     *
+     * @return the overflowed task count.
+     */
+    public long getOverflowCount() {
+        return overflowed.get();
+    }
+
+    /** Wakes up the executor thread if it waits for the tasks. */
+    private void wakeUp() {
+        if (waiting) {
+            IdleWait wait = activeWait;
+            if (wait != null)
+                wait.wake();
+        }
+    }
+
+    /**
+     * Retrieves the next one time task.
+     *
+     * @return the task or null if there are no pending tasks.
+     */
+    protected Runnable pollTask() {
+        Runnable task = tasks.poll();
+        if (task == null)
+            task = overflow.poll();
+
+        return task;
+    }
+
+    /**
+     * Tells whether there are any pending one time tasks.
+     *
+     * @return true if there is at least one pending task.
+     */
+    protected boolean hasTasks() {
+        return !tasks.isEmpty() || !overflow.isEmpty();
+    }
+
+    /**
+     * Returns the approximate number of pending one time tasks.
+     *
+     * @return the number of pending tasks.
+     */
+    protected int pendingTasks() {
+        return overflow.isEmpty() ? tasks.size() : tasks.size() + overflow.size();
+    }
+
+    /**
+     * Performs the one time tasks scheduled for the current tick.
+     *
+     * @return the number of performed tasks.
+     */
+    protected int performTasks() {
+        int taskToComplete =
+                (int) (tasks.size() * TASKS_PER_TICK_SCALING) + MINIMUM_TASKS_PER_TICK;
+        int performed = 0;
+        for (; performed < taskToComplete; performed++) {
+            Runnable task = pollTask();
+            if (task == null)
+                break;
+
+            task.run();
+        }
+
+        return performed;
+    }
+
+    /**
+     * Backs off after a tick without any one time tasks. The executor first spins, then yields
+     * the thread and at last waits(with a growing timeout) until a new task arrives. It does not
+     * back off while any per tick task is busy.
+     *
+     * @param snapshot the per tick tasks.
+     */
+    private void idle(EngineTask[] snapshot) {
+        for (EngineTask task : snapshot) {
+            if (task.isBusy()) {
+                idleTicks = 0;
+                return;
+            }
+        }
+
+        IdleWait wait = idleWait;
+        idleTicks++;
+
+        if (wait == null || idleTicks <= IDLE_SPIN_TICKS)
+            return;
+
+        if (idleTicks <= IDLE_YIELD_TICKS) {
+            Thread.yield();
+            return;
+        }
+
+        int shift = Math.min(idleTicks - IDLE_YIELD_TICKS - 1, 30);
+        long timeout = Math.min(MIN_IDLE_WAIT_NANOS << shift, MAX_IDLE_WAIT_NANOS);
+
+        for (EngineTask task : snapshot) {
+            if (!wait.supports(task)) {
+                wait = defaultWait;
+                break;
+            }
+        }
+
+        activeWait = wait;
+        waiting = true;
+        try {
+            // Rechecks the queue as the producers wake the thread only if it is waiting.
+            if (acceptNewTasks && !hasTasks())
+                wait.await(timeout);
+        } finally {
+            waiting = false;
+        }
     }
 
     @Override
@@ -32,23 +219,20 @@ public class OscillatoryEngineExecutor implements EngineExecutor {
         running = true;
 
         try {
-            while (acceptNewTasks || tasks.size() > 0) {
+            while (acceptNewTasks || hasTasks()) {
                 // Performs simple tasks(one time tasks)
-                int taskToComplete =
-                        (int) (tasks.size() * TASKS_PER_TICK_SCALING) + MINIMUM_TASKS_PER_TICK;
-                for (int i = 0; i < taskToComplete && tasks.size() > 0; i++) {
-                    synchronized (tasks) {
-                        tasks.poll().run();
-                    }
-                }
+                int performed = performTasks();
 
                 // Performs per-tick tasks.
-                List<EngineTask> tmp = new ArrayList<EngineTask>(tickTasks);
-                for (EngineTask tickTask : tmp) {
-                    if (running == true) {
-                        tickTask.run();
-                    }
+                EngineTask[] snapshot = tickTaskSnapshot;
+                for (int i = 0; i < snapshot.length && running; i++) {
+                    snapshot[i].run();
                 }
+
+                if (performed == 0 && !hasTasks())
+                    idle(snapshot);
+                else
+                    idleTicks = 0;
             }
         } catch (AssertionError e) {
             running = false;
@@ -67,6 +251,21 @@ public class OscillatoryEngineExecutor implements EngineExecutor {
     @Override
     public void shutdown() {
         acceptNewTasks = false;
+        wakeUp();
+    }
+
+    /**
+     * Sets the strategy used to wait when there is no work for the executor. The executor waits
+     * at most a millisecond at a time, so the per tick tasks are still performed regularly. It
+     * does not wait while any per tick task is busy, and it waits with the default(parking)
+     * strategy while the given one does not support some of the per tick tasks.
+     *
+     * @param idleWait the idle wait strategy or null to keep the thread busy spinning.
+     */
+    @Override
+    public void setIdleWait(IdleWait idleWait) {
+        this.idleWait = idleWait;
+        idleTicks = 0;
     }
 
     /**
@@ -76,8 +275,15 @@ public class OscillatoryEngineExecutor implements EngineExecutor {
      */
     @Override
     public void addTickTask(EngineTask tickTask) {
-        if (acceptNewTasks)
-            tickTasks.add(tickTask);
+        if (!acceptNewTasks)
+            return;
+
+        synchronized (tickTasks) {
+            if (!tickTasks.contains(tickTask)) {
+                tickTasks.add(tickTask);
+                rebuildTickTaskSnapshot();
+            }
+        }
     }
 
     /**
@@ -87,6 +293,20 @@ public class OscillatoryEngineExecutor implements EngineExecutor {
      */
     @Override
     public void removeTickTask(EngineTask tickTask) {
-        tickTasks.remove(tickTask);
+        synchronized (tickTasks) {
+            if (tickTasks.remove(tickTask)) {
+                rebuildTickTaskSnapshot();
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the per tick task snapshot. Must be invoked while holding the tick task list lock.
+     */
+    private void rebuildTickTaskSnapshot() {
+        EngineTask[] snapshot = tickTasks.toArray(NO_TICK_TASKS);
+        // The sort is stable so the tasks with equal priorities keep the insertion order.
+        Arrays.sort(snapshot, TICK_TASK_ORDER);
+        tickTaskSnapshot = snapshot;
     }
 }
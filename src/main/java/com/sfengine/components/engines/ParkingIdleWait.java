@@ -0,0 +1,26 @@
+package com.sfengine.components.engines;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Idle wait that parks the executor thread.
+ */
+public class ParkingIdleWait implements IdleWait {
+
+    /** The thread that waits(or the last thread that waited). */
+    private volatile Thread waiter;
+
+    @Override
+    public void await(long timeoutNanos) {
+        waiter = Thread.currentThread();
+        LockSupport.parkNanos(this, timeoutNanos);
+    }
+
+    @Override
+    public void wake() {
+        Thread thread = waiter;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+}
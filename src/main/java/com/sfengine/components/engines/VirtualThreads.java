@@ -0,0 +1,61 @@
+package com.sfengine.components.engines;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Access to the virtual threads of the newer JVMs. The engine is compiled for Java 8, so the
+ * virtual thread API is looked up reflectively.
+ */
+public class VirtualThreads {
+
+    private static final Logger logger = Logger.getLogger(VirtualThreads.class.getName());
+
+    /** The Executors.newVirtualThreadPerTaskExecutor() method or null if it is not available. */
+    private static final Method NEW_EXECUTOR = findFactory();
+
+    private static Method findFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task.
+     *
+     * @return the executor or null if the JVM does not support virtual threads.
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        if (NEW_EXECUTOR == null) {
+            return null;
+        }
+
+        try {
+            return (ExecutorService) NEW_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // For example the virtual threads are a disabled preview feature.
+            logger.log(Level.INFO, "Virtual threads are not available.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Tells whether the JVM supports virtual threads.
+     *
+     * @return true if virtual threads can be used.
+     */
+    public static boolean isSupported() {
+        ExecutorService exec = newVirtualThreadExecutor();
+        if (exec == null) {
+            return false;
+        }
+
+        exec.shutdown();
+        return true;
+    }
+}
@@ -0,0 +1,133 @@
+package com.sfengine.components.engines;
+
+import com.sfengine.core.engine.Engine;
+import com.sfengine.core.engine.EngineTask;
+import com.sfengine.core.synchronization.ConcurrentSmartWaitQueue;
+import com.sfengine.core.synchronization.Dependency;
+import com.sfengine.core.synchronization.SmartWaitQueue;
+import com.sfengine.core.synchronization.SyncTask;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Engine that schedules the config, fast and slow tasks on work-stealing pools instead of bounded
+ * thread pool executors. Every worker owns its own deque, so the submissions do not contend on a
+ * single queue lock and bursts of tasks are never rejected. It <b>SHOULD</b> be running from the
+ * first thread.
+ */
+public class WorkStealingEngine implements Engine {
+
+    private static final int
+            CONFIG_POOL_PARALLELISM = 4,
+            FAST_POOL_PARALLELISM = Math.max(2, Runtime.getRuntime().availableProcessors()),
+            SLOW_POOL_PARALLELISM = 16;
+
+    private final ForkJoinPool configPool, fastPool, slowPool;
+
+    private final EngineExecutor mainThread;
+
+    private final SmartWaitQueue smartQueue = new ConcurrentSmartWaitQueue();
+
+    /** Creates a work-stealing engine that uses the oscillatory main thread executor. */
+    public WorkStealingEngine() {
+        this(new OscillatoryEngineExecutor());
+    }
+
+    /**
+     * Creates a work-stealing engine.
+     *
+     * @param mainThread the executor for the first thread tasks.
+     */
+    public WorkStealingEngine(EngineExecutor mainThread) {
+        this.mainThread = mainThread;
+
+        configPool = createPool("config", CONFIG_POOL_PARALLELISM);
+        fastPool = createPool("fast", FAST_POOL_PARALLELISM);
+        slowPool = createPool("slow", SLOW_POOL_PARALLELISM);
+    }
+
+    /**
+     * Creates a FIFO(async mode) work-stealing pool with named workers.
+     *
+     * @param name the name of the priority class.
+     * @param parallelism the target number of workers.
+     * @return the pool.
+     */
+    private static ForkJoinPool createPool(String name, int parallelism) {
+        return new ForkJoinPool(
+                parallelism,
+                pool -> {
+                    ForkJoinWorkerThread worker =
+                            ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    worker.setName("SFE-" + name + "-" + worker.getPoolIndex());
+                    return worker;
+                },
+                (thread, e) -> e.printStackTrace(),
+                true);
+    }
+
+    /** Starts the engine. */
+    @Override
+    public synchronized void run() {
+        mainThread.run();
+    }
+
+    /** Stops the engine(or rather informs the engine thread to stop). */
+    @Override
+    public synchronized void stop() {
+        mainThread.shutdown();
+    }
+
+    /**
+     * Tells whether the engine is currently running.
+     *
+     * @return True if the engine is running and false if it is not.
+     */
+    @Override
+    public synchronized boolean isRunning() {
+        return mainThread.isRunning();
+    }
+
+    @Override
+    public void addTask(Runnable run, Dependency... dependencies) {
+        smartQueue.addTask(new SyncTask(mainThread, run, dependencies));
+    }
+
+    @Override
+    public void addConfig(Runnable run, Dependency... dependencies) {
+        smartQueue.addTask(new SyncTask(configPool, run, dependencies));
+    }
+
+    @Override
+    public void addFast(Runnable run, Dependency... dependencies) {
+        smartQueue.addTask(new SyncTask(fastPool, run, dependencies));
+    }
+
+    @Override
+    public void addSlow(Runnable run, Dependency... dependencies) {
+        smartQueue.addTask(new SyncTask(slowPool, run, dependencies));
+    }
+
+    @Override
+    public void addTickTask(EngineTask tickTask) {
+        mainThread.addTickTask(tickTask);
+    }
+
+    @Override
+    public void removeTickTask(EngineTask tickTask) {
+        mainThread.removeTickTask(tickTask);
+    }
+
+    @Override
+    public void setIdleWait(IdleWait idleWait) {
+        mainThread.setIdleWait(idleWait);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        configPool.shutdown();
+        fastPool.shutdown();
+        slowPool.shutdown();
+    }
+}
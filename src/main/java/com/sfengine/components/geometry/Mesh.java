@@ -2,14 +2,16 @@ package com.sfengine.components.geometry;
 
 import com.sfengine.core.rendering.recording.Recordable;
 import com.sfengine.core.resources.Destroyable;
+import com.sfengine.core.synchronization.Dependable;
 
 /**
- * Interface representing a mesh that can be rendered.
+ * Interface representing a mesh that can be rendered. The mesh can be drawn once its dependency is
+ * released(its data is uploaded to the device).
  *
  * @author Cezary Chodun
  * @since 28.10.2019
  */
-public interface Mesh extends Recordable, Destroyable {
+public interface Mesh extends Recordable, Destroyable, Dependable {
 
     /** @return Vulkan handle for the vertices buffer. */
     long getVerticesHandle();
@@ -4,7 +4,11 @@ import static com.sfengine.core.result.VulkanResult.validate;
 import static org.lwjgl.system.MemoryUtil.*;
 import static org.lwjgl.vulkan.VK10.*;
 
+import com.sfengine.components.memory.GPUBuffer;
+import com.sfengine.components.memory.MemoryAllocator;
+import com.sfengine.components.memory.StagingUploader;
 import com.sfengine.core.result.VulkanException;
+import com.sfengine.core.synchronization.Dependency;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.nio.LongBuffer;
@@ -166,6 +170,36 @@ public class Util {
         return bufferData;
     }
 
+    /**
+     * Creates a buffer(sub-allocated from the device's memory allocator) and fills it with the
+     * provided data.
+     *
+     * @param physicalDevice A physical device that will be using the buffer.
+     * @param device A device that will store the data.
+     * @param data A buffer with the data.
+     * @param usage Buffer usage.
+     * @return The buffer.
+     * @throws VulkanException When failed to create the buffer.
+     */
+    private static GPUBuffer createFilledBuffer(
+            VkPhysicalDevice physicalDevice, VkDevice device, ByteBuffer data, int usage)
+            throws VulkanException {
+
+        GPUBuffer buffer =
+                MemoryAllocator.get(device, physicalDevice)
+                        .createBuffer(
+                                data.remaining(),
+                                usage,
+                                VK_SHARING_MODE_EXCLUSIVE,
+                                VK_MEMORY_PROPERTY_HOST_VISIBLE_BIT
+                                        | VK_MEMORY_PROPERTY_HOST_COHERENT_BIT);
+
+        MemoryUtil.memCopy(
+                memAddress(data), buffer.allocation.getMappedAddress(), data.remaining());
+
+        return buffer;
+    }
+
     /**
      * Creates a vertices buffer and fills it with provided data.
      *
@@ -174,7 +208,10 @@ public class Util {
      * @param verticesData A buffer with the vertices data.
      * @return A handle to the vertices buffer.
      * @throws VulkanException When failed to create the buffer.
+     * @deprecated The buffer's memory is allocated separately and cannot be freed, use {@link
+     *     #createVerticesBuffer(VkPhysicalDevice, VkDevice, StagingUploader, ByteBuffer)}.
      */
+    @Deprecated
     public static long createVerticesBuffer(
             VkPhysicalDevice physicalDevice, VkDevice device, ByteBuffer verticesData)
             throws VulkanException {
@@ -196,14 +233,17 @@ public class Util {
     }
 
     /**
-     * Creates a vertices buffer and fills it with provided data.
+     * Creates a indices buffer and fills it with provided data.
      *
      * @param physicalDevice A physical device that will be using the mesh.
-     * @param device A device that will store the vertices information.
+     * @param device A device that will store the indices information.
      * @param indicesData A buffer with the indices data.
-     * @return A handle to the vertices buffer.
+     * @return A handle to the indices buffer.
      * @throws VulkanException When failed to create the buffer.
+     * @deprecated The buffer's memory is allocated separately and cannot be freed, use {@link
+     *     #createIndicesBuffer(VkPhysicalDevice, VkDevice, StagingUploader, ByteBuffer)}.
      */
+    @Deprecated
     public static long createIndicesBuffer(
             VkPhysicalDevice physicalDevice, VkDevice device, ByteBuffer indicesData)
             throws VulkanException {
@@ -222,4 +262,81 @@ public class Util {
 
         return handle;
     }
+
+    /**
+     * Creates a vertices buffer. The buffer is device local and filled by the uploader if one is
+     * given, otherwise it is host visible and filled right away.
+     *
+     * @param physicalDevice A physical device that will be using the mesh.
+     * @param device A device that will store the vertices information.
+     * @param uploader The uploader(or null).
+     * @param verticesData A buffer with the vertices data.
+     * @return The vertices buffer.
+     * @throws VulkanException When failed to create the buffer.
+     */
+    public static GPUBuffer createVerticesBuffer(
+            VkPhysicalDevice physicalDevice,
+            VkDevice device,
+            StagingUploader uploader,
+            ByteBuffer verticesData)
+            throws VulkanException {
+        if (uploader == null)
+            return createFilledBuffer(
+                    physicalDevice, device, verticesData, VK_BUFFER_USAGE_VERTEX_BUFFER_BIT);
+
+        return createDeviceLocalBuffer(uploader, verticesData, VK_BUFFER_USAGE_VERTEX_BUFFER_BIT);
+    }
+
+    /**
+     * Creates a indices buffer. The buffer is device local and filled by the uploader if one is
+     * given, otherwise it is host visible and filled right away.
+     *
+     * @param physicalDevice A physical device that will be using the mesh.
+     * @param device A device that will store the indices information.
+     * @param uploader The uploader(or null).
+     * @param indicesData A buffer with the indices data.
+     * @return The indices buffer.
+     * @throws VulkanException When failed to create the buffer.
+     */
+    public static GPUBuffer createIndicesBuffer(
+            VkPhysicalDevice physicalDevice,
+            VkDevice device,
+            StagingUploader uploader,
+            ByteBuffer indicesData)
+            throws VulkanException {
+        if (uploader == null)
+            return createFilledBuffer(
+                    physicalDevice, device, indicesData, VK_BUFFER_USAGE_INDEX_BUFFER_BIT);
+
+        return createDeviceLocalBuffer(uploader, indicesData, VK_BUFFER_USAGE_INDEX_BUFFER_BIT);
+    }
+
+    private static GPUBuffer createDeviceLocalBuffer(
+            StagingUploader uploader, ByteBuffer data, int usage) throws VulkanException {
+        GPUBuffer buffer = uploader.createBuffer(data.remaining(), usage);
+        uploader.upload(data, buffer);
+        return buffer;
+    }
+
+    /**
+     * Returns the dependency of the buffers created with the uploader.
+     *
+     * @param uploader The uploader(or null).
+     * @return A dependency released once the data of the buffers created so far is uploaded.
+     */
+    public static Dependency uploadDependency(StagingUploader uploader) {
+        return uploader == null ? StagingUploader.UPLOADED : uploader.getUploadDependency();
+    }
+
+    /**
+     * Destroys a buffer created by the util and frees its memory.
+     *
+     * @param physicalDevice A physical device that was using the buffer.
+     * @param device A device that stores the buffer.
+     * @param buffer The buffer.
+     */
+    public static void destroyBuffer(
+            VkPhysicalDevice physicalDevice, VkDevice device, GPUBuffer buffer) {
+        MemoryAllocator.get(device, physicalDevice).destroyBuffer(buffer);
+    }
 }
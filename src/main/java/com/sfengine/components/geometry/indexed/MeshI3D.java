@@ -5,7 +5,10 @@ import static org.lwjgl.vulkan.VK10.*;
 
 import com.sfengine.components.geometry.Util;
 import com.sfengine.components.geometry.indexed.IndexedMesh;
+import com.sfengine.components.memory.GPUBuffer;
+import com.sfengine.components.memory.StagingUploader;
 import com.sfengine.core.result.VulkanException;
+import com.sfengine.core.synchronization.Dependency;
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
@@ -29,18 +32,23 @@ public class MeshI3D implements IndexedMesh {
     /** Length of a index description(in bytes). */
     private static int INDICES_STRIDE = 1 * 4;
 
+    private VkPhysicalDevice physicalDevice;
     private VkDevice device;
+    private StagingUploader uploader;
 
     /** Vertices buffer handle. */
-    private long verticesBuffer;
+    private GPUBuffer verticesBuffer;
     /** Number of vertices in the buffer. */
     private int verticesCount;
 
     /** Indices buffer handle. */
-    private long indicesBuffer;
+    private GPUBuffer indicesBuffer;
     /** Number of indices in the buffer. */
     private int indicesCount;
 
+    /** Released once the mesh data is uploaded. */
+    private Dependency uploaded;
+
     /**
      * Creates a new un-indexed two-dimensional(only x and y coordinates) mesh.
      *
@@ -55,8 +63,34 @@ public class MeshI3D implements IndexedMesh {
             List<Vector3f> vertices,
             List<Integer> indices)
             throws VulkanException {
+        this(physicalDevice, device, null, vertices, indices);
+    }
+
+    /**
+     * Creates a new indexed three-dimensional mesh in the device local memory. The mesh can be
+     * drawn once its dependency is released.
+     *
+     * @param uploader The uploader that fills the mesh buffers.
+     * @param vertices A list containing vertices position(x, y, z).
+     * @param indices A list containing the indices.
+     * @throws VulkanException
+     */
+    public MeshI3D(StagingUploader uploader, List<Vector3f> vertices, List<Integer> indices)
+            throws VulkanException {
+        this(uploader.getPhysicalDevice(), uploader.getDevice(), uploader, vertices, indices);
+    }
+
+    private MeshI3D(
+            VkPhysicalDevice physicalDevice,
+            VkDevice device,
+            StagingUploader uploader,
+            List<Vector3f> vertices,
+            List<Integer> indices)
+            throws VulkanException {
 
+        this.physicalDevice = physicalDevice;
         this.device = device;
+        this.uploader = uploader;
         createMesh(physicalDevice, vertices, indices);
     }
 
@@ -74,7 +108,7 @@ public class MeshI3D implements IndexedMesh {
         fb.flip();
 
         // Creates a Vulkan buffer with vertices data.
-        verticesBuffer = Util.createVerticesBuffer(physicalDevice, device, vertexBuffer);
+        verticesBuffer = Util.createVerticesBuffer(physicalDevice, device, uploader, vertexBuffer);
         memFree(vertexBuffer);
     }
 
@@ -90,7 +124,7 @@ public class MeshI3D implements IndexedMesh {
         }
         ib.flip();
 
-        indicesBuffer = Util.createIndicesBuffer(physicalDevice, device, indexBuffer);
+        indicesBuffer = Util.createIndicesBuffer(physicalDevice, device, uploader, indexBuffer);
         memFree(indexBuffer);
     }
 
@@ -100,17 +134,23 @@ public class MeshI3D implements IndexedMesh {
 
         createVerticesBuffer(physicalDevice, vertices);
         createIndicesBuffer(physicalDevice, indices);
+        uploaded = Util.uploadDependency(uploader);
     }
 
     @Override
     public void destroy() {
-        vkDestroyBuffer(device, verticesBuffer, null);
-        vkDestroyBuffer(device, indicesBuffer, null);
+        Util.destroyBuffer(physicalDevice, device, verticesBuffer);
+        Util.destroyBuffer(physicalDevice, device, indicesBuffer);
+    }
+
+    @Override
+    public Dependency getDependency() {
+        return uploaded;
     }
 
     @Override
     public long getVerticesHandle() {
-        return verticesBuffer;
+        return verticesBuffer.buffer;
     }
 
     @Override
@@ -125,7 +165,7 @@ public class MeshI3D implements IndexedMesh {
 
     @Override
     public long getIndicesHandle() {
-        return indicesBuffer;
+        return indicesBuffer.buffer;
     }
 
     @Override
@@ -140,8 +180,8 @@ public class MeshI3D implements IndexedMesh {
 
     @Override
     public void record(VkCommandBuffer buffer, long framebuffer) {
-        vkCmdBindVertexBuffers(buffer, 0, new long[] {verticesBuffer}, new long[]{});
-        vkCmdBindIndexBuffer(buffer,indicesBuffer, 0, VK_INDEX_TYPE_UINT32);
+        vkCmdBindVertexBuffers(buffer, 0, new long[] {verticesBuffer.buffer}, new long[]{});
+        vkCmdBindIndexBuffer(buffer, indicesBuffer.buffer, 0, VK_INDEX_TYPE_UINT32);
         vkCmdDraw(buffer, verticesCount, 1, 0, 0);
     }
 }
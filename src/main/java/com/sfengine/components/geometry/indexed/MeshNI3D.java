@@ -10,7 +10,10 @@ import java.nio.IntBuffer;
 import java.util.List;
 
 import com.sfengine.components.geometry.Util;
+import com.sfengine.components.memory.GPUBuffer;
+import com.sfengine.components.memory.StagingUploader;
 import com.sfengine.core.result.VulkanException;
+import com.sfengine.core.synchronization.Dependency;
 import org.joml.Vector3f;
 import org.lwjgl.vulkan.VkCommandBuffer;
 import org.lwjgl.vulkan.VkDevice;
@@ -24,17 +27,22 @@ public class MeshNI3D implements IndexedMesh{
     /** Length of a index description(in bytes). */
     private static int INDICES_STRIDE = 1 * 4;
     
+    private VkPhysicalDevice physicalDevice;
     private VkDevice device;
+    private StagingUploader uploader;
 
     /** Vertices buffer handle. */
-    private long verticesBuffer;
+    private GPUBuffer verticesBuffer;
     /** Number of vertices in the buffer. */
     private int verticesCount;
     
     /** Indices buffer handle. */
-    private long indicesBuffer;
+    private GPUBuffer indicesBuffer;
     /** Number of indices in the buffer. */
     private int indicesCount;
+
+    /** Released once the mesh data is uploaded. */
+    private Dependency uploaded;
     
     /**
      * Creates a new un-indexed three-dimensional(only x and y coordinates) mesh.
@@ -47,8 +55,32 @@ public class MeshNI3D implements IndexedMesh{
                     List<Vector3f> positions,
                     List<Vector3f> normals,
                     List<Integer> indices) throws VulkanException {
+        this(physicalDevice, device, null, positions, normals, indices);
+    }
+
+    /**
+     * Creates a new indexed three-dimensional mesh(with normals) in the device local memory. The
+     * mesh can be drawn once its dependency is released.
+     *
+     * @param uploader The uploader that fills the mesh buffers.
+     */
+    public MeshNI3D(StagingUploader uploader,
+                    List<Vector3f> positions,
+                    List<Vector3f> normals,
+                    List<Integer> indices) throws VulkanException {
+        this(uploader.getPhysicalDevice(), uploader.getDevice(), uploader, positions, normals, indices);
+    }
+
+    private MeshNI3D(VkPhysicalDevice physicalDevice,
+                     VkDevice device,
+                     StagingUploader uploader,
+                     List<Vector3f> positions,
+                     List<Vector3f> normals,
+                     List<Integer> indices) throws VulkanException {
         
+        this.physicalDevice = physicalDevice;
         this.device = device;
+        this.uploader = uploader;
         createMesh(physicalDevice, positions, normals, indices);
     }
     
@@ -69,7 +101,7 @@ public class MeshNI3D implements IndexedMesh{
         fb.flip();
 
         // Creates a Vulkan buffer with vertices data.
-        verticesBuffer = Util.createVerticesBuffer(physicalDevice, device, vertexBuffer);
+        verticesBuffer = Util.createVerticesBuffer(physicalDevice, device, uploader, vertexBuffer);
         memFree(vertexBuffer);
     }
     
@@ -86,7 +118,7 @@ public class MeshNI3D implements IndexedMesh{
         }
         ib.flip();
         
-        indicesBuffer = Util.createIndicesBuffer(physicalDevice, device, indexBuffer);
+        indicesBuffer = Util.createIndicesBuffer(physicalDevice, device, uploader, indexBuffer);
         memFree(indexBuffer);
     }
     
@@ -98,17 +130,23 @@ public class MeshNI3D implements IndexedMesh{
         
         createVerticesBuffer(physicalDevice, positions, normals);
         createIndicesBuffer(physicalDevice, indices);
+        uploaded = Util.uploadDependency(uploader);
     }
 
     @Override
     public void destroy() {
-        vkDestroyBuffer(device, verticesBuffer, null);
-        vkDestroyBuffer(device, indicesBuffer, null);
+        Util.destroyBuffer(physicalDevice, device, verticesBuffer);
+        Util.destroyBuffer(physicalDevice, device, indicesBuffer);
+    }
+
+    @Override
+    public Dependency getDependency() {
+        return uploaded;
     }
 
     @Override
     public long getVerticesHandle() {
-        return verticesBuffer;
+        return verticesBuffer.buffer;
     }
 
     @Override
@@ -123,7 +161,7 @@ public class MeshNI3D implements IndexedMesh{
 
     @Override
     public long getIndicesHandle() {
-        return indicesBuffer;
+        return indicesBuffer.buffer;
     }
 
     @Override
@@ -138,8 +176,8 @@ public class MeshNI3D implements IndexedMesh{
 
     @Override
     public void record(VkCommandBuffer buffer, long framebuffer) {
-        vkCmdBindVertexBuffers(buffer, 0, new long[] {verticesBuffer}, new long[]{});
-        vkCmdBindIndexBuffer(buffer,indicesBuffer, 0, VK_INDEX_TYPE_UINT32);
+        vkCmdBindVertexBuffers(buffer, 0, new long[] {verticesBuffer.buffer}, new long[]{});
+        vkCmdBindIndexBuffer(buffer, indicesBuffer.buffer, 0, VK_INDEX_TYPE_UINT32);
         vkCmdDraw(buffer, verticesCount, 1, 0, 0);
     }
 }
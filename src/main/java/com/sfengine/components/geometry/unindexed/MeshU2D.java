@@ -5,7 +5,10 @@ import static org.lwjgl.vulkan.VK10.*;
 
 import com.sfengine.components.geometry.Util;
 import com.sfengine.components.geometry.unindexed.UnindexedMesh;
+import com.sfengine.components.memory.GPUBuffer;
+import com.sfengine.components.memory.StagingUploader;
 import com.sfengine.core.result.VulkanException;
+import com.sfengine.core.synchronization.Dependency;
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.util.List;
@@ -25,13 +28,18 @@ public class MeshU2D implements UnindexedMesh {
     /** Length of a vertex description(in bytes). */
     private static int STRIDE = 2 * 4; // Two floats(4 bytes) per vertex.
 
+    private VkPhysicalDevice physicalDevice;
     private VkDevice device;
+    private StagingUploader uploader;
 
     /** Vertices buffer handle. */
-    private long verticesBuffer;
+    private GPUBuffer verticesBuffer;
     /** Number of vertices in the buffer. */
     private int verticesCount;
 
+    /** Released once the mesh data is uploaded. */
+    private Dependency uploaded;
+
     /**
      * Creates a new un-indexed two-dimensional(only x and y coordinates) mesh.
      *
@@ -42,7 +50,30 @@ public class MeshU2D implements UnindexedMesh {
      */
     public MeshU2D(VkPhysicalDevice physicalDevice, VkDevice device, List<Vector2f> vertices)
             throws VulkanException {
+        this(physicalDevice, device, null, vertices);
+    }
+
+    /**
+     * Creates a new un-indexed two-dimensional mesh in the device local memory. The mesh can be
+     * drawn once its dependency is released.
+     *
+     * @param uploader The uploader that fills the mesh buffer.
+     * @param vertices A list containing vertices position(x, y).
+     * @throws VulkanException
+     */
+    public MeshU2D(StagingUploader uploader, List<Vector2f> vertices) throws VulkanException {
+        this(uploader.getPhysicalDevice(), uploader.getDevice(), uploader, vertices);
+    }
+
+    private MeshU2D(
+            VkPhysicalDevice physicalDevice,
+            VkDevice device,
+            StagingUploader uploader,
+            List<Vector2f> vertices)
+            throws VulkanException {
+        this.physicalDevice = physicalDevice;
         this.device = device;
+        this.uploader = uploader;
 
         createMesh(physicalDevice, vertices);
     }
@@ -68,19 +99,25 @@ public class MeshU2D implements UnindexedMesh {
         fb.flip();
 
         // Creates a Vulkan buffer with vertices data.
-        verticesBuffer = Util.createVerticesBuffer(physicalDevice, device, vertexBuffer);
+        verticesBuffer = Util.createVerticesBuffer(physicalDevice, device, uploader, vertexBuffer);
+        uploaded = Util.uploadDependency(uploader);
 
         memFree(vertexBuffer);
     }
 
     @Override
     public void destroy() {
-        vkDestroyBuffer(device, verticesBuffer, null);
+        Util.destroyBuffer(physicalDevice, device, verticesBuffer);
+    }
+
+    @Override
+    public Dependency getDependency() {
+        return uploaded;
     }
 
     @Override
     public long getVerticesHandle() {
-        return verticesBuffer;
+        return verticesBuffer.buffer;
     }
 
     @Override
@@ -95,7 +132,7 @@ public class MeshU2D implements UnindexedMesh {
 
     @Override
     public void record(VkCommandBuffer buffer, long framebuffer) {
-        vkCmdBindVertexBuffers(buffer, 0, new long[] {verticesBuffer}, new long[]{});
+        vkCmdBindVertexBuffers(buffer, 0, new long[] {verticesBuffer.buffer}, new long[]{});
         vkCmdDraw(buffer, verticesCount, 1, 0, 0);
     }
 }
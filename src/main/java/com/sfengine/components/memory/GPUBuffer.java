@@ -13,6 +13,10 @@ public class GPUBuffer {
     public long memory;
     /** Size of the buffer. */
     public long allocationSize;
+    /** Offset of the buffer within the memory. */
+    public long offset;
+    /** The memory allocator region(null if the memory is owned by the buffer). */
+    public MemoryAllocation allocation;
 
     public GPUBuffer() {}
 
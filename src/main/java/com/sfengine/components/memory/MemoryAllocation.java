@@ -0,0 +1,78 @@
+package com.sfengine.components.memory;
+
+/**
+ * A region of a device memory block handed out by the memory allocator.
+ */
+public class MemoryAllocation {
+
+    /** The block the region belongs to. */
+    final MemoryBlock block;
+
+    private final long offset;
+    private final long size;
+
+    private volatile boolean freed = false;
+
+    MemoryAllocation(MemoryBlock block, long offset, long size) {
+        this.block = block;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    /**
+     * Returns the device memory handle(shared with the other allocations of the block).
+     *
+     * @return the VkDeviceMemory handle.
+     */
+    public long getMemory() {
+        return block.getMemory();
+    }
+
+    /**
+     * Returns the offset of the allocation within the device memory.
+     *
+     * @return the offset(aligned to the requested alignment).
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the size of the allocation.
+     *
+     * @return the size in bytes.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    public int getMemoryTypeIndex() {
+        return block.getMemoryTypeIndex();
+    }
+
+    /**
+     * Tells whether the memory is host visible(and mapped for the whole lifetime of the block).
+     *
+     * @return true if the allocation can be accessed through getMappedAddress().
+     */
+    public boolean isMapped() {
+        return block.getMappedAddress() != 0;
+    }
+
+    /**
+     * Returns the host address of the beginning of the allocation.
+     *
+     * @return the mapped address or 0 if the memory is not host visible.
+     */
+    public long getMappedAddress() {
+        long mapped = block.getMappedAddress();
+        return mapped == 0 ? 0 : mapped + offset;
+    }
+
+    boolean markFreed() {
+        if (freed)
+            return false;
+        freed = true;
+        return true;
+    }
+}
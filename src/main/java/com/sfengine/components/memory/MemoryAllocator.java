@@ -0,0 +1,317 @@
+package com.sfengine.components.memory;
+
+import static com.sfengine.core.result.VulkanResult.validate;
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.vulkan.VK10.*;
+
+import com.sfengine.core.context.ContextDictionary;
+import com.sfengine.core.context.ContextUtil;
+import com.sfengine.core.resources.Destroyable;
+import com.sfengine.core.result.VulkanException;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.lwjgl.vulkan.VkBufferCreateInfo;
+import org.lwjgl.vulkan.VkDevice;
+import org.lwjgl.vulkan.VkMemoryRequirements;
+import org.lwjgl.vulkan.VkPhysicalDevice;
+import org.lwjgl.vulkan.VkPhysicalDeviceMemoryProperties;
+
+/**
+ * Device memory allocator(one per device). Instead of calling vkAllocateMemory for every buffer,
+ * the buffers are placed in large blocks allocated per memory type, which keeps the number of the
+ * device allocations far below maxMemoryAllocationCount. Every allocation is aligned to the
+ * alignment required by its resource, the padding and the freed regions are merged back into the
+ * free space of their block.
+ *
+ * <p>Only buffers(linear resources) are allocated, so the bufferImageGranularity does not have
+ * to be respected. The allocations larger than half of the block size get a dedicated block.
+ */
+public class MemoryAllocator implements Destroyable {
+
+    /** The default size of a memory block(in bytes). */
+    public static final long BLOCK_SIZE = Long.getLong("rendering_memory_block_size", 64L << 20);
+
+    private static final Map<VkDevice, MemoryAllocator> allocators = new ConcurrentHashMap<>();
+
+    private final VkDevice device;
+    private final long blockSize;
+
+    private final int[] typeFlags;
+    /** The blocks of every memory type. */
+    private final List<List<MemoryBlock>> blocks;
+
+    private long deviceAllocations = 0, totalAllocations = 0;
+
+    /**
+     * Creates an allocator.
+     *
+     * @param device the device.
+     * @param physicalDevice the physical device of the device.
+     * @param blockSize the size of the memory blocks.
+     */
+    public MemoryAllocator(VkDevice device, VkPhysicalDevice physicalDevice, long blockSize) {
+        if (blockSize <= 0)
+            throw new AssertionError("The block size must be positive.");
+
+        this.device = device;
+        this.blockSize = blockSize;
+
+        VkPhysicalDeviceMemoryProperties memoryProperties =
+                VkPhysicalDeviceMemoryProperties.calloc();
+        vkGetPhysicalDeviceMemoryProperties(physicalDevice, memoryProperties);
+
+        int typeCount = memoryProperties.memoryTypeCount();
+        typeFlags = new int[typeCount];
+        blocks = new ArrayList<>(typeCount);
+        for (int i = 0; i < typeCount; i++) {
+            typeFlags[i] = memoryProperties.memoryTypes(i).propertyFlags();
+            blocks.add(new ArrayList<>());
+        }
+
+        memoryProperties.free();
+    }
+
+    /**
+     * Returns the allocator of the device.
+     *
+     * @param device the device.
+     * @param physicalDevice the physical device of the device.
+     * @return the allocator.
+     */
+    public static MemoryAllocator get(VkDevice device, VkPhysicalDevice physicalDevice) {
+        return allocators.computeIfAbsent(
+                device, d -> new MemoryAllocator(d, physicalDevice, BLOCK_SIZE));
+    }
+
+    /**
+     * Returns the allocator of the dictionary's device.
+     *
+     * @param dict the context dictionary.
+     * @return the allocator.
+     */
+    public static MemoryAllocator get(ContextDictionary dict) {
+        return get(
+                ContextUtil.getDevice(dict).getDevice(),
+                ContextUtil.getPhysicalDevice(dict).getPhysicalDevice());
+    }
+
+    /**
+     * Destroys the allocator of the device(if any).
+     *
+     * @param device the device.
+     */
+    public static void destroyAllocator(VkDevice device) {
+        MemoryAllocator allocator = allocators.remove(device);
+        if (allocator != null)
+            allocator.destroy();
+    }
+
+    /**
+     * Finds the first memory type that meets the requirements.
+     *
+     * @param bits the acceptable memory types.
+     * @param properties the required memory properties.
+     * @return the memory type index or -1.
+     */
+    private int findMemoryType(int bits, int properties) {
+        for (int i = 0; i < typeFlags.length; i++)
+            if ((bits & (1 << i)) != 0 && (typeFlags[i] & properties) == properties)
+                return i;
+
+        return -1;
+    }
+
+    /**
+     * Allocates memory that meets the requirements.
+     *
+     * @param requirements the memory requirements of the resource.
+     * @param properties the required memory properties.
+     * @return the allocation.
+     * @throws VulkanException when the device memory allocation failed.
+     */
+    public MemoryAllocation allocate(VkMemoryRequirements requirements, int properties)
+            throws VulkanException {
+        int type = findMemoryType(requirements.memoryTypeBits(), properties);
+        if (type < 0)
+            throw new AssertionError("Failed to obtain memory type.");
+
+        return allocate(type, requirements.size(), Math.max(1, requirements.alignment()));
+    }
+
+    private synchronized MemoryAllocation allocate(int type, long size, long alignment)
+            throws VulkanException {
+        boolean hostVisible = (typeFlags[type] & VK_MEMORY_PROPERTY_HOST_VISIBLE_BIT) != 0;
+        totalAllocations++;
+
+        if (size > blockSize / 2) {
+            MemoryBlock block = newBlock(size, type, hostVisible, true);
+            return block.allocate(size, alignment);
+        }
+
+        for (MemoryBlock block : blocks.get(type)) {
+            if (block.isDedicated())
+                continue;
+
+            MemoryAllocation allocation = block.allocate(size, alignment);
+            if (allocation != null)
+                return allocation;
+        }
+
+        return newBlock(blockSize, type, hostVisible, false).allocate(size, alignment);
+    }
+
+    private MemoryBlock newBlock(long size, int type, boolean hostVisible, boolean dedicated)
+            throws VulkanException {
+        MemoryBlock block = new MemoryBlock(device, size, type, hostVisible, dedicated);
+        blocks.get(type).add(block);
+        deviceAllocations++;
+        return block;
+    }
+
+    /**
+     * Returns the memory to its block. The empty dedicated blocks are freed, of the shared blocks
+     * one empty block per memory type is kept for the future allocations.
+     *
+     * @param allocation the allocation.
+     */
+    public synchronized void free(MemoryAllocation allocation) {
+        if (allocation == null || !allocation.markFreed())
+            return;
+
+        MemoryBlock block = allocation.block;
+        block.free(allocation);
+        if (!block.isEmpty())
+            return;
+
+        List<MemoryBlock> typeBlocks = blocks.get(block.getMemoryTypeIndex());
+        boolean release = block.isDedicated();
+        if (!release) {
+            for (MemoryBlock b : typeBlocks) {
+                if (b != block && !b.isDedicated() && b.isEmpty()) {
+                    release = true;
+                    break;
+                }
+            }
+        }
+
+        if (release) {
+            typeBlocks.remove(block);
+            block.destroy(device);
+        }
+    }
+
+    /**
+     * Creates a buffer and binds it to the memory allocated from the allocator.
+     *
+     * @param size the size of the buffer.
+     * @param usage the buffer usage.
+     * @param sharingMode the sharing mode.
+     * @param properties the required memory properties.
+     * @return the buffer.
+     * @throws VulkanException when the buffer creation or the memory allocation failed.
+     */
+    public GPUBuffer createBuffer(long size, int usage, int sharingMode, int properties)
+            throws VulkanException {
+        VkBufferCreateInfo bufferCreateInfo =
+                VkBufferCreateInfo.calloc()
+                        .sType(VK_STRUCTURE_TYPE_BUFFER_CREATE_INFO)
+                        .pNext(NULL)
+                        .flags(0)
+                        .usage(usage)
+                        .size(size)
+                        .pQueueFamilyIndices(null)
+                        .sharingMode(sharingMode);
+
+        LongBuffer pBuffer = memAllocLong(1);
+        int err = vkCreateBuffer(device, bufferCreateInfo, null, pBuffer);
+        long buffer = pBuffer.get(0);
+        memFree(pBuffer);
+        bufferCreateInfo.free();
+        validate(err, "Failed to create buffer.");
+
+        VkMemoryRequirements memoryRequirements = VkMemoryRequirements.calloc();
+        vkGetBufferMemoryRequirements(device, buffer, memoryRequirements);
+
+        MemoryAllocation allocation;
+        try {
+            allocation = allocate(memoryRequirements, properties);
+        } catch (VulkanException | AssertionError e) {
+            vkDestroyBuffer(device, buffer, null);
+            throw e;
+        } finally {
+            memoryRequirements.free();
+        }
+
+        err = vkBindBufferMemory(device, buffer, allocation.getMemory(), allocation.getOffset());
+        if (err != VK_SUCCESS) {
+            vkDestroyBuffer(device, buffer, null);
+            free(allocation);
+        }
+        validate(err, "Failed to bind buffer memory.");
+
+        GPUBuffer out = new GPUBuffer(buffer, allocation.getMemory(), allocation.getSize());
+        out.offset = allocation.getOffset();
+        out.allocation = allocation;
+        return out;
+    }
+
+    /**
+     * Destroys the buffer and frees its memory.
+     *
+     * @param buffer the buffer created by the allocator.
+     */
+    public void destroyBuffer(GPUBuffer buffer) {
+        vkDestroyBuffer(device, buffer.buffer, null);
+        free(buffer.allocation);
+        buffer.allocation = null;
+    }
+
+    /**
+     * Returns the usage statistics of the allocator.
+     *
+     * @return the statistics snapshot.
+     */
+    public synchronized MemoryStatistics getStatistics() {
+        int blockCount = 0, allocationCount = 0, freeRegions = 0;
+        long blockBytes = 0, allocatedBytes = 0;
+
+        for (List<MemoryBlock> typeBlocks : blocks) {
+            for (MemoryBlock block : typeBlocks) {
+                blockCount++;
+                blockBytes += block.getSize();
+                allocationCount += block.getAllocationCount();
+                allocatedBytes += block.getUsed();
+                freeRegions += block.getFreeRegionCount();
+            }
+        }
+
+        return new MemoryStatistics(
+                blockCount,
+                blockBytes,
+                allocationCount,
+                allocatedBytes,
+                freeRegions,
+                deviceAllocations,
+                totalAllocations);
+    }
+
+    public long getBlockSize() {
+        return blockSize;
+    }
+
+    /** Frees every memory block, the allocations must not be used afterwards. */
+    @Override
+    public synchronized void destroy() {
+        for (List<MemoryBlock> typeBlocks : blocks) {
+            Iterator<MemoryBlock> it = typeBlocks.iterator();
+            while (it.hasNext()) {
+                it.next().destroy(device);
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.sfengine.components.memory;
+
+import static com.sfengine.core.result.VulkanResult.validate;
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.vulkan.VK10.*;
+
+import com.sfengine.core.result.VulkanException;
+import java.nio.LongBuffer;
+import java.util.Map;
+import java.util.TreeMap;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.vulkan.VkDevice;
+import org.lwjgl.vulkan.VkMemoryAllocateInfo;
+
+/**
+ * A single vkAllocateMemory allocation split into regions. The free regions are kept ordered by
+ * their offsets and adjacent free regions are merged, so the alignment padding returns to the
+ * block together with the allocation. Host visible blocks are mapped once for their whole
+ * lifetime.
+ *
+ * <p>Not thread safe, guarded by the allocator.
+ */
+class MemoryBlock {
+
+    private final long memory;
+    private final long size;
+    private final int memoryTypeIndex;
+    private final boolean dedicated;
+    private long mapped = 0;
+
+    /** Free regions(offset to size). */
+    private final TreeMap<Long, Long> free = new TreeMap<>();
+
+    private long used = 0;
+    private int allocations = 0;
+
+    /**
+     * Allocates a new block.
+     *
+     * @param device the device.
+     * @param size the size of the block.
+     * @param memoryTypeIndex the memory type.
+     * @param hostVisible whether the memory should be mapped.
+     * @param dedicated whether the block holds a single allocation.
+     * @throws VulkanException when the allocation(or mapping) failed.
+     */
+    MemoryBlock(VkDevice device, long size, int memoryTypeIndex, boolean hostVisible, boolean dedicated)
+            throws VulkanException {
+        this.size = size;
+        this.memoryTypeIndex = memoryTypeIndex;
+        this.dedicated = dedicated;
+
+        VkMemoryAllocateInfo memAlloc =
+                VkMemoryAllocateInfo.calloc()
+                        .sType(VK_STRUCTURE_TYPE_MEMORY_ALLOCATE_INFO)
+                        .pNext(NULL)
+                        .allocationSize(size)
+                        .memoryTypeIndex(memoryTypeIndex);
+
+        LongBuffer pMemory = memAllocLong(1);
+        int err = vkAllocateMemory(device, memAlloc, null, pMemory);
+        memory = pMemory.get(0);
+        memFree(pMemory);
+        memAlloc.free();
+        validate(err, "Failed to allocate a memory block.");
+
+        if (hostVisible) {
+            PointerBuffer ppData = memAllocPointer(1);
+            err = vkMapMemory(device, memory, 0, VK_WHOLE_SIZE, 0, ppData);
+            mapped = ppData.get(0);
+            memFree(ppData);
+
+            if (err != VK_SUCCESS)
+                vkFreeMemory(device, memory, null);
+            validate(err, "Failed to map a memory block.");
+        }
+
+        free.put(0L, size);
+    }
+
+    /**
+     * Finds a free region(first fit) and splits it.
+     *
+     * @param size the size of the allocation.
+     * @param alignment the alignment of the allocation(a power of two).
+     * @return the allocation or null if no region is large enough.
+     */
+    MemoryAllocation allocate(long size, long alignment) {
+        for (Map.Entry<Long, Long> e : free.entrySet()) {
+            long offset = e.getKey();
+            long regionSize = e.getValue();
+
+            long aligned = (offset + alignment - 1) & ~(alignment - 1);
+            long padding = aligned - offset;
+            if (padding + size > regionSize)
+                continue;
+
+            free.remove(offset);
+            if (padding > 0)
+                free.put(offset, padding);
+            long rest = regionSize - padding - size;
+            if (rest > 0)
+                free.put(aligned + size, rest);
+
+            used += size;
+            allocations++;
+            return new MemoryAllocation(this, aligned, size);
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the region of the allocation to the block.
+     *
+     * @param allocation the allocation.
+     */
+    void free(MemoryAllocation allocation) {
+        long offset = allocation.getOffset();
+        long regionSize = allocation.getSize();
+
+        Map.Entry<Long, Long> prev = free.floorEntry(offset);
+        if (prev != null && prev.getKey() + prev.getValue() == offset) {
+            offset = prev.getKey();
+            regionSize += prev.getValue();
+            free.remove(prev.getKey());
+        }
+
+        Long nextSize = free.get(offset + regionSize);
+        if (nextSize != null) {
+            free.remove(offset + regionSize);
+            regionSize += nextSize;
+        }
+
+        free.put(offset, regionSize);
+
+        used -= allocation.getSize();
+        allocations--;
+    }
+
+    /**
+     * Frees the device memory.
+     *
+     * @param device the device.
+     */
+    void destroy(VkDevice device) {
+        if (mapped != 0)
+            vkUnmapMemory(device, memory);
+        vkFreeMemory(device, memory, null);
+        mapped = 0;
+    }
+
+    long getMemory() {
+        return memory;
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    int getMemoryTypeIndex() {
+        return memoryTypeIndex;
+    }
+
+    long getMappedAddress() {
+        return mapped;
+    }
+
+    boolean isDedicated() {
+        return dedicated;
+    }
+
+    boolean isEmpty() {
+        return allocations == 0;
+    }
+
+    long getUsed() {
+        return used;
+    }
+
+    int getAllocationCount() {
+        return allocations;
+    }
+
+    int getFreeRegionCount() {
+        return free.size();
+    }
+}
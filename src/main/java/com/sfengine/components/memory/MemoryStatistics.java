@@ -0,0 +1,57 @@
+package com.sfengine.components.memory;
+
+/**
+ * A snapshot of the memory allocator usage.
+ */
+public class MemoryStatistics {
+
+    /** Number of the device memory blocks(vkAllocateMemory allocations alive). */
+    public final int blockCount;
+    /** Total size of the device memory blocks. */
+    public final long blockBytes;
+    /** Number of the live sub-allocations. */
+    public final int allocationCount;
+    /** Total size of the live sub-allocations. */
+    public final long allocatedBytes;
+    /** Number of the free regions(a measure of the fragmentation). */
+    public final int freeRegionCount;
+    /** Number of the vkAllocateMemory calls made so far. */
+    public final long deviceAllocations;
+    /** Number of the sub-allocations made so far. */
+    public final long totalAllocations;
+
+    MemoryStatistics(
+            int blockCount,
+            long blockBytes,
+            int allocationCount,
+            long allocatedBytes,
+            int freeRegionCount,
+            long deviceAllocations,
+            long totalAllocations) {
+        this.blockCount = blockCount;
+        this.blockBytes = blockBytes;
+        this.allocationCount = allocationCount;
+        this.allocatedBytes = allocatedBytes;
+        this.freeRegionCount = freeRegionCount;
+        this.deviceAllocations = deviceAllocations;
+        this.totalAllocations = totalAllocations;
+    }
+
+    /**
+     * Returns the part of the block memory that is not allocated.
+     *
+     * @return the unused bytes.
+     */
+    public long getUnusedBytes() {
+        return blockBytes - allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "blocks: " + blockCount + "(" + blockBytes + "B)"
+                + ", allocations: " + allocationCount + "(" + allocatedBytes + "B)"
+                + ", free regions: " + freeRegionCount
+                + ", vkAllocateMemory calls: " + deviceAllocations
+                + ", sub-allocations: " + totalAllocations;
+    }
+}
@@ -4,18 +4,11 @@ import static org.lwjgl.system.MemoryUtil.*;
 import static org.lwjgl.vulkan.VK10.*;
 import static com.sfengine.core.result.VulkanResult.*;
 
-import com.sfengine.core.rendering.RenderUtil;
 import com.sfengine.core.result.VulkanException;
 import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
-import java.nio.LongBuffer;
 import org.lwjgl.PointerBuffer;
-import org.lwjgl.vulkan.VkBufferCreateInfo;
 import org.lwjgl.vulkan.VkDevice;
-import org.lwjgl.vulkan.VkMemoryAllocateInfo;
-import org.lwjgl.vulkan.VkMemoryRequirements;
 import org.lwjgl.vulkan.VkPhysicalDevice;
-import org.lwjgl.vulkan.VkPhysicalDeviceMemoryProperties;
 
 /**
  * Memory utilities for rendering tasks.
@@ -25,6 +18,10 @@ import org.lwjgl.vulkan.VkPhysicalDeviceMemoryProperties;
  */
 public class RenderingMemoryUtil {
 
+    /** Memory properties of the buffers allocated by the utilities. */
+    private static final int HOST_MEMORY =
+            VK_MEMORY_PROPERTY_HOST_VISIBLE_BIT | VK_MEMORY_PROPERTY_HOST_COHERENT_BIT;
+
     /**
      * Binds data to gpu buffer.
      *
@@ -35,19 +32,13 @@ public class RenderingMemoryUtil {
      */
     public static void bindBufferMemoryGPU(VkDevice device, GPUBuffer buff, ByteBuffer data)
             throws VulkanException {
-        PointerBuffer ppData = memAllocPointer(1);
-        int err = vkMapMemory(device, buff.memory, 0, buff.allocationSize, 0, ppData);
-        validate(err, "Failed to map memory.");
-
-        long pData = ppData.get(0);
-        memFree(ppData);
-
-        memCopy(memAddress(data), pData, data.remaining());
+        copyToBufferMemoryGPU(device, buff, data);
 
-        vkUnmapMemory(device, buff.memory);
-
-        err = vkBindBufferMemory(device, buff.buffer, buff.memory, 0);
-        validate(err, "Failed to bind buffer memory.");
+        if (buff.allocation == null) {
+            // The memory allocator binds its buffers on creation.
+            int err = vkBindBufferMemory(device, buff.buffer, buff.memory, buff.offset);
+            validate(err, "Failed to bind buffer memory.");
+        }
     }
 
     /**
@@ -60,20 +51,28 @@ public class RenderingMemoryUtil {
      */
     public static void copyToBufferMemoryGPU(VkDevice device, GPUBuffer buff, ByteBuffer data)
             throws VulkanException {
+        long size = Math.min(data.remaining(), buff.allocationSize);
+
+        if (buff.allocation != null && buff.allocation.isMapped()) {
+            memCopy(memAddress(data), buff.allocation.getMappedAddress(), size);
+            return;
+        }
+
         PointerBuffer ppData = memAllocPointer(1);
-        int err = vkMapMemory(device, buff.memory, 0, buff.allocationSize, 0, ppData);
+        int err = vkMapMemory(device, buff.memory, buff.offset, buff.allocationSize, 0, ppData);
         validate(err, "Failed to map memory.");
 
         long pData = ppData.get(0);
         memFree(ppData);
 
-        memCopy(memAddress(data), pData, buff.allocationSize);
+        memCopy(memAddress(data), pData, size);
 
         vkUnmapMemory(device, buff.memory);
     }
 
     /**
-     * Allocates buffer memory for future use.
+     * Allocates buffer memory for future use. The memory is sub-allocated from the device's
+     * memory allocator and the buffer is already bound to it.
      *
      * @param device - Logical device
      * @param physicalDevice - The physical device
@@ -90,58 +89,25 @@ public class RenderingMemoryUtil {
             int bufferUsage,
             int sharingMode)
             throws VulkanException {
-        GPUBuffer ans = new GPUBuffer();
-
-        VkPhysicalDeviceMemoryProperties memoryProperties =
-                VkPhysicalDeviceMemoryProperties.calloc();
-        vkGetPhysicalDeviceMemoryProperties(physicalDevice, memoryProperties);
-
-        VkBufferCreateInfo bufferCreateInfo =
-                VkBufferCreateInfo.calloc()
-                        .sType(VK_STRUCTURE_TYPE_BUFFER_CREATE_INFO)
-                        .pNext(NULL)
-                        .flags(0)
-                        .usage(bufferUsage)
-                        .size(buferSize)
-                        .pQueueFamilyIndices(null)
-                        .sharingMode(sharingMode);
-
-        LongBuffer pBuffer = memAllocLong(1);
-        int err = vkCreateBuffer(device, bufferCreateInfo, null, pBuffer);
-        validate(err, "Failed to create buffer.");
-        ans.buffer = pBuffer.get(0);
-        memFree(pBuffer);
-
-        VkMemoryRequirements memoryRequirements = VkMemoryRequirements.calloc();
-        vkGetBufferMemoryRequirements(device, ans.buffer, memoryRequirements);
-        ans.allocationSize = memoryRequirements.size();
-
-        VkMemoryAllocateInfo memAlloc =
-                VkMemoryAllocateInfo.calloc()
-                        .sType(VK_STRUCTURE_TYPE_MEMORY_ALLOCATE_INFO)
-                        .pNext(NULL)
-                        .allocationSize(ans.allocationSize);
-
-        IntBuffer typeIndex = memAllocInt(1);
-        RenderUtil.getMemoryType(
-                physicalDevice,
-                memoryRequirements.memoryTypeBits(),
-                VK_MEMORY_PROPERTY_HOST_VISIBLE_BIT,
-                typeIndex);
-        memAlloc.memoryTypeIndex(typeIndex.get(0));
-        memFree(typeIndex);
-
-        LongBuffer pMemory = memAllocLong(1);
-        err = vkAllocateMemory(device, memAlloc, null, pMemory);
-        validate(err, "Failed to allocate memory.");
-        ans.memory = pMemory.get(0);
-        memFree(pMemory);
-
-        bufferCreateInfo.free();
-        memoryProperties.free();
-        memoryRequirements.free();
-        memAlloc.free();
+        return MemoryAllocator.get(device, physicalDevice)
+                .createBuffer(buferSize, bufferUsage, sharingMode, HOST_MEMORY);
+    }
 
-        return ans;
+    /**
+     * Destroys the buffer and frees its memory.
+     *
+     * @param device - Logical device
+     * @param physicalDevice - The physical device
+     * @param buff - The buffer allocated with allocateBufferMemoryGPU
+     */
+    public static void freeBufferMemoryGPU(
+            VkDevice device, VkPhysicalDevice physicalDevice, GPUBuffer buff) {
+        if (buff.allocation != null) {
+            MemoryAllocator.get(device, physicalDevice).destroyBuffer(buff);
+            return;
+        }
+
+        vkDestroyBuffer(device, buff.buffer, null);
+        vkFreeMemory(device, buff.memory, null);
     }
 }
@@ -0,0 +1,422 @@
+package com.sfengine.components.memory;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.vulkan.VK10.*;
+
+import com.sfengine.core.context.ContextDictionary;
+import com.sfengine.core.context.ContextUtil;
+import com.sfengine.core.engine.EngineTask;
+import com.sfengine.core.rendering.RenderUtil;
+import com.sfengine.core.resources.Destroyable;
+import com.sfengine.core.result.VulkanException;
+import com.sfengine.core.result.VulkanResult;
+import com.sfengine.core.synchronization.Dependency;
+import com.sfengine.core.synchronization.DependencyFence;
+import com.sfengine.core.synchronization.VkFence.VkFencePool;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.vulkan.VkBufferCopy;
+import org.lwjgl.vulkan.VkCommandBuffer;
+import org.lwjgl.vulkan.VkCommandBufferAllocateInfo;
+import org.lwjgl.vulkan.VkCommandBufferBeginInfo;
+import org.lwjgl.vulkan.VkDevice;
+import org.lwjgl.vulkan.VkMemoryBarrier;
+import org.lwjgl.vulkan.VkPhysicalDevice;
+import org.lwjgl.vulkan.VkQueue;
+import org.lwjgl.vulkan.VkSubmitInfo;
+
+/**
+ * Uploads data into device local buffers. The data is written into a persistently mapped staging
+ * ring(created with the first upload) and the copies(vkCmdCopyBuffer) requested between two ticks
+ * are recorded into a single command buffer and submitted together. The uploads that do not fit in
+ * the ring get a temporary staging buffer.
+ *
+ * <p>Every upload returns the dependency of its batch, released once the batch's fence is
+ * signalled. The batches complete in the submission order, so the dependency of an upload also
+ * covers every earlier upload.
+ *
+ * <p>The uploader must be added to the tick task list(the batches are submitted and checked on
+ * the main thread), the uploads can be requested from any thread.
+ */
+public class StagingUploader implements EngineTask, Destroyable {
+
+    /** The default size of the staging ring(in bytes). */
+    public static final long RING_SIZE = Long.getLong("rendering_staging_ring_size", 16L << 20);
+
+    /** Alignment of the data within the ring. */
+    private static final long COPY_ALIGNMENT = 16;
+
+    /** A dependency that is already released(no upload pending). */
+    public static final DependencyFence UPLOADED = new DependencyFence();
+
+    static {
+        UPLOADED.release();
+    }
+
+    private static final int STAGING_MEMORY =
+            VK_MEMORY_PROPERTY_HOST_VISIBLE_BIT | VK_MEMORY_PROPERTY_HOST_COHERENT_BIT;
+
+    /** A single copy command. */
+    private static class Copy {
+
+        private final long src, srcOffset, dst, dstOffset, size;
+
+        private Copy(long src, long srcOffset, long dst, long dstOffset, long size) {
+            this.src = src;
+            this.srcOffset = srcOffset;
+            this.dst = dst;
+            this.dstOffset = dstOffset;
+            this.size = size;
+        }
+    }
+
+    /** The copies submitted together. */
+    private static class Batch {
+
+        private final List<Copy> copies = new ArrayList<>();
+        private final List<GPUBuffer> temporary = new ArrayList<>();
+        private final DependencyFence done = new DependencyFence();
+        /** The ring bytes used by the batch(including the padding). */
+        private long consumed = 0;
+
+        private long fence = VK_NULL_HANDLE;
+        private VkCommandBuffer cmd;
+    }
+
+    private final VkPhysicalDevice physicalDevice;
+    private final VkDevice device;
+    private final VkQueue queue;
+    private final MemoryAllocator allocator;
+    private final long commandPool;
+
+    /** The staging ring, created with the first upload. */
+    private GPUBuffer ring;
+    private final long ringSize;
+    private long head = 0, used = 0;
+
+    private Batch open = new Batch();
+    private final ArrayDeque<Batch> inFlight = new ArrayDeque<>();
+    private final ArrayDeque<VkCommandBuffer> freeCommandBuffers = new ArrayDeque<>();
+
+    private long uploads = 0, uploadedBytes = 0, batches = 0, overflows = 0;
+
+    public StagingUploader(ContextDictionary dict) {
+        this(dict, RING_SIZE);
+    }
+
+    /**
+     * Creates an uploader that submits the copies to the dictionary's queue.
+     *
+     * @param dict the context dictionary.
+     * @param ringSize the size of the staging ring.
+     */
+    public StagingUploader(ContextDictionary dict, long ringSize) {
+        if (ringSize <= 0)
+            throw new AssertionError("The staging ring size must be positive.");
+
+        this.physicalDevice = ContextUtil.getPhysicalDevice(dict).getPhysicalDevice();
+        this.device = ContextUtil.getDevice(dict).getDevice();
+        this.queue = ContextUtil.getQueue(dict).getQueue();
+        this.allocator = MemoryAllocator.get(device, physicalDevice);
+        this.ringSize = ringSize;
+
+        try {
+            commandPool = RenderUtil.createCommandPool(
+                    device,
+                    ContextUtil.getQueueFamily(dict).getQueueFamilyIndex(),
+                    VK_COMMAND_POOL_CREATE_TRANSIENT_BIT | VK_COMMAND_POOL_CREATE_RESET_COMMAND_BUFFER_BIT);
+        } catch (VulkanException e) {
+            throw new AssertionError("Failed to create the staging uploader.", e);
+        }
+    }
+
+    /**
+     * Creates a device local buffer that can be filled with the uploader.
+     *
+     * @param size the size of the buffer.
+     * @param usage the buffer usage(the transfer destination usage is added).
+     * @return the buffer, destroyed with MemoryAllocator.destroyBuffer.
+     * @throws VulkanException when the buffer creation failed.
+     */
+    public GPUBuffer createBuffer(long size, int usage) throws VulkanException {
+        return allocator.createBuffer(
+                size,
+                usage | VK_BUFFER_USAGE_TRANSFER_DST_BIT,
+                VK_SHARING_MODE_EXCLUSIVE,
+                VK_MEMORY_PROPERTY_DEVICE_LOCAL_BIT);
+    }
+
+    /**
+     * Uploads the data to the beginning of the buffer.
+     *
+     * @param data the data(copied before the method returns).
+     * @param dst the destination buffer.
+     * @return the dependency released once the data is in the buffer.
+     */
+    public Dependency upload(ByteBuffer data, GPUBuffer dst) {
+        return upload(data, dst, 0);
+    }
+
+    /**
+     * Uploads the data to the buffer.
+     *
+     * @param data the data(copied before the method returns).
+     * @param dst the destination buffer.
+     * @param dstOffset the offset within the destination buffer.
+     * @return the dependency released once the data is in the buffer.
+     */
+    public Dependency upload(ByteBuffer data, GPUBuffer dst, long dstOffset) {
+        long size = data.remaining();
+        if (size == 0)
+            throw new AssertionError("Nothing to upload.");
+        if (dstOffset + size > dst.allocationSize)
+            throw new AssertionError("The data does not fit in the destination buffer.");
+
+        synchronized (this) {
+            if (ring == null) {
+                try {
+                    ring = allocator.createBuffer(
+                            ringSize, VK_BUFFER_USAGE_TRANSFER_SRC_BIT, VK_SHARING_MODE_EXCLUSIVE, STAGING_MEMORY);
+                } catch (VulkanException e) {
+                    throw new AssertionError("Failed to create the staging ring.", e);
+                }
+            }
+
+            long offset = reserve(size);
+            if (offset >= 0) {
+                memCopy(memAddress(data), ring.allocation.getMappedAddress() + offset, size);
+                open.copies.add(new Copy(ring.buffer, offset, dst.buffer, dstOffset, size));
+            } else {
+                GPUBuffer staging;
+                try {
+                    staging = allocator.createBuffer(
+                            size, VK_BUFFER_USAGE_TRANSFER_SRC_BIT, VK_SHARING_MODE_EXCLUSIVE, STAGING_MEMORY);
+                } catch (VulkanException e) {
+                    throw new AssertionError("Failed to create a staging buffer.", e);
+                }
+
+                memCopy(memAddress(data), staging.allocation.getMappedAddress(), size);
+                open.temporary.add(staging);
+                open.copies.add(new Copy(staging.buffer, 0, dst.buffer, dstOffset, size));
+                overflows++;
+            }
+
+            uploads++;
+            uploadedBytes += size;
+            return open.done;
+        }
+    }
+
+    /**
+     * Returns a dependency released once every upload requested so far is complete.
+     *
+     * @return the dependency of the last batch.
+     */
+    public synchronized Dependency getUploadDependency() {
+        if (!open.copies.isEmpty())
+            return open.done;
+
+        Batch last = inFlight.peekLast();
+        return last != null ? last.done : UPLOADED;
+    }
+
+    /**
+     * Reserves a region of the ring for the open batch.
+     *
+     * @param size the size of the region.
+     * @return the offset of the region or -1 if the ring is full.
+     */
+    private long reserve(long size) {
+        long free = ringSize - used;
+        long start = (head + COPY_ALIGNMENT - 1) & ~(COPY_ALIGNMENT - 1);
+        long consumed;
+
+        if (start + size <= ringSize) {
+            consumed = start - head + size;
+        } else {
+            // Wraps around, the tail of the ring is skipped.
+            start = 0;
+            consumed = ringSize - head + size;
+        }
+
+        if (consumed > free)
+            return -1;
+
+        head = (start + size) % ringSize;
+        used += consumed;
+        open.consumed += consumed;
+        return start;
+    }
+
+    @Override
+    public void run() throws AssertionError {
+        check();
+        flush();
+    }
+
+    /** The uploader is busy while any copy waits for the submission or its fence. */
+    @Override
+    public synchronized boolean isBusy() {
+        return !open.copies.isEmpty() || !inFlight.isEmpty();
+    }
+
+    /** Submits the requested copies. Must be invoked on the main thread. */
+    public void flush() {
+        Batch batch;
+        synchronized (this) {
+            if (open.copies.isEmpty())
+                return;
+
+            batch = open;
+            open = new Batch();
+            batches++;
+        }
+
+        batch.cmd = freeCommandBuffers.isEmpty() ? allocateCommandBuffer() : freeCommandBuffers.poll();
+        batch.fence = VkFencePool.get(device).acquire();
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            VkCommandBufferBeginInfo beginInfo =
+                    VkCommandBufferBeginInfo.callocStack(stack)
+                            .sType(VK_STRUCTURE_TYPE_COMMAND_BUFFER_BEGIN_INFO)
+                            .flags(VK_COMMAND_BUFFER_USAGE_ONE_TIME_SUBMIT_BIT);
+            int err = vkBeginCommandBuffer(batch.cmd, beginInfo);
+            VulkanResult.assertValidate(err, "Failed to begin the upload command buffer.");
+
+            VkBufferCopy.Buffer region = VkBufferCopy.callocStack(1, stack);
+            for (Copy copy : batch.copies) {
+                region.get(0).srcOffset(copy.srcOffset).dstOffset(copy.dstOffset).size(copy.size);
+                vkCmdCopyBuffer(batch.cmd, copy.src, copy.dst, region);
+            }
+
+            // Makes the copied data visible to the following submissions.
+            VkMemoryBarrier.Buffer barrier =
+                    VkMemoryBarrier.callocStack(1, stack)
+                            .sType(VK_STRUCTURE_TYPE_MEMORY_BARRIER)
+                            .srcAccessMask(VK_ACCESS_TRANSFER_WRITE_BIT)
+                            .dstAccessMask(VK_ACCESS_MEMORY_READ_BIT);
+            vkCmdPipelineBarrier(
+                    batch.cmd,
+                    VK_PIPELINE_STAGE_TRANSFER_BIT,
+                    VK_PIPELINE_STAGE_ALL_COMMANDS_BIT,
+                    0, barrier, null, null);
+
+            err = vkEndCommandBuffer(batch.cmd);
+            VulkanResult.assertValidate(err, "Failed to end the upload command buffer.");
+
+            VkSubmitInfo submitInfo =
+                    VkSubmitInfo.callocStack(stack)
+                            .sType(VK_STRUCTURE_TYPE_SUBMIT_INFO)
+                            .pCommandBuffers(stack.pointers(batch.cmd));
+            err = vkQueueSubmit(queue, submitInfo, batch.fence);
+            VulkanResult.assertValidate(err, "Failed to submit the uploads.");
+        }
+
+        synchronized (this) {
+            inFlight.add(batch);
+        }
+    }
+
+    /** Releases the completed batches(in the submission order). */
+    public void check() {
+        while (true) {
+            Batch batch;
+            synchronized (this) {
+                batch = inFlight.peek();
+                if (batch == null || vkGetFenceStatus(device, batch.fence) != VK_SUCCESS)
+                    return;
+
+                inFlight.poll();
+                used -= batch.consumed;
+            }
+
+            complete(batch);
+        }
+    }
+
+    private void complete(Batch batch) {
+        VkFencePool.get(device).release(batch.fence);
+        freeCommandBuffers.add(batch.cmd);
+        for (GPUBuffer staging : batch.temporary)
+            allocator.destroyBuffer(staging);
+
+        batch.done.release();
+    }
+
+    private VkCommandBuffer allocateCommandBuffer() {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            VkCommandBufferAllocateInfo cbai =
+                    VkCommandBufferAllocateInfo.callocStack(stack)
+                            .sType(VK_STRUCTURE_TYPE_COMMAND_BUFFER_ALLOCATE_INFO)
+                            .pNext(NULL)
+                            .commandPool(commandPool)
+                            .level(VK_COMMAND_BUFFER_LEVEL_PRIMARY)
+                            .commandBufferCount(1);
+
+            PointerBuffer pCommandBuffer = stack.mallocPointer(1);
+            int err = vkAllocateCommandBuffers(device, cbai, pCommandBuffer);
+            VulkanResult.assertValidate(err, "Failed to allocate the upload command buffer!");
+
+            return new VkCommandBuffer(pCommandBuffer.get(0), device);
+        }
+    }
+
+    public VkPhysicalDevice getPhysicalDevice() {
+        return physicalDevice;
+    }
+
+    public VkDevice getDevice() {
+        return device;
+    }
+
+    public synchronized long getUploadCount() {
+        return uploads;
+    }
+
+    public synchronized long getUploadedBytes() {
+        return uploadedBytes;
+    }
+
+    /**
+     * Returns the number of the submitted batches(vkQueueSubmit calls).
+     *
+     * @return the batch count.
+     */
+    public synchronized long getBatchCount() {
+        return batches;
+    }
+
+    /**
+     * Returns the number of the uploads that did not fit in the ring.
+     *
+     * @return the overflow count.
+     */
+    public synchronized long getOverflowCount() {
+        return overflows;
+    }
+
+    /**
+     * Waits for the submitted batches and frees the resources. The uploads that were not flushed
+     * are dropped(their dependencies are never released).
+     */
+    @Override
+    public void destroy() {
+        Batch batch;
+        while ((batch = inFlight.poll()) != null) {
+            int err = vkWaitForFences(device, batch.fence, true, 0xFFFFFFFFFFFFFFFFL);
+            VulkanResult.assertValidate(err, "Failed to wait for the uploads.");
+            complete(batch);
+        }
+
+        for (GPUBuffer staging : open.temporary)
+            allocator.destroyBuffer(staging);
+
+        vkDestroyCommandPool(device, commandPool, null);
+        if (ring != null)
+            allocator.destroyBuffer(ring);
+    }
+}
@@ -0,0 +1,332 @@
+package com.sfengine.components.memory;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.vulkan.VK10.*;
+
+import com.sfengine.core.rendering.Updatable;
+import com.sfengine.core.rendering.frames.FramesInFlight;
+import com.sfengine.core.resources.Destroyable;
+import com.sfengine.core.result.VulkanException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import org.lwjgl.vulkan.VkDevice;
+import org.lwjgl.vulkan.VkPhysicalDevice;
+import org.lwjgl.vulkan.VkPhysicalDeviceProperties;
+
+/**
+ * A persistently mapped uniform buffer shared by many uniform values. The buffer is split into
+ * partitions, one per frame(swapchain image), and every value gets a slot at the same offset in
+ * every partition. The descriptors point at the slots of the first partition and the frames
+ * select their partitions with dynamic offsets, so the descriptor sets are written once and the
+ * command buffers(recorded per frame buffer) do not change.
+ *
+ * <p>A changed value is marked stale and copied into the partition of the frame being prepared
+ * during the frame updates(the ring must be added to the rendering engine's updatables), until
+ * every partition holds the latest data. Thus a per frame uniform update costs a single memcpy,
+ * without mapping the memory or writing the descriptors.
+ *
+ * <p>The ring has a partition for every swapchain image. When the image count changes(the
+ * swapchain was recreated) the buffer is created again, the slots keep their offsets, become
+ * stale and their moved listeners write the descriptors again.
+ */
+public class UniformRing implements Updatable, Destroyable {
+
+    /** The default size of a partition(in bytes). */
+    public static final long PARTITION_SIZE =
+            Long.getLong("rendering_uniform_ring_partition_size", 256L << 10);
+    /** The number of partitions used until the swapchain image count is known. */
+    public static final int PARTITIONS = Integer.getInteger("rendering_uniform_ring_partitions", 4);
+
+    /** A region of the ring owned by a single value. */
+    public class Slot {
+
+        private final long offset, size;
+        private volatile ByteBuffer source;
+        /** Bit mask of the partitions holding the latest data. */
+        private long synced = 0;
+        private volatile Runnable moved;
+
+        private Slot(long offset, long size, ByteBuffer source) {
+            this.offset = offset;
+            this.size = size;
+            this.source = source;
+        }
+
+        /**
+         * Marks the slot stale, the source data will be copied into the partitions during the
+         * following frame updates.
+         */
+        public void invalidate() {
+            UniformRing.this.invalidate(this);
+        }
+
+        /**
+         * Returns the offset of the slot within the first partition(the descriptor offset).
+         *
+         * @return the offset.
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Tells whether every partition holds the latest data.
+         *
+         * @return true if the slot is synchronized.
+         */
+        public boolean isSynced() {
+            synchronized (UniformRing.this) {
+                return synced == allPartitions;
+            }
+        }
+
+        /**
+         * Sets the listener invoked when the slot moves to a new buffer(see {@link
+         * UniformRing#getBuffer()}), the descriptors pointing at the slot must be written again.
+         * It is invoked while no frame is in flight.
+         *
+         * @param moved the listener(or null).
+         */
+        public void setMovedListener(Runnable moved) {
+            this.moved = moved;
+        }
+
+        /** Returns the slot to the ring. */
+        public void free() {
+            UniformRing.this.free(this);
+        }
+    }
+
+    private final VkDevice device;
+    private final MemoryAllocator allocator;
+    private final FramesInFlight frames;
+
+    private volatile GPUBuffer buffer;
+    private final long partitionSize;
+    private volatile int partitions;
+    private long allPartitions;
+    private final long alignment;
+    private final IntConsumer resize = this::resize;
+
+    private long top = 0;
+    /** The freed slot regions(by size). */
+    private final Map<Long, ArrayDeque<Long>> freeSlots = new HashMap<>();
+    private final Set<Slot> live = new LinkedHashSet<>();
+    private final Set<Slot> stale = new LinkedHashSet<>();
+
+    private long copies = 0;
+
+    public UniformRing(VkPhysicalDevice physicalDevice, VkDevice device, FramesInFlight frames) {
+        this(physicalDevice, device, frames, PARTITION_SIZE);
+    }
+
+    /**
+     * Creates a uniform ring with a partition for every swapchain image of the frames(or {@link
+     * #PARTITIONS} until the image count is known).
+     *
+     * @param physicalDevice the physical device.
+     * @param device the device.
+     * @param frames the frames in flight(tell which partition is being prepared).
+     * @param partitionSize the size of a partition.
+     */
+    public UniformRing(
+            VkPhysicalDevice physicalDevice,
+            VkDevice device,
+            FramesInFlight frames,
+            long partitionSize) {
+        VkPhysicalDeviceProperties properties = VkPhysicalDeviceProperties.calloc();
+        vkGetPhysicalDeviceProperties(physicalDevice, properties);
+        alignment = Math.max(1, properties.limits().minUniformBufferOffsetAlignment());
+        properties.free();
+
+        this.device = device;
+        this.allocator = MemoryAllocator.get(device, physicalDevice);
+        this.frames = frames;
+        this.partitionSize = align(partitionSize);
+
+        int images = frames.getImageCount();
+        createBuffer(images > 0 ? images : PARTITIONS);
+        frames.addImageCountListener(resize);
+    }
+
+    /**
+     * Creates the buffer with the given number of partitions.
+     *
+     * @param partitions the number of the partitions.
+     */
+    private void createBuffer(int partitions) {
+        if (partitions < 1 || partitions > 64)
+            throw new AssertionError("The uniform ring supports 1 to 64 partitions.");
+
+        try {
+            buffer = allocator.createBuffer(
+                    partitionSize * partitions,
+                    VK_BUFFER_USAGE_UNIFORM_BUFFER_BIT,
+                    VK_SHARING_MODE_EXCLUSIVE,
+                    VK_MEMORY_PROPERTY_HOST_VISIBLE_BIT | VK_MEMORY_PROPERTY_HOST_COHERENT_BIT);
+        } catch (VulkanException e) {
+            throw new AssertionError("Failed to allocate the uniform ring.", e);
+        }
+
+        this.partitions = partitions;
+        this.allPartitions = partitions == 64 ? -1L : (1L << partitions) - 1;
+    }
+
+    /**
+     * Creates the buffer again with a partition for every swapchain image. Invoked while no frame
+     * is in flight(see FramesInFlight.setImageCount).
+     *
+     * @param images the swapchain image count.
+     */
+    private void resize(int images) {
+        List<Runnable> listeners = new ArrayList<>();
+
+        synchronized (this) {
+            if (images == partitions)
+                return;
+
+            allocator.destroyBuffer(buffer);
+            createBuffer(images);
+
+            for (Slot slot : live) {
+                slot.synced = 0;
+                stale.add(slot);
+                if (slot.moved != null)
+                    listeners.add(slot.moved);
+            }
+        }
+
+        for (Runnable listener : listeners)
+            listener.run();
+    }
+
+    private long align(long value) {
+        return (value + alignment - 1) / alignment * alignment;
+    }
+
+    /**
+     * Allocates a slot for the data.
+     *
+     * @param source the data of the slot(read during the frame updates).
+     * @return the slot(stale until the following frame updates).
+     */
+    public synchronized Slot allocate(ByteBuffer source) {
+        long size = align(source.capacity());
+
+        Long offset = null;
+        ArrayDeque<Long> reusable = freeSlots.get(size);
+        if (reusable != null)
+            offset = reusable.poll();
+
+        if (offset == null) {
+            if (top + size > partitionSize)
+                throw new AssertionError("The uniform ring partition is full.");
+            offset = top;
+            top += size;
+        }
+
+        Slot slot = new Slot(offset, size, source);
+        live.add(slot);
+        stale.add(slot);
+        return slot;
+    }
+
+    private synchronized void invalidate(Slot slot) {
+        slot.synced = 0;
+        stale.add(slot);
+    }
+
+    private synchronized void free(Slot slot) {
+        live.remove(slot);
+        stale.remove(slot);
+        freeSlots.computeIfAbsent(slot.size, s -> new ArrayDeque<>()).add(slot.offset);
+    }
+
+    /** Copies the stale slots into the partition of the frame being prepared. */
+    @Override
+    public synchronized void update() {
+        int frame = frames.current();
+        if (frame < 0 || stale.isEmpty())
+            return;
+        if (frame >= partitions)
+            throw new AssertionError("The uniform ring has less partitions than the frames.");
+
+        long base = buffer.allocation.getMappedAddress() + frame * partitionSize;
+        long bit = 1L << frame;
+
+        Iterator<Slot> it = stale.iterator();
+        while (it.hasNext()) {
+            Slot slot = it.next();
+            if ((slot.synced & bit) == 0) {
+                ByteBuffer source = slot.source;
+                memCopy(memAddress(source, 0), base + slot.offset, source.capacity());
+                slot.synced |= bit;
+                copies++;
+            }
+
+            if (slot.synced == allPartitions)
+                it.remove();
+        }
+    }
+
+    /**
+     * Returns the dynamic offset that selects the partition of the frame.
+     *
+     * @param frameIndex the frame index(the swapchain image index).
+     * @return the dynamic offset.
+     */
+    public int getDynamicOffset(int frameIndex) {
+        if (frameIndex < 0 || frameIndex >= partitions)
+            throw new AssertionError("The uniform ring has less partitions than the frames.");
+
+        return (int) (frameIndex * partitionSize);
+    }
+
+    /**
+     * Returns the uniform buffer of the ring.
+     *
+     * @return the buffer handle.
+     */
+    public long getBuffer() {
+        return buffer.buffer;
+    }
+
+    public VkDevice getDevice() {
+        return device;
+    }
+
+    public long getPartitionSize() {
+        return partitionSize;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Returns the number of the slot copies made so far.
+     *
+     * @return the copy count.
+     */
+    public synchronized long getCopyCount() {
+        return copies;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        frames.removeImageCountListener(resize);
+        allocator.destroyBuffer(buffer);
+    }
+}
@@ -9,7 +9,7 @@ import com.sfengine.core.synchronization.Dependency;
 import com.sfengine.core.synchronization.VkFence.VkFenceSupervisor;
 import com.sfengine.core.synchronization.VkFence.VkFenceWrapper;
 import com.sfengine.core.synchronization.VkFence.VkFenceWrapperFactory;
-import com.sfengine.core.synchronization.VkSemaphore.VkSemaphoreFactory;
+import com.sfengine.core.synchronization.VkSemaphore.VkSemaphorePool;
 import org.lwjgl.PointerBuffer;
 import org.lwjgl.system.MemoryUtil;
 import org.lwjgl.vulkan.VkDevice;
@@ -39,13 +39,17 @@ public class BasicFrame implements Frame {
 
     private volatile long frameBuffer;
 
-    public BasicFrame(ContextDictionary dict,
+    private final BasicFrameFactory owner;
+
+    public BasicFrame(BasicFrameFactory owner,
+                      ContextDictionary dict,
                       VkFenceWrapper fence,
                       VkFenceSupervisor supervisor,
                       RenderJob job,
                       VkSubmitInfo submitInfo,
                       LongBuffer pSignalSemaphores,
                       PointerBuffer pCommandBuffers) {
+        this.owner = owner;
         this.dict = dict;
         this.renderCompleteFence = fence;
         this.supervisor = supervisor;
@@ -59,10 +63,11 @@ public class BasicFrame implements Frame {
         job.performUpdate();
         state = State.SUBMITTED;
 
-        if (renderCompleteSemaphore != VK_NULL_HANDLE) {
-            VkSemaphoreFactory.destroySemaphore(device, renderCompleteSemaphore);
+        // The previous semaphore was consumed by the presentation of this image(the image was
+        // acquired again), so it can be signalled once more.
+        if (renderCompleteSemaphore == VK_NULL_HANDLE) {
+            renderCompleteSemaphore = VkSemaphorePool.get(device).acquire();
         }
-        renderCompleteSemaphore = VkSemaphoreFactory.createSemaphore(device);
 
         pSignalSemaphores.put(0, renderCompleteSemaphore);
         pCommandBuffers.put(0, job.getCMD());
@@ -75,8 +80,13 @@ public class BasicFrame implements Frame {
         renderCompleteFence = VkFenceWrapperFactory.recreateWrapper(dict, renderCompleteFence);
         supervisor.addFence(renderCompleteFence);
 
+        // Taken before the submission, so their presentation was queued before it.
+        long[] retired = owner.takeRetiredSemaphores();
+
         int err = vkQueueSubmit(queue, submitInfo, renderCompleteFence.getFence());
         VulkanResult.assertValidate(err, "Failed to submit queue work!");
+
+        owner.releaseRetiredSemaphores(device, retired, renderCompleteFence.getDependency());
     }
 
     @Override
@@ -85,11 +95,19 @@ public class BasicFrame implements Frame {
 
         LongBuffer pImageAcquireSemaphores = MemoryUtil.memAllocLong(imageAcquireSemaphores.length);
         pImageAcquireSemaphores.put(imageAcquireSemaphores);
+        pImageAcquireSemaphores.flip();
 
         submitToQueue(dict,
                 ContextUtil.getDevice(dict).getDevice(),
                 ContextUtil.getQueue(dict).getQueue(),
                 pImageAcquireSemaphores);
+
+        MemoryUtil.memFree(pImageAcquireSemaphores);
+    }
+
+    /** Marks the frame as waiting(invoked by the factory when the frame is released). */
+    void released() {
+        state = State.WAITING;
     }
 
     @Override
@@ -109,11 +127,15 @@ public class BasicFrame implements Frame {
 
     @Override
     public void destroy() {
+        VkDevice device = ContextUtil.getDevice(dict).getDevice();
+
         if (renderCompleteSemaphore != VK_NULL_HANDLE) {
-            VkSemaphoreFactory.destroySemaphore(ContextUtil.getDevice(dict).getDevice(), renderCompleteSemaphore);
+            // The presentation waiting on the semaphore may still be pending.
+            owner.retireSemaphore(renderCompleteSemaphore);
+            renderCompleteSemaphore = VK_NULL_HANDLE;
         }
 
-        VkDevice device = ContextUtil.getDevice(dict).getDevice();
-        VkFenceWrapperFactory.destroy(device, renderCompleteFence);
+        VkFenceWrapperFactory.recycle(device, renderCompleteFence);
+        job.release();
     }
 }
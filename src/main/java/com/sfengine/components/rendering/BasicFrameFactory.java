@@ -5,13 +5,19 @@ import com.sfengine.core.context.ContextDictionary;
 import com.sfengine.core.context.ContextUtil;
 import com.sfengine.core.context.renderjob.RenderJobContext;
 import com.sfengine.core.context.swapchain.SwapchainContext;
+import com.sfengine.core.engine.Engine;
+import com.sfengine.core.engine.EngineFactory;
 import com.sfengine.core.rendering.frames.Frame;
 import com.sfengine.core.rendering.frames.FrameFactory;
 import com.sfengine.core.rendering.recording.RenderJob;
+import com.sfengine.core.resources.Destroyable;
+import com.sfengine.core.synchronization.Dependency;
 import com.sfengine.core.synchronization.VkFence.VkFenceSupervisor;
 import com.sfengine.core.synchronization.VkFence.VkFenceWrapper;
 import com.sfengine.core.synchronization.VkFence.VkFenceWrapperFactory;
+import com.sfengine.core.synchronization.VkSemaphore.VkSemaphorePool;
 import org.lwjgl.PointerBuffer;
+import org.lwjgl.vulkan.VkDevice;
 import org.lwjgl.vulkan.VkSubmitInfo;
 
 import java.nio.IntBuffer;
@@ -21,7 +27,7 @@ import java.util.*;
 import static org.lwjgl.system.MemoryUtil.*;
 import static org.lwjgl.vulkan.VK10.*;
 
-public class BasicFrameFactory implements FrameFactory {
+public class BasicFrameFactory implements FrameFactory, Destroyable {
 
     private List<Frame> frames = Collections.synchronizedList(new ArrayList<>());
     private Set<Frame> oldFrames = Collections.synchronizedSet(new HashSet<>());
@@ -29,7 +35,7 @@ public class BasicFrameFactory implements FrameFactory {
     private volatile int activeFrames = 0;
 
     private final IntBuffer pWaitDstStageMask = memAllocInt(1)
-            .put(VK_PIPELINE_STAGE_COLOR_ATTACHMENT_OUTPUT_BIT);
+            .put(0, VK_PIPELINE_STAGE_COLOR_ATTACHMENT_OUTPUT_BIT);
     private final VkSubmitInfo submitInfo = VkSubmitInfo.calloc()
             .sType(VK_STRUCTURE_TYPE_SUBMIT_INFO)
             .pNext(NULL)
@@ -38,6 +44,14 @@ public class BasicFrameFactory implements FrameFactory {
     private final LongBuffer pSignalSemaphores = memAllocLong(1);
     private final PointerBuffer pCommandBuffers = memAllocPointer(1);
 
+    /**
+     * The render complete semaphores of the destroyed frames. Their presentation may still be
+     * pending, so they are returned to the pool once the fence of a later submission signals.
+     */
+    private final List<Long> retiredSemaphores = new ArrayList<>();
+
+    private final Engine engine = EngineFactory.getEngine();
+
     private VkFenceSupervisor supervisor;
     private ContextDictionary dict;
 
@@ -47,7 +61,8 @@ public class BasicFrameFactory implements FrameFactory {
     }
 
     private Frame create(VkFenceWrapper wrapper, RenderJob job) {
-        return new BasicFrame(dict,
+        return new BasicFrame(this,
+                dict,
                 wrapper,
                 supervisor,
                 job,
@@ -56,6 +71,47 @@ public class BasicFrameFactory implements FrameFactory {
                 pCommandBuffers);
     }
 
+    /**
+     * Keeps the semaphore of a destroyed frame until a later submission completes.
+     *
+     * @param semaphore the render complete semaphore.
+     */
+    void retireSemaphore(long semaphore) {
+        synchronized (retiredSemaphores) {
+            retiredSemaphores.add(semaphore);
+        }
+    }
+
+    /**
+     * Takes the retired semaphores, invoked before a submission.
+     *
+     * @return the semaphores retired so far.
+     */
+    long[] takeRetiredSemaphores() {
+        synchronized (retiredSemaphores) {
+            long[] out = new long[retiredSemaphores.size()];
+            for (int i = 0; i < out.length; i++)
+                out[i] = retiredSemaphores.get(i);
+            retiredSemaphores.clear();
+            return out;
+        }
+    }
+
+    /**
+     * Returns the semaphores to the pool once the submission's fence signals. The presentations
+     * waiting on them were queued before the submission.
+     *
+     * @param device the device.
+     * @param semaphores the semaphores taken before the submission.
+     * @param submitted the dependency of the submission's fence.
+     */
+    void releaseRetiredSemaphores(VkDevice device, long[] semaphores, Dependency submitted) {
+        if (semaphores.length == 0)
+            return;
+
+        engine.addTask(() -> VkSemaphorePool.get(device).release(semaphores), submitted);
+    }
+
     private void forgetFrame(int num) {
         if (frames.get(num).getState() == Frame.State.WAITING)
             frames.get(num).destroy();
@@ -65,7 +121,7 @@ public class BasicFrameFactory implements FrameFactory {
 
     @Override
     public void update(SwapchainContext swapchainContext) {
-        int requiredImages = swapchainContext.info().minImageCount();
+        int requiredImages = swapchainContext.getImageCount();
 
         if (requiredImages != frames.size()) {
             long[] frameBuffers = swapchainContext.getFrameBuffers();
@@ -116,9 +172,27 @@ public class BasicFrameFactory implements FrameFactory {
     public void releaseFrame(Frame frame) {
         activeFrames--;
 
+        if (frame instanceof BasicFrame) {
+            ((BasicFrame) frame).released();
+        }
+
         if (oldFrames.contains(frame)) {
             oldFrames.remove(frame);
             frame.destroy();
         }
     }
+
+    /**
+     * Returns the retired semaphores to the pool and frees the submit info. The device must be
+     * idle.
+     */
+    @Override
+    public void destroy() {
+        VkSemaphorePool.get(ContextUtil.getDevice(dict).getDevice()).release(takeRetiredSemaphores());
+
+        submitInfo.free();
+        memFree(pWaitDstStageMask);
+        memFree(pSignalSemaphores);
+        memFree(pCommandBuffers);
+    }
 }
@@ -2,25 +2,42 @@ package com.sfengine.components.rendering;
 
 import com.sfengine.components.contexts.DefaultContexts;
 import com.sfengine.components.contexts.framebufferfactory.BasicFrameBufferFactoryContextFactory;
-import com.sfengine.components.contexts.renderjob.BasicRenderJobContext;
 import com.sfengine.components.contexts.renderjob.BasicRenderJobContextFactory;
 import com.sfengine.components.contexts.swapchain.BasicSwapchainContextFactory;
+import com.sfengine.components.memory.MemoryAllocator;
+import com.sfengine.components.memory.StagingUploader;
+import com.sfengine.components.memory.UniformRing;
 import com.sfengine.components.resources.MemoryBin;
+import com.sfengine.components.shaders.descriptor_sets.DescriptorAllocator;
+import com.sfengine.components.shaders.descriptor_sets.DescriptorWriter;
+import com.sfengine.components.shaders.descriptor_sets.FrameDescriptorAllocator;
 import com.sfengine.components.window.CFrame;
 import com.sfengine.core.context.ContextDictionary;
 import com.sfengine.core.context.ContextUtil;
+import com.sfengine.core.context.renderjob.RenderJobContext;
 import com.sfengine.core.context.swapchain.SwapchainContext;
 import com.sfengine.core.engine.Engine;
 import com.sfengine.core.engine.EngineFactory;
 import com.sfengine.core.engine.EngineTask;
 import com.sfengine.core.rendering.*;
 import com.sfengine.core.rendering.frames.FrameFactory;
+import com.sfengine.core.rendering.frames.FramesInFlight;
+import com.sfengine.core.rendering.recording.ParallelRecordable;
 import com.sfengine.core.result.VulkanException;
+import com.sfengine.core.result.VulkanResult;
+import com.sfengine.core.synchronization.Dependable;
 import com.sfengine.core.synchronization.Dependency;
 import com.sfengine.core.synchronization.DependencyFence;
+import com.sfengine.core.synchronization.VkFence.BatchedVkFenceSupervisor;
+import com.sfengine.core.synchronization.VkFence.BlockingVkFenceSupervisor;
+import com.sfengine.core.synchronization.VkFence.LatencyHistogram;
+import com.sfengine.core.synchronization.VkFence.VkFencePool;
 import com.sfengine.core.synchronization.VkFence.VkFenceSupervisor;
 import com.sfengine.core.synchronization.VkFence.VkFenceSupervisorTask;
+import com.sfengine.core.synchronization.VkSemaphore.VkSemaphorePool;
+import com.sfengine.core.synchronization.VkFence.VkFenceTimeline;
 import junit.framework.Assert;
+import org.lwjgl.vulkan.VkCommandBuffer;
 import org.lwjgl.vulkan.VkDevice;
 import org.lwjgl.vulkan.VkPhysicalDevice;
 import org.lwjgl.vulkan.VkQueue;
@@ -38,11 +55,32 @@ import static org.lwjgl.vulkan.VK10.*;
 
 public class CBasicRenderingEngine implements RenderingEngine {
 
+    /** Tells whether the fences should be supervised by a dedicated thread instead of polling. */
+    public static final boolean FENCE_WAITER_THREAD =
+            Boolean.valueOf(System.getProperty("rendering_fence_waiter_thread", "false"));
+    /** Tells whether the frames should be tracked by a queue timeline(with reused fences). */
+    public static final boolean TIMELINE_FRAMES =
+            Boolean.valueOf(System.getProperty("rendering_timeline_frames", "false"));
+    /** Tells whether the render objects should be recorded by many threads(secondary buffers). */
+    public static final boolean PARALLEL_RECORDING =
+            Boolean.valueOf(System.getProperty("rendering_parallel_recording", "false"));
+    /** Tells whether only the changed pipelines should be recorded again(cached secondary buffers). */
+    public static final boolean INCREMENTAL_RECORDING =
+            Boolean.valueOf(System.getProperty("rendering_incremental_recording", "false"));
+    /**
+     * Tells whether the frame rate, the input to present latency and the fence latency(of the
+     * selected fence supervisor) should be reported.
+     */
+    public static final boolean PRESENT_BENCHMARK =
+            Boolean.valueOf(System.getProperty("rendering_present_benchmark", "false"));
+
     private final Engine engine = EngineFactory.getEngine();
     private CFrame frame;
 
     private final Map<Long, PipelineContainer> pipelines = Collections.synchronizedMap(new HashMap<>());
     private final Set<Updatable> upds = Collections.synchronizedSet(new HashSet<>());
+    /** The render objects waiting for their dependencies before they are added. */
+    private final Set<RenderObject> pending = Collections.synchronizedSet(new HashSet<>());
 
     private RenderPass renderPass;
 
@@ -53,6 +91,11 @@ public class CBasicRenderingEngine implements RenderingEngine {
 
     private volatile ContextDictionary dict;
     private volatile FrameFactory frameFactory;
+    private volatile StagingUploader uploader;
+    private volatile UniformRing uniformRing;
+    private volatile DescriptorWriter descriptorWriter;
+    private volatile FrameDescriptorAllocator frameDescriptors;
+    private final FramesInFlight framesInFlight = new FramesInFlight();
 
     public CBasicRenderingEngine(ContextDictionary dict, CFrame frame) {
         this.dict = dict;
@@ -90,50 +133,138 @@ public class CBasicRenderingEngine implements RenderingEngine {
         renderPass = RenderPassFactory.createRenderPass(dict, "RenderPass1");
         bin.add(renderPass);
 
-        CommandBufferFactory basicCMD =
-                new CommandBufferFactory(dict, (cmd, framebuffer) -> {
-                    renderPass.record(cmd, framebuffer);
-
-                    Set<Long> kpipelines = null;
+        CommandBufferFactory basicCMD = null;
+        if (INCREMENTAL_RECORDING) {
+            renderPass.setContents(VK_SUBPASS_CONTENTS_SECONDARY_COMMAND_BUFFERS);
+        } else if (PARALLEL_RECORDING) {
+            renderPass.setContents(VK_SUBPASS_CONTENTS_SECONDARY_COMMAND_BUFFERS);
+            basicCMD = new CommandBufferFactory(dict, new ParallelRecordable() {
+                @Override
+                public void begin(VkCommandBuffer buffer, long framebuffer) {
+                    renderPass.record(buffer, framebuffer);
+                }
+
+                @Override
+                public List<RenderObject> objects() {
+                    List<RenderObject> out = new ArrayList<>();
                     synchronized (pipelines) {
-                        kpipelines = pipelines.keySet();
+                        for (PipelineContainer container : pipelines.values())
+                            out.addAll(container);
                     }
-                    for (long p : kpipelines) {
-                        vkCmdBindPipeline(cmd, VK_PIPELINE_BIND_POINT_GRAPHICS, p);
-
-                        synchronized (pipelines.get(p)) {
-                            for (RenderObject obj : pipelines.get(p))
-                                obj.record(cmd, framebuffer);
-                        }
+                    return out;
+                }
+
+                @Override
+                public void end(VkCommandBuffer buffer, long framebuffer) {
+                    vkCmdEndRenderPass(buffer);
+                }
+
+                @Override
+                public long renderPass() {
+                    return renderPass.handle();
+                }
+            }, renderQueueFamilyIndex, 0, Runtime.getRuntime().availableProcessors());
+        } else {
+            basicCMD = new CommandBufferFactory(dict, (cmd, framebuffer) -> {
+                renderPass.record(cmd, framebuffer);
+
+                Set<Long> kpipelines = null;
+                synchronized (pipelines) {
+                    kpipelines = pipelines.keySet();
+                }
+                for (long p : kpipelines) {
+                    vkCmdBindPipeline(cmd, VK_PIPELINE_BIND_POINT_GRAPHICS, p);
+
+                    synchronized (pipelines.get(p)) {
+                        for (RenderObject obj : pipelines.get(p))
+                            obj.record(cmd, framebuffer);
                     }
+                }
 
-                    vkCmdEndRenderPass(cmd);
-                }, renderQueueFamilyIndex, 0);
+                vkCmdEndRenderPass(cmd);
+            }, renderQueueFamilyIndex, 0);
+        }
         dict.put(BasicFrameBufferFactoryContextFactory.createFrameBufferFactoryContext("BasicFBFactory", dict, renderPass.handle()));
         dict.put(BasicSwapchainContextFactory.createSwapchainContext("BasicSwapchain", dict, frame, renderPass.getAttachmentBlueprints(), colorFormat));
 
-        BasicRenderJobContext renderJobContext =
-                BasicRenderJobContextFactory.createContext("helloCube", basicCMD, dict, () -> {
-                    synchronized (upds) {
-                        for (Updatable u : upds)
-                            u.update();
-                    }
-                });
+        Runnable update = () -> {
+            synchronized (upds) {
+                for (Updatable u : upds)
+                    u.update();
+            }
+            // After the values, so their changes are written within the frame.
+            DescriptorWriter writer = descriptorWriter;
+            if (writer != null)
+                writer.update();
+            UniformRing ring = uniformRing;
+            if (ring != null)
+                ring.update();
+        };
+
+        RenderJobContext renderJobContext;
+        if (INCREMENTAL_RECORDING) {
+            PipelineCommandCache cache =
+                    bin.add(new PipelineCommandCache(dict, renderPass, pipelines, renderQueueFamilyIndex));
+            renderJobContext =
+                    BasicRenderJobContextFactory.createIncrementalContext("helloCube", cache, dict, update);
+        } else {
+            bin.add(basicCMD);
+            renderJobContext =
+                    BasicRenderJobContextFactory.createContext("helloCube", basicCMD, dict, update);
+        }
         dict.put(renderJobContext);
 
-        VkFenceSupervisor vksupervisor = new VkFenceSupervisor();
-        VkFenceSupervisorTask supTask = new VkFenceSupervisorTask(vksupervisor);
-        engine.addTickTask(supTask);
-        tickTasks.add(supTask);
-
-        frameFactory = new BasicFrameFactory(dict, vksupervisor);
+        final LatencyHistogram fenceLatency = PRESENT_BENCHMARK ? new LatencyHistogram() : null;
+        if (TIMELINE_FRAMES) {
+            VkFenceTimeline timeline = new VkFenceTimeline(ContextUtil.getDevice(dict).getDevice());
+            engine.addTickTask(timeline);
+            tickTasks.add(timeline);
+
+            frameFactory = new TimelineFrameFactory(dict, timeline);
+        } else {
+            VkFenceSupervisor vksupervisor;
+            if (FENCE_WAITER_THREAD) {
+                vksupervisor = bin.add(new BlockingVkFenceSupervisor());
+            } else {
+                vksupervisor = bin.add(new BatchedVkFenceSupervisor());
+                VkFenceSupervisorTask supTask = new VkFenceSupervisorTask(vksupervisor);
+                engine.addTickTask(supTask);
+                tickTasks.add(supTask);
+            }
+            vksupervisor.setHistogram(fenceLatency);
+
+            frameFactory = bin.add(new BasicFrameFactory(dict, vksupervisor));
+        }
 
         engine.addTask(()-> {
-            Presenter presenter = new Presenter(dict, frameFactory);
+            // Added before the presenter, so the uploads requested during a tick are submitted
+            // before the tick's frame.
+            uploader = bin.add(new StagingUploader(dict));
+            engine.addTickTask(uploader);
+            tickTasks.add(uploader);
+
+            uniformRing = bin.add(new UniformRing(
+                    ContextUtil.getPhysicalDevice(dict).getPhysicalDevice(),
+                    ContextUtil.getDevice(dict).getDevice(),
+                    framesInFlight));
+            descriptorWriter = bin.add(new DescriptorWriter(ContextUtil.getDevice(dict).getDevice()));
+            frameDescriptors = bin.add(new FrameDescriptorAllocator(
+                    ContextUtil.getDevice(dict).getDevice(), framesInFlight));
+
+            Presenter presenter = new Presenter(dict, frameFactory, framesInFlight);
             engine.addTickTask(presenter);
             tickTasks.add(presenter);
             bin.add(presenter);
 
+            if (PRESENT_BENCHMARK) {
+                PresentStatistics statistics = new PresentStatistics(dict);
+                presenter.setStatistics(statistics);
+                if (!TIMELINE_FRAMES)
+                    statistics.setFenceLatency(fenceLatency);
+                engine.addTickTask(statistics);
+                tickTasks.add(statistics);
+            }
+
             created.release();
         });
     }
@@ -192,8 +323,29 @@ public class CBasicRenderingEngine implements RenderingEngine {
         memFree(pSupported);
     }
 
+    /**
+     * Adds the object to its pipeline. A dependable object(eg. one drawing a mesh filled by the
+     * uploader) is added once its dependency is released, so it is never recorded before its
+     * buffers are filled.
+     *
+     * @param obj the render object.
+     */
     @Override
     public void add(RenderObject obj) {
+        if (!(obj instanceof Dependable)) {
+            addToPipeline(obj);
+            return;
+        }
+
+        pending.add(obj);
+        engine.addTask(() -> {
+            // Skipped if the object was removed in the meantime.
+            if (pending.remove(obj))
+                addToPipeline(obj);
+        }, ((Dependable) obj).getDependency());
+    }
+
+    private void addToPipeline(RenderObject obj) {
         if (!pipelines.containsKey(obj.getPipeline()))
             pipelines.put(obj.getPipeline(), new PipelineContainer(obj.getPipeline()));
 
@@ -202,6 +354,9 @@ public class CBasicRenderingEngine implements RenderingEngine {
 
     @Override
     public boolean remove(RenderObject obj) {
+        if (pending.remove(obj))
+            return true;
+
         if (!pipelines.containsKey(obj.getPipeline()))
             return false;
 
@@ -241,6 +396,31 @@ public class CBasicRenderingEngine implements RenderingEngine {
         return frame;
     }
 
+    @Override
+    public FramesInFlight getFramesInFlight() {
+        return framesInFlight;
+    }
+
+    @Override
+    public StagingUploader getUploader() {
+        return uploader;
+    }
+
+    @Override
+    public UniformRing getUniformRing() {
+        return uniformRing;
+    }
+
+    @Override
+    public DescriptorWriter getDescriptorWriter() {
+        return descriptorWriter;
+    }
+
+    @Override
+    public FrameDescriptorAllocator getFrameDescriptorAllocator() {
+        return frameDescriptors;
+    }
+
     @Override
     public void destroy() {
 
@@ -250,7 +430,20 @@ public class CBasicRenderingEngine implements RenderingEngine {
 
         //TODO: free the rest of the resources
 
+        // The submitted frames and uploads(and the pending presentations) must complete before
+        // their fences, semaphores and memory are destroyed.
+        VkDevice device = ContextUtil.getDevice(dict).getDevice();
+        VulkanResult.assertValidate(vkDeviceWaitIdle(device), "Failed to wait for the device.");
+
         bin.destroy();
+
+        // The frames and the uploader have returned their fences and semaphores by now.
+        VkFencePool.destroyPool(device);
+        VkSemaphorePool.destroyPool(device);
+        // Frees the pools of the descriptor sets created by the DescriptorSetFactory.
+        DescriptorAllocator.destroyAllocator(device);
+        // Frees the memory blocks of the buffers that were not destroyed(eg. of the meshes).
+        MemoryAllocator.destroyAllocator(device);
     }
 
     @Override
@@ -119,6 +119,20 @@ public class RenderPass implements Recordable, Destroyable {
         this.preset = preset;
     }
 
+    public int getContents() {
+        return contents;
+    }
+
+    /**
+     * Sets the contents of the render pass(VK_SUBPASS_CONTENTS_INLINE or
+     * VK_SUBPASS_CONTENTS_SECONDARY_COMMAND_BUFFERS).
+     *
+     * @param contents the subpass contents.
+     */
+    public void setContents(int contents) {
+        this.contents = contents;
+    }
+
     public AttachmentBlueprint[] getAttachmentBlueprints() {
         return attachmentBlueprints;
     }
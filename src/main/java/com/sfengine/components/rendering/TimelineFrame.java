@@ -0,0 +1,149 @@
+package com.sfengine.components.rendering;
+
+import com.sfengine.core.context.ContextDictionary;
+import com.sfengine.core.context.ContextUtil;
+import com.sfengine.core.rendering.frames.Frame;
+import com.sfengine.core.rendering.recording.RenderJob;
+import com.sfengine.core.result.VulkanException;
+import com.sfengine.core.result.VulkanResult;
+import com.sfengine.core.synchronization.Dependency;
+import com.sfengine.core.synchronization.VkFence.VkFenceTimeline;
+import com.sfengine.core.synchronization.VkSemaphore.VkSemaphoreFactory;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.vulkan.VkDevice;
+import org.lwjgl.vulkan.VkFenceCreateInfo;
+import org.lwjgl.vulkan.VkQueue;
+import org.lwjgl.vulkan.VkSubmitInfo;
+
+import java.nio.LongBuffer;
+
+import static org.lwjgl.vulkan.VK10.*;
+
+/**
+ * Frame tracked by a queue timeline. The frame owns a single fence and a single render complete
+ * semaphore which are reused by every submission, and its dependency is the timeline value of the
+ * last submission.
+ */
+public class TimelineFrame implements Frame {
+
+    private volatile State state = State.WAITING;
+
+    private final RenderJob job;
+    private final VkFenceTimeline timeline;
+    private final ContextDictionary dict;
+
+    private final long renderCompleteSemaphore;
+    private final long fence;
+    /** The timeline value of the last submission(0 if the frame was never submitted). */
+    private volatile long value = 0;
+    private volatile Dependency dependency;
+
+    protected final VkSubmitInfo submitInfo;
+    protected final LongBuffer pSignalSemaphores;
+    protected final PointerBuffer pCommandBuffers;
+
+    public TimelineFrame(ContextDictionary dict,
+                         VkFenceTimeline timeline,
+                         RenderJob job,
+                         VkSubmitInfo submitInfo,
+                         LongBuffer pSignalSemaphores,
+                         PointerBuffer pCommandBuffers) {
+        this.dict = dict;
+        this.timeline = timeline;
+        this.job = job;
+        this.submitInfo = submitInfo;
+        this.pSignalSemaphores = pSignalSemaphores;
+        this.pCommandBuffers = pCommandBuffers;
+
+        VkDevice device = ContextUtil.getDevice(dict).getDevice();
+        renderCompleteSemaphore = VkSemaphoreFactory.createSemaphore(device);
+        fence = createFence(device);
+        dependency = timeline.getDependency(0);
+    }
+
+    private static long createFence(VkDevice device) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            VkFenceCreateInfo ci = VkFenceCreateInfo.callocStack(stack)
+                    .sType(VK_STRUCTURE_TYPE_FENCE_CREATE_INFO);
+            LongBuffer pFence = stack.mallocLong(1);
+
+            VulkanResult.validate(vkCreateFence(device, ci, null, pFence), "Failed to create fence.");
+            return pFence.get(0);
+        } catch (VulkanException e) {
+            throw new AssertionError("Failed to create fence.", e);
+        }
+    }
+
+    @Override
+    public void render(long swapchain, long... imageAcquireSemaphores) {
+        state = State.ACQUIRED;
+        VkDevice device = ContextUtil.getDevice(dict).getDevice();
+        VkQueue queue = ContextUtil.getQueue(dict).getQueue();
+
+        job.performUpdate();
+        state = State.SUBMITTED;
+
+        // The previous submission of the frame was completed before the frame was acquired.
+        if (value != 0) {
+            vkResetFences(device, fence);
+        }
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            LongBuffer pWait = stack.longs(imageAcquireSemaphores);
+
+            pSignalSemaphores.put(0, renderCompleteSemaphore);
+            pCommandBuffers.put(0, job.getCMD());
+
+            submitInfo.waitSemaphoreCount(pWait.remaining());
+            submitInfo.pWaitSemaphores(pWait);
+            submitInfo.pSignalSemaphores(pSignalSemaphores);
+            submitInfo.pCommandBuffers(pCommandBuffers);
+
+            long next = timeline.next(fence);
+            int err = vkQueueSubmit(queue, submitInfo, fence);
+            VulkanResult.assertValidate(err, "Failed to submit queue work!");
+
+            value = next;
+            dependency = timeline.getDependency(next);
+        }
+    }
+
+    /** Marks the frame as waiting(invoked by the factory when the frame is released). */
+    void released() {
+        state = State.WAITING;
+    }
+
+    /**
+     * Returns the timeline value of the last submission of this frame.
+     *
+     * @return the timeline value.
+     */
+    public long getTimelineValue() {
+        return value;
+    }
+
+    @Override
+    public long[] getRenderCompleteSemaphores() {
+        return new long[] {renderCompleteSemaphore};
+    }
+
+    @Override
+    public State getState() {
+        return state;
+    }
+
+    @Override
+    public Dependency getDependency() {
+        return dependency;
+    }
+
+    @Override
+    public void destroy() {
+        VkDevice device = ContextUtil.getDevice(dict).getDevice();
+
+        VkSemaphoreFactory.destroySemaphore(device, renderCompleteSemaphore);
+        vkDestroyFence(device, fence, null);
+        job.release();
+    }
+}
@@ -0,0 +1,116 @@
+package com.sfengine.components.rendering;
+
+import com.sfengine.core.context.ContextDictionary;
+import com.sfengine.core.context.ContextUtil;
+import com.sfengine.core.context.renderjob.RenderJobContext;
+import com.sfengine.core.context.swapchain.SwapchainContext;
+import com.sfengine.core.rendering.frames.Frame;
+import com.sfengine.core.rendering.frames.FrameFactory;
+import com.sfengine.core.synchronization.VkFence.VkFenceTimeline;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.vulkan.VkSubmitInfo;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.*;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.vulkan.VK10.*;
+
+/**
+ * Frame factory that tracks all of its frames with a single queue timeline. The frames reuse their
+ * fences and semaphores, so no synchronization objects are created per frame.
+ *
+ * <p>The timeline must be checked regularly, eg. by adding it to the engine's tick tasks.
+ */
+public class TimelineFrameFactory implements FrameFactory {
+
+    private List<TimelineFrame> frames = Collections.synchronizedList(new ArrayList<>());
+    private Set<Frame> oldFrames = Collections.synchronizedSet(new HashSet<>());
+
+    private volatile int activeFrames = 0;
+
+    private final IntBuffer pWaitDstStageMask = memAllocInt(1)
+            .put(0, VK_PIPELINE_STAGE_COLOR_ATTACHMENT_OUTPUT_BIT);
+    private final VkSubmitInfo submitInfo = VkSubmitInfo.calloc()
+            .sType(VK_STRUCTURE_TYPE_SUBMIT_INFO)
+            .pNext(NULL)
+            .pWaitDstStageMask(pWaitDstStageMask);
+
+    private final LongBuffer pSignalSemaphores = memAllocLong(1);
+    private final PointerBuffer pCommandBuffers = memAllocPointer(1);
+
+    private final VkFenceTimeline timeline;
+    private ContextDictionary dict;
+
+    public TimelineFrameFactory(ContextDictionary dict, VkFenceTimeline timeline) {
+        this.dict = dict;
+        this.timeline = timeline;
+    }
+
+    private void forgetFrame(TimelineFrame frame) {
+        if (frame.getState() == Frame.State.WAITING)
+            frame.destroy();
+        else
+            oldFrames.add(frame);
+    }
+
+    @Override
+    public void update(SwapchainContext swapchainContext) {
+        int requiredImages = swapchainContext.getImageCount();
+
+        long[] frameBuffers = swapchainContext.getFrameBuffers();
+        RenderJobContext jobContext = ContextUtil.getRenderJob(dict);
+        jobContext.recreateJobs(frameBuffers);
+
+        synchronized (frames) {
+            for (TimelineFrame frame : frames) {
+                forgetFrame(frame);
+            }
+            frames.clear();
+
+            for (int i = 0; i < requiredImages; i++) {
+                frames.add(new TimelineFrame(dict,
+                        timeline,
+                        jobContext.getJob(frameBuffers[i]),
+                        submitInfo,
+                        pSignalSemaphores,
+                        pCommandBuffers));
+            }
+        }
+    }
+
+    @Override
+    public int lazyCount() {
+        return frames.size() - activeFrames;
+    }
+
+    @Override
+    public Frame popFrame(int id) {
+        activeFrames++;
+        return frames.get(id);
+    }
+
+    @Override
+    public void releaseFrame(Frame frame) {
+        activeFrames--;
+
+        if (frame instanceof TimelineFrame) {
+            ((TimelineFrame) frame).released();
+        }
+
+        if (oldFrames.contains(frame)) {
+            oldFrames.remove(frame);
+            frame.destroy();
+        }
+    }
+
+    /**
+     * Returns the timeline tracking the frames.
+     *
+     * @return the timeline.
+     */
+    public VkFenceTimeline getTimeline() {
+        return timeline;
+    }
+}
@@ -22,7 +22,8 @@ import org.lwjgl.vulkan.VkDevice;
 public class PipelineUtil {
 
     /**
-     * Creates a descriptor set layout.
+     * Creates a descriptor set layout. Every binding is updatable after bind except the dynamic
+     * buffer bindings(which do not support it).
      *
      * @param device - Logical device
      * @param layoutBindings - Layout bindings
@@ -32,13 +33,59 @@ public class PipelineUtil {
     public static long createDescriptorSetLayout(
             VkDevice device, VkDescriptorSetLayoutBinding.Buffer layoutBindings)
             throws VulkanException {
-        IntBuffer bindingFlagsBuffer = memAllocInt(layoutBindings.remaining());
+        int[] bindingFlags = new int[layoutBindings.remaining()];
+        for (int i = 0; i < bindingFlags.length; i++) {
+            bindingFlags[i] = defaultBindingFlags(layoutBindings.get(i).descriptorType());
+        }
+
+        return createDescriptorSetLayout(device, layoutBindings, bindingFlags);
+    }
+
+    /**
+     * Returns the default binding flags of a descriptor type: update after bind, unless the type
+     * is a dynamic buffer.
+     *
+     * @param descriptorType - Descriptor type
+     * @return - Binding flags
+     */
+    public static int defaultBindingFlags(int descriptorType) {
+        return isDynamic(descriptorType) ? 0 : VK_DESCRIPTOR_BINDING_UPDATE_AFTER_BIND_BIT_EXT;
+    }
+
+    private static boolean isDynamic(int descriptorType) {
+        return descriptorType == VK_DESCRIPTOR_TYPE_UNIFORM_BUFFER_DYNAMIC
+                || descriptorType == VK_DESCRIPTOR_TYPE_STORAGE_BUFFER_DYNAMIC;
+    }
+
+    /**
+     * Creates a descriptor set layout with the given flags of the bindings.
+     *
+     * @param device - Logical device
+     * @param layoutBindings - Layout bindings
+     * @param bindingFlags - Flags of every binding(VkDescriptorBindingFlagBitsEXT)
+     * @return - Handle to descriptor set layout
+     * @throws VulkanException
+     */
+    public static long createDescriptorSetLayout(
+            VkDevice device, VkDescriptorSetLayoutBinding.Buffer layoutBindings, int... bindingFlags)
+            throws VulkanException {
+        if (bindingFlags.length != layoutBindings.remaining())
+            throw new AssertionError("Every binding must have its flags.");
+
+        IntBuffer bindingFlagsBuffer = memAllocInt(bindingFlags.length);
 
-        for (int i = 0; i < bindingFlagsBuffer.remaining(); i++) {
-            bindingFlagsBuffer.put(i, VK_DESCRIPTOR_BINDING_UPDATE_AFTER_BIND_BIT_EXT);
+        for (int i = 0; i < bindingFlags.length; i++) {
+            if ((bindingFlags[i] & VK_DESCRIPTOR_BINDING_UPDATE_AFTER_BIND_BIT_EXT) != 0
+                    && isDynamic(layoutBindings.get(i).descriptorType())) {
+                memFree(bindingFlagsBuffer);
+                throw new AssertionError(
+                        "Dynamic buffer bindings cannot be updated after bind(binding "
+                                + layoutBindings.get(i).binding() + ").");
+            }
+            bindingFlagsBuffer.put(i, bindingFlags[i]);
         }
 
-        VkDescriptorSetLayoutBindingFlagsCreateInfoEXT bindingFlags =
+        VkDescriptorSetLayoutBindingFlagsCreateInfoEXT bindingFlagsCI =
                 VkDescriptorSetLayoutBindingFlagsCreateInfoEXT.calloc()
                         .sType(
                                 VK_STRUCTURE_TYPE_DESCRIPTOR_SET_LAYOUT_BINDING_FLAGS_CREATE_INFO_EXT)
@@ -48,7 +95,7 @@ public class PipelineUtil {
         VkDescriptorSetLayoutCreateInfo layoutCreateInfo =
                 VkDescriptorSetLayoutCreateInfo.calloc()
                         .sType(VK_STRUCTURE_TYPE_DESCRIPTOR_SET_LAYOUT_CREATE_INFO)
-                        .pNext(bindingFlags.address())
+                        .pNext(bindingFlagsCI.address())
                         .flags(VK_DESCRIPTOR_SET_LAYOUT_CREATE_UPDATE_AFTER_BIND_POOL_BIT_EXT)
                         // VK_DESCRIPTOR_BINDING_UPDATE_AFTER_BIND_BIT_EXT for thread
                         // independent descriptor updates
@@ -63,7 +110,7 @@ public class PipelineUtil {
         memFree(pSetLayout);
         layoutCreateInfo.free();
         memFree(bindingFlagsBuffer);
-        bindingFlags.free();
+        bindingFlagsCI.free();
 
         return ans;
     }
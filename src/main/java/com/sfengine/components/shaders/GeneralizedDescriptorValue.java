@@ -4,12 +4,15 @@ import static com.sfengine.components.memory.RenderingMemoryUtil.*;
 import static org.lwjgl.system.MemoryUtil.*;
 import static org.lwjgl.vulkan.VK10.VK_BUFFER_USAGE_UNIFORM_BUFFER_BIT;
 import static org.lwjgl.vulkan.VK10.VK_DESCRIPTOR_TYPE_UNIFORM_BUFFER;
+import static org.lwjgl.vulkan.VK10.VK_DESCRIPTOR_TYPE_UNIFORM_BUFFER_DYNAMIC;
 import static org.lwjgl.vulkan.VK10.VK_SHARING_MODE_EXCLUSIVE;
 import static org.lwjgl.vulkan.VK10.VK_STRUCTURE_TYPE_WRITE_DESCRIPTOR_SET;
 import static org.lwjgl.vulkan.VK10.vkUpdateDescriptorSets;
 
+import com.sfengine.components.shaders.descriptor_sets.DescriptorWriter;
 import com.sfengine.components.shaders.descriptors.DescriptorValue;
 import com.sfengine.components.memory.GPUBuffer;
+import com.sfengine.components.memory.UniformRing;
 import com.sfengine.core.result.VulkanException;
 import java.nio.ByteBuffer;
 import java.util.logging.Level;
@@ -38,9 +41,16 @@ public class GeneralizedDescriptorValue implements DescriptorValue {
     protected ByteBuffer data;
     private VkWriteDescriptorSet.Buffer write;
 
+    private VkPhysicalDevice physicalDevice;
     private VkDevice device;
     private VkDescriptorBufferInfo.Buffer bufferInfo;
     private GPUBuffer gpuBuffer = null;
+    /** The ring(and the slot) of the value if it is kept in a uniform ring. */
+    private UniformRing ring = null;
+    private UniformRing.Slot slot = null;
+    /** The writer notified about the changes(if any). */
+    private volatile DescriptorWriter writer = null;
+    private volatile int writerIndex = -1;
 
     private String name;
     private boolean upToDate = false;
@@ -52,21 +62,10 @@ public class GeneralizedDescriptorValue implements DescriptorValue {
             int binding,
             String name,
             UniformUsage... uniformUsages) {
+        this.physicalDevice = physicalDevice;
         this.device = device;
-        this.slots = uniformUsages;
         this.name = name;
-
-        dataSize = 0;
-        prefTab = new int[slots.length];
-        prefTab[0] = 0;
-        for (int i = 0; i < slots.length; i++) {
-            dataSize += slots[i].sizeOf();
-            if (i < slots.length - 1) {
-                prefTab[i + 1] = prefTab[i] + slots[i].sizeOf();
-            }
-        }
-
-        data = memAlloc(dataSize);
+        layout(uniformUsages);
 
         try {
             gpuBuffer =
@@ -80,9 +79,82 @@ public class GeneralizedDescriptorValue implements DescriptorValue {
             throw new AssertionError("Failed to allocate buffer memory!");
         }
 
+        createWrite(descriptorSet, binding, VK_DESCRIPTOR_TYPE_UNIFORM_BUFFER, gpuBuffer.buffer, 0);
+
+        try {
+            bindBufferMemoryGPU(device, gpuBuffer, data);
+        } catch (VulkanException e) {
+            logger.log(Level.FINER, "Failed to bind buffer to the GPU memory.");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Creates a value kept in the uniform ring. The binding must be a
+     * VK_DESCRIPTOR_TYPE_UNIFORM_BUFFER_DYNAMIC binding, it is written once(here) and the frames
+     * select their data with the dynamic offset(see UniformRing.getDynamicOffset). The update()
+     * only marks the value stale, the data is copied into the ring during the frame updates. The
+     * descriptor is written again when the ring is resized.
+     *
+     * @param ring the uniform ring.
+     * @param descriptorSet the descriptor set.
+     * @param binding the binding of the value.
+     * @param name the name of the value.
+     * @param uniformUsages the uniforms of the value.
+     */
+    public GeneralizedDescriptorValue(
+            UniformRing ring,
+            long descriptorSet,
+            int binding,
+            String name,
+            UniformUsage... uniformUsages) {
+        this.device = ring.getDevice();
+        this.name = name;
+        layout(uniformUsages);
+
+        this.ring = ring;
+        slot = ring.allocate(data);
+
+        createWrite(
+                descriptorSet,
+                binding,
+                VK_DESCRIPTOR_TYPE_UNIFORM_BUFFER_DYNAMIC,
+                ring.getBuffer(),
+                slot.getOffset());
+        vkUpdateDescriptorSets(device, write, null);
+        slot.setMovedListener(this::rewrite);
+    }
+
+    /** Writes the descriptor again, pointing at the current buffer of the ring. */
+    private void rewrite() {
+        long buffer = ring.getBuffer();
+        for (int i = 0; i < slots.length; i++)
+            bufferInfo.get(i).buffer(buffer);
+
+        vkUpdateDescriptorSets(device, write, null);
+    }
+
+    private void layout(UniformUsage... uniformUsages) {
+        this.slots = uniformUsages;
+
+        dataSize = 0;
+        prefTab = new int[slots.length];
+        prefTab[0] = 0;
+        for (int i = 0; i < slots.length; i++) {
+            dataSize += slots[i].sizeOf();
+            if (i < slots.length - 1) {
+                prefTab[i + 1] = prefTab[i] + slots[i].sizeOf();
+            }
+        }
+
+        data = memCalloc(dataSize);
+    }
+
+    private void createWrite(
+            long descriptorSet, int binding, int descriptorType, long buffer, long offset) {
         bufferInfo = VkDescriptorBufferInfo.calloc(slots.length);
         for (int i = 0; i < slots.length; i++) {
-            bufferInfo.get(i).buffer(gpuBuffer.buffer).offset(prefTab[i]).range(slots[i].sizeOf());
+            bufferInfo.get(i).buffer(buffer).offset(offset + prefTab[i]).range(slots[i].sizeOf());
         }
 
         write =
@@ -90,18 +162,24 @@ public class GeneralizedDescriptorValue implements DescriptorValue {
                         .sType(VK_STRUCTURE_TYPE_WRITE_DESCRIPTOR_SET)
                         .pNext(NULL)
                         .dstSet(descriptorSet)
-                        .descriptorType(VK_DESCRIPTOR_TYPE_UNIFORM_BUFFER)
+                        .descriptorType(descriptorType)
                         .descriptorCount(1)
                         .pBufferInfo(bufferInfo)
                         .dstArrayElement(0)
                         .dstBinding(binding);
+    }
 
-        try {
-            bindBufferMemoryGPU(device, gpuBuffer, data);
-        } catch (VulkanException e) {
-            logger.log(Level.FINER, "Failed to bind buffer to the GPU memory.");
-            e.printStackTrace();
-        }
+    /**
+     * Returns the dynamic offset of the value for the frame(values kept in a uniform ring only).
+     *
+     * @param frameIndex the frame index(the swapchain image index).
+     * @return the dynamic offset.
+     */
+    public int getDynamicOffset(int frameIndex) {
+        if (ring == null)
+            throw new AssertionError("The value is not kept in a uniform ring.");
+
+        return ring.getDynamicOffset(frameIndex);
     }
 
     public UniformUsage getUniformUsage(int index) {
@@ -110,18 +188,38 @@ public class GeneralizedDescriptorValue implements DescriptorValue {
 
     @Override
     public void update() {
+        if (prepareWrite() != null) {
+            vkUpdateDescriptorSets(device, write, null);
+        }
+    }
+
+    @Override
+    public VkWriteDescriptorSet prepareWrite() {
         if (upToDate == true) {
-            return;
+            return null;
         }
         upToDate = true;
 
+        if (slot != null) {
+            // The ring copies the data into the frames' partitions.
+            slot.invalidate();
+            return null;
+        }
+
         try {
             copyToBufferMemoryGPU(device, gpuBuffer, data);
         } catch (VulkanException e) {
             logger.log(Level.FINER, "Failed to copy buffer to the GPU memory", e);
             e.printStackTrace();
         }
-        vkUpdateDescriptorSets(device, write, null);
+        return write.get(0);
+    }
+
+    @Override
+    public boolean setWriter(DescriptorWriter writer, int index) {
+        this.writerIndex = index;
+        this.writer = writer;
+        return true;
     }
 
     public void setUniform(int index, short val) {
@@ -182,6 +280,10 @@ public class GeneralizedDescriptorValue implements DescriptorValue {
         }
 
         upToDate = false;
+        DescriptorWriter writer = this.writer;
+        if (writer != null) {
+            writer.markDirty(writerIndex);
+        }
     }
 
     @Override
@@ -191,6 +293,10 @@ public class GeneralizedDescriptorValue implements DescriptorValue {
 
     @Override
     public void destroy() {
+        if (slot != null)
+            slot.free();
+        else
+            freeBufferMemoryGPU(device, physicalDevice, gpuBuffer);
         memFree(data);
         write.free();
         bufferInfo.free();
@@ -0,0 +1,303 @@
+package com.sfengine.components.shaders.descriptor_sets;
+
+import static com.sfengine.core.result.VulkanResult.validate;
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.vulkan.VK10.*;
+import static org.lwjgl.vulkan.VK11.VK_ERROR_OUT_OF_POOL_MEMORY;
+
+import com.sfengine.core.resources.Destroyable;
+import com.sfengine.core.result.VulkanException;
+import java.nio.LongBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.lwjgl.vulkan.EXTDescriptorIndexing;
+import org.lwjgl.vulkan.VkDescriptorPoolCreateInfo;
+import org.lwjgl.vulkan.VkDescriptorPoolSize;
+import org.lwjgl.vulkan.VkDescriptorSetAllocateInfo;
+import org.lwjgl.vulkan.VkDevice;
+
+/**
+ * Descriptor set allocator backed by a growing list of descriptor pools. Every pool holds a fixed
+ * number of sets and the descriptors of every type in proportion to the set count(the type
+ * ratios). The sets are allocated from the current pool, when it runs out of memory a new pool
+ * (or a previously reset one) becomes the current pool.
+ *
+ * <p>The sets are never freed one by one. A transient allocator(eg. one per frame, see {@link
+ * #createTransient(VkDevice)}) is reset as a whole, which returns all of its pools for reuse, and
+ * destroy frees all of the pools. The shared allocator of a device(see {@link #get(VkDevice)})
+ * holds the persistent sets, so it cannot be reset.
+ */
+public class DescriptorAllocator implements Destroyable {
+
+    /** The default number of the descriptor sets per pool. */
+    public static final int SETS_PER_POOL =
+            Integer.getInteger("rendering_descriptor_pool_sets", 256);
+
+    /** The default descriptor types and their counts per set. */
+    private static final int[] DEFAULT_TYPES = {
+        VK_DESCRIPTOR_TYPE_SAMPLER,
+        VK_DESCRIPTOR_TYPE_COMBINED_IMAGE_SAMPLER,
+        VK_DESCRIPTOR_TYPE_SAMPLED_IMAGE,
+        VK_DESCRIPTOR_TYPE_STORAGE_IMAGE,
+        VK_DESCRIPTOR_TYPE_UNIFORM_TEXEL_BUFFER,
+        VK_DESCRIPTOR_TYPE_STORAGE_TEXEL_BUFFER,
+        VK_DESCRIPTOR_TYPE_UNIFORM_BUFFER,
+        VK_DESCRIPTOR_TYPE_STORAGE_BUFFER,
+        VK_DESCRIPTOR_TYPE_UNIFORM_BUFFER_DYNAMIC,
+        VK_DESCRIPTOR_TYPE_STORAGE_BUFFER_DYNAMIC,
+        VK_DESCRIPTOR_TYPE_INPUT_ATTACHMENT
+    };
+    private static final float[] DEFAULT_RATIOS = {
+        0.5f, 4.0f, 4.0f, 1.0f, 1.0f, 1.0f, 2.0f, 2.0f, 1.0f, 1.0f, 0.5f
+    };
+
+    private static final Map<VkDevice, DescriptorAllocator> allocators = new ConcurrentHashMap<>();
+
+    private final VkDevice device;
+    private final int setsPerPool;
+    private final int flags;
+    private final int[] types;
+    private final float[] ratios;
+    /** Tells whether the sets live until the allocator is destroyed(reset is not allowed). */
+    private final boolean persistent;
+
+    private long current = VK_NULL_HANDLE;
+    /** The pools that ran out of memory. */
+    private final List<Long> usedPools = new ArrayList<>();
+    /** The reset pools. */
+    private final ArrayDeque<Long> freePools = new ArrayDeque<>();
+
+    private long poolCount = 0, setCount = 0;
+
+    /**
+     * Creates an allocator with the default type ratios.
+     *
+     * @param device the device.
+     * @param flags the descriptor pool create flags.
+     */
+    public DescriptorAllocator(VkDevice device, int flags) {
+        this(device, SETS_PER_POOL, flags, DEFAULT_TYPES, DEFAULT_RATIOS);
+    }
+
+    /**
+     * Creates an allocator.
+     *
+     * @param device the device.
+     * @param setsPerPool the number of the sets per pool.
+     * @param flags the descriptor pool create flags.
+     * @param types the descriptor types.
+     * @param ratios the number of descriptors of the corresponding type per set.
+     */
+    public DescriptorAllocator(
+            VkDevice device, int setsPerPool, int flags, int[] types, float[] ratios) {
+        this(device, setsPerPool, flags, types, ratios, false);
+    }
+
+    private DescriptorAllocator(
+            VkDevice device,
+            int setsPerPool,
+            int flags,
+            int[] types,
+            float[] ratios,
+            boolean persistent) {
+        if (setsPerPool <= 0)
+            throw new AssertionError("The number of the sets per pool must be positive.");
+        if (types.length != ratios.length)
+            throw new AssertionError("Every descriptor type needs a ratio.");
+
+        this.device = device;
+        this.setsPerPool = setsPerPool;
+        this.flags = flags;
+        this.types = types.clone();
+        this.ratios = ratios.clone();
+        this.persistent = persistent;
+    }
+
+    /**
+     * Returns the shared allocator of the device(used by the DescriptorSetFactory). Its sets are
+     * persistent, they are freed only by {@link #destroyAllocator(VkDevice)}.
+     *
+     * @param device the device.
+     * @return the allocator.
+     */
+    public static DescriptorAllocator get(VkDevice device) {
+        return allocators.computeIfAbsent(
+                device,
+                d -> new DescriptorAllocator(
+                        d,
+                        SETS_PER_POOL,
+                        EXTDescriptorIndexing.VK_DESCRIPTOR_POOL_CREATE_UPDATE_AFTER_BIND_BIT_EXT,
+                        DEFAULT_TYPES,
+                        DEFAULT_RATIOS,
+                        true));
+    }
+
+    /**
+     * Creates a transient allocator, the sets that live for a short time(eg. a frame) should be
+     * allocated from it and freed together with reset. The pools accept the layouts created by
+     * the PipelineUtil(update after bind pools).
+     *
+     * @param device the device.
+     * @return the allocator(destroyed by the caller).
+     */
+    public static DescriptorAllocator createTransient(VkDevice device) {
+        return new DescriptorAllocator(
+                device, EXTDescriptorIndexing.VK_DESCRIPTOR_POOL_CREATE_UPDATE_AFTER_BIND_BIT_EXT);
+    }
+
+    /**
+     * Destroys the shared allocator of the device(if any).
+     *
+     * @param device the device.
+     */
+    public static void destroyAllocator(VkDevice device) {
+        DescriptorAllocator allocator = allocators.remove(device);
+        if (allocator != null)
+            allocator.destroy();
+    }
+
+    private long createPool() throws VulkanException {
+        VkDescriptorPoolSize.Buffer poolSizes = VkDescriptorPoolSize.calloc(types.length);
+        for (int i = 0; i < types.length; i++) {
+            poolSizes
+                    .get(i)
+                    .type(types[i])
+                    .descriptorCount(Math.max(1, (int) (ratios[i] * setsPerPool)));
+        }
+
+        VkDescriptorPoolCreateInfo poolCreateInfo =
+                VkDescriptorPoolCreateInfo.calloc()
+                        .sType(VK_STRUCTURE_TYPE_DESCRIPTOR_POOL_CREATE_INFO)
+                        .pNext(NULL)
+                        .flags(flags)
+                        .maxSets(setsPerPool)
+                        .pPoolSizes(poolSizes);
+
+        LongBuffer pPool = memAllocLong(1);
+        int err = vkCreateDescriptorPool(device, poolCreateInfo, null, pPool);
+        long pool = pPool.get(0);
+        memFree(pPool);
+        poolCreateInfo.free();
+        poolSizes.free();
+        validate(err, "Failed to create descriptor pool.");
+
+        poolCount++;
+        return pool;
+    }
+
+    private long nextPool() throws VulkanException {
+        Long pool = freePools.poll();
+        return pool != null ? pool : createPool();
+    }
+
+    /**
+     * Allocates a descriptor set.
+     *
+     * @param layout the descriptor set layout.
+     * @return the descriptor set handle.
+     * @throws VulkanException when the set or a new pool could not be created.
+     */
+    public synchronized long allocate(long layout) throws VulkanException {
+        if (current == VK_NULL_HANDLE)
+            current = nextPool();
+
+        LongBuffer pLayout = memAllocLong(1).put(0, layout);
+        LongBuffer pSet = memAllocLong(1);
+        VkDescriptorSetAllocateInfo allocateInfo =
+                VkDescriptorSetAllocateInfo.calloc()
+                        .sType(VK_STRUCTURE_TYPE_DESCRIPTOR_SET_ALLOCATE_INFO)
+                        .pNext(NULL)
+                        .descriptorPool(current)
+                        .pSetLayouts(pLayout);
+
+        try {
+            int err = vkAllocateDescriptorSets(device, allocateInfo, pSet);
+            if (err == VK_ERROR_OUT_OF_POOL_MEMORY || err == VK_ERROR_FRAGMENTED_POOL) {
+                usedPools.add(current);
+                current = nextPool();
+                allocateInfo.descriptorPool(current);
+                err = vkAllocateDescriptorSets(device, allocateInfo, pSet);
+            }
+            validate(err, "Failed to allocate descriptor set.");
+
+            setCount++;
+            return pSet.get(0);
+        } finally {
+            allocateInfo.free();
+            memFree(pSet);
+            memFree(pLayout);
+        }
+    }
+
+    /**
+     * Allocates descriptor sets.
+     *
+     * @param blueprints the blueprints of the descriptor sets.
+     * @return an array of the descriptor set handles.
+     * @throws VulkanException when a new pool could not be created.
+     */
+    public synchronized long[] allocate(DescriptorSetBlueprint... blueprints)
+            throws VulkanException {
+        long[] sets = new long[blueprints.length];
+        for (int i = 0; i < blueprints.length; i++)
+            sets[i] = allocate(blueprints[i].getLayout());
+
+        return sets;
+    }
+
+    /**
+     * Frees all of the sets allocated so far(eg. the transient sets of a frame that is no longer
+     * used by the GPU), the pools are kept for the future allocations. The shared(persistent)
+     * allocator cannot be reset.
+     */
+    public synchronized void reset() {
+        if (persistent)
+            throw new AssertionError(
+                    "The shared allocator holds persistent sets, use a transient allocator.");
+
+        release();
+    }
+
+    /** Returns all of the pools to the free pools. */
+    private void release() {
+        if (current != VK_NULL_HANDLE)
+            usedPools.add(current);
+        current = VK_NULL_HANDLE;
+
+        for (long pool : usedPools) {
+            vkResetDescriptorPool(device, pool, 0);
+            freePools.add(pool);
+        }
+        usedPools.clear();
+    }
+
+    /**
+     * Returns the number of the pools created so far.
+     *
+     * @return the pool count.
+     */
+    public synchronized long getPoolCount() {
+        return poolCount;
+    }
+
+    /**
+     * Returns the number of the sets allocated so far.
+     *
+     * @return the set count.
+     */
+    public synchronized long getSetCount() {
+        return setCount;
+    }
+
+    /** Destroys all of the pools, the sets must not be used afterwards. */
+    @Override
+    public synchronized void destroy() {
+        release();
+        for (long pool : freePools)
+            vkDestroyDescriptorPool(device, pool, null);
+        freePools.clear();
+    }
+}
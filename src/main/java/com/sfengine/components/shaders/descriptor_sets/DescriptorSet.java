@@ -3,6 +3,8 @@ package com.sfengine.components.shaders.descriptor_sets;
 import com.sfengine.components.shaders.descriptors.Descriptor;
 import com.sfengine.core.resources.Destroyable;
 import com.sfengine.core.result.VulkanException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -73,6 +75,17 @@ public abstract class DescriptorSet implements Destroyable {
         return descriptors.get(name);
     }
 
+    /**
+     * Returns the descriptors contained within the set.
+     *
+     * @return a copy of the descriptor collection.
+     */
+    public Collection<Descriptor> getDescriptors() {
+        synchronized (descriptors) {
+            return new ArrayList<>(descriptors.values());
+        }
+    }
+
     @Override
     public void destroy() {
         for (Map.Entry<String, Descriptor> i : descriptors.entrySet()) {
@@ -3,19 +3,12 @@ package com.sfengine.components.shaders.descriptor_sets;
 import static org.lwjgl.system.MemoryUtil.NULL;
 import static org.lwjgl.system.MemoryUtil.memAllocLong;
 import static org.lwjgl.system.MemoryUtil.memFree;
-import static org.lwjgl.vulkan.VK10.VK_DESCRIPTOR_TYPE_UNIFORM_BUFFER;
-import static org.lwjgl.vulkan.VK10.VK_STRUCTURE_TYPE_DESCRIPTOR_POOL_CREATE_INFO;
 import static org.lwjgl.vulkan.VK10.VK_STRUCTURE_TYPE_DESCRIPTOR_SET_ALLOCATE_INFO;
 import static org.lwjgl.vulkan.VK10.VK_SUCCESS;
 import static org.lwjgl.vulkan.VK10.vkAllocateDescriptorSets;
-import static org.lwjgl.vulkan.VK10.vkCreateDescriptorPool;
-import static com.sfengine.core.result.VulkanResult.*;
 
 import com.sfengine.core.result.VulkanException;
 import java.nio.LongBuffer;
-import org.lwjgl.vulkan.EXTDescriptorIndexing;
-import org.lwjgl.vulkan.VkDescriptorPoolCreateInfo;
-import org.lwjgl.vulkan.VkDescriptorPoolSize;
 import org.lwjgl.vulkan.VkDescriptorSetAllocateInfo;
 import org.lwjgl.vulkan.VkDevice;
 
@@ -28,7 +21,9 @@ import org.lwjgl.vulkan.VkDevice;
 public class DescriptorSetFactory {
 
     /**
-     * Creates descriptor sets.
+     * Creates descriptor sets. The sets are allocated from the shared descriptor allocator of the
+     * device(see DescriptorAllocator.get), the pools are freed with
+     * DescriptorAllocator.destroyAllocator.
      *
      * @param device <b>must</b> be a valid logical device.
      * @param blueprints a list of descriptor set blueprints for the descriptor sets that will be
@@ -38,41 +33,7 @@ public class DescriptorSetFactory {
      */
     public static long[] createDescriptorSets(VkDevice device, DescriptorSetBlueprint... blueprints)
             throws VulkanException {
-        int descriptors = 0;
-        for (int i = 0; i < blueprints.length; i++) {
-            descriptors += blueprints[i].descriptorCount();
-        }
-
-        VkDescriptorPoolSize.Buffer descriptorPoolSizes =
-                VkDescriptorPoolSize.calloc(1)
-                        .type(VK_DESCRIPTOR_TYPE_UNIFORM_BUFFER)
-                        .descriptorCount(descriptors);
-
-        VkDescriptorPoolCreateInfo descriptorPoolCreateInfo =
-                VkDescriptorPoolCreateInfo.calloc()
-                        .sType(VK_STRUCTURE_TYPE_DESCRIPTOR_POOL_CREATE_INFO)
-                        .pNext(NULL)
-                        .flags(
-                                EXTDescriptorIndexing
-                                        .VK_DESCRIPTOR_POOL_CREATE_UPDATE_AFTER_BIND_BIT_EXT)
-                        .maxSets(blueprints.length)
-                        .pPoolSizes(descriptorPoolSizes);
-
-        LongBuffer pDescriptorPool = memAllocLong(1);
-        int err = vkCreateDescriptorPool(device, descriptorPoolCreateInfo, null, pDescriptorPool);
-        validate(err, "Failed to create descriptor pool.");
-        long descriptorPool = pDescriptorPool.get(0);
-
-        long[] dscs = new long[blueprints.length];
-        for (int i = 0; i < blueprints.length; i++) {
-            dscs[i] = createDescriptorSet(device, descriptorPool, blueprints[i].getLayout());
-        }
-
-        descriptorPoolSizes.free();
-        descriptorPoolCreateInfo.free();
-        memFree(pDescriptorPool);
-
-        return dscs;
+        return DescriptorAllocator.get(device).allocate(blueprints);
     }
 
     /**
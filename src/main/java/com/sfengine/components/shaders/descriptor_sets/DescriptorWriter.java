@@ -0,0 +1,224 @@
+package com.sfengine.components.shaders.descriptor_sets;
+
+import static org.lwjgl.vulkan.VK10.vkUpdateDescriptorSets;
+
+import com.sfengine.components.shaders.descriptors.Descriptor;
+import com.sfengine.components.shaders.descriptors.DescriptorValue;
+import com.sfengine.core.rendering.Updatable;
+import com.sfengine.core.resources.Destroyable;
+import com.sfengine.core.result.VulkanException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.lwjgl.vulkan.VkDevice;
+import org.lwjgl.vulkan.VkWriteDescriptorSet;
+
+/**
+ * Batches the descriptor writes of many descriptor sets. The values notify the writer about their
+ * changes, the changed values are kept in a bit set, so a flush visits only the dirty values and
+ * writes all of their descriptors with a single vkUpdateDescriptorSets call(one call per
+ * capacity writes). The values that do not notify the writer are polled with isUpToDate. The
+ * indices of the removed values are reused by the added ones.
+ *
+ * <p>The writer should be updated once per frame(eg. added to the rendering engine's updatables).
+ */
+public class DescriptorWriter implements Updatable, Destroyable {
+
+    /** Class specific logger. */
+    private static final Logger logger = Logger.getLogger(DescriptorWriter.class.getName());
+
+    /** The default number of the writes passed to a single vkUpdateDescriptorSets call. */
+    public static final int CAPACITY = Integer.getInteger("rendering_descriptor_writer_capacity", 256);
+
+    private final VkDevice device;
+    private final VkWriteDescriptorSet.Buffer writes;
+
+    private final List<DescriptorValue> values = new ArrayList<>();
+    private final Map<DescriptorValue, Integer> indices = new IdentityHashMap<>();
+    /** The indices of the removed values. */
+    private final BitSet free = new BitSet();
+    private final BitSet dirty = new BitSet();
+    /** The values that have to be polled. */
+    private final BitSet untracked = new BitSet();
+
+    private long calls = 0, writeCount = 0;
+
+    public DescriptorWriter(VkDevice device) {
+        this(device, CAPACITY);
+    }
+
+    /**
+     * Creates a descriptor writer.
+     *
+     * @param device the device.
+     * @param capacity the number of the writes passed to a single vkUpdateDescriptorSets call.
+     */
+    public DescriptorWriter(VkDevice device, int capacity) {
+        if (capacity <= 0)
+            throw new AssertionError("The writer capacity must be positive.");
+
+        this.device = device;
+        this.writes = VkWriteDescriptorSet.calloc(capacity);
+    }
+
+    /**
+     * Adds all of the values of the set.
+     *
+     * @param set the descriptor set.
+     */
+    public void add(DescriptorSet set) {
+        for (Descriptor descriptor : set.getDescriptors())
+            add(descriptor);
+    }
+
+    /**
+     * Adds all of the values of the descriptor.
+     *
+     * @param descriptor the descriptor.
+     */
+    public void add(Descriptor descriptor) {
+        for (int i = 0; i < descriptor.getValueCount(); i++)
+            add(descriptor.getValue(i));
+    }
+
+    /**
+     * Adds the value, it will be written during the next flush.
+     *
+     * @param value the descriptor value.
+     */
+    public synchronized void add(DescriptorValue value) {
+        if (indices.containsKey(value))
+            return;
+
+        int index = free.nextSetBit(0);
+        if (index >= 0) {
+            free.clear(index);
+            values.set(index, value);
+        } else {
+            index = values.size();
+            values.add(value);
+        }
+        indices.put(value, index);
+        dirty.set(index);
+
+        if (!value.setWriter(this, index))
+            untracked.set(index);
+    }
+
+    /**
+     * Removes the value(eg. before it is destroyed).
+     *
+     * @param value the descriptor value.
+     */
+    public synchronized void remove(DescriptorValue value) {
+        Integer index = indices.remove(value);
+        if (index == null)
+            return;
+
+        value.setWriter(null, -1);
+        values.set(index, null);
+        dirty.clear(index);
+        untracked.clear(index);
+        free.set(index);
+    }
+
+    /**
+     * Removes all of the values of the set.
+     *
+     * @param set the descriptor set.
+     */
+    public void remove(DescriptorSet set) {
+        for (Descriptor descriptor : set.getDescriptors())
+            for (int i = 0; i < descriptor.getValueCount(); i++)
+                remove(descriptor.getValue(i));
+    }
+
+    /**
+     * Marks the value changed.
+     *
+     * @param index the index of the value(see DescriptorValue.setWriter).
+     */
+    public synchronized void markDirty(int index) {
+        // A value removed concurrently may still report its old index.
+        if (index >= 0 && index < values.size() && values.get(index) != null)
+            dirty.set(index);
+    }
+
+    @Override
+    public void update() {
+        flush();
+    }
+
+    /** Updates the dirty values and writes their descriptors. */
+    public synchronized void flush() {
+        for (int i = untracked.nextSetBit(0); i >= 0; i = untracked.nextSetBit(i + 1))
+            if (!values.get(i).isUpToDate())
+                dirty.set(i);
+
+        int count = 0;
+        for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+            VkWriteDescriptorSet write;
+            try {
+                write = values.get(i).prepareWrite();
+            } catch (VulkanException e) {
+                logger.log(Level.WARNING, "Failed to update a descriptor value.", e);
+                continue;
+            }
+
+            if (write == null)
+                continue;
+
+            writes.get(count++).set(write);
+            if (count == writes.capacity()) {
+                write(count);
+                count = 0;
+            }
+        }
+        dirty.clear();
+
+        if (count > 0)
+            write(count);
+    }
+
+    private void write(int count) {
+        writes.limit(count);
+        vkUpdateDescriptorSets(device, writes, null);
+        writes.clear();
+
+        calls++;
+        writeCount += count;
+    }
+
+    /**
+     * Returns the number of the vkUpdateDescriptorSets calls made so far.
+     *
+     * @return the call count.
+     */
+    public synchronized long getCallCount() {
+        return calls;
+    }
+
+    /**
+     * Returns the number of the descriptor writes made so far.
+     *
+     * @return the write count.
+     */
+    public synchronized long getWriteCount() {
+        return writeCount;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        for (DescriptorValue value : values)
+            if (value != null)
+                value.setWriter(null, -1);
+        values.clear();
+        indices.clear();
+        free.clear();
+        writes.free();
+    }
+}
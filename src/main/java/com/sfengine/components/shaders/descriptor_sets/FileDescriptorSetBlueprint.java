@@ -5,10 +5,12 @@ import com.sfengine.core.resources.ConfigAsset;
 import com.sfengine.core.resources.ConfigFile;
 import com.sfengine.core.resources.Destroyable;
 import com.sfengine.core.result.VulkanException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.lwjgl.vulkan.EXTDescriptorIndexing;
 import org.lwjgl.vulkan.VK10;
 import org.lwjgl.vulkan.VkDescriptorSetLayoutBinding;
 import org.lwjgl.vulkan.VkDevice;
@@ -32,7 +34,9 @@ public class FileDescriptorSetBlueprint implements DescriptorSetBlueprint, Destr
             BINDING_KEY = "binding",
             DESCRIPTORS_TYPE_KEY = "descriptorsType",
             STAGE_FLAGS_KEY = "stages",
-            DEFAULT_DESCRIPTORS_TYPE = "VK_DESCRIPTOR_TYPE_UNIFORM_BUFFER";
+            BINDING_FLAGS_KEY = "bindingFlags",
+            DEFAULT_DESCRIPTORS_TYPE = "VK_DESCRIPTOR_TYPE_UNIFORM_BUFFER",
+            DEFAULT_BINDING_FLAG = "VK_DESCRIPTOR_BINDING_UPDATE_AFTER_BIND_BIT_EXT";
 
     /** Default values for descriptor set layout fields. */
     private static final Integer DEFAULT_BINDINGS_COUNT = 0,
@@ -66,6 +70,7 @@ public class FileDescriptorSetBlueprint implements DescriptorSetBlueprint, Destr
         bindings = cfg.getInteger(BINDINGS_COUNT_KEY, DEFAULT_BINDINGS_COUNT);
         layoutBindings = VkDescriptorSetLayoutBinding.calloc(bindings);
         List<ConfigAsset> cfgs = cfg.getCfgList(BINDINGS_KEY);
+        int[] bindingFlags = new int[bindings];
 
         for (int i = 0; i < cfgs.size(); i++) {
             try {
@@ -80,6 +85,13 @@ public class FileDescriptorSetBlueprint implements DescriptorSetBlueprint, Destr
                                         DEFAULT_DESCRIPTORS_TYPE));
                 current.descriptorCount(
                         cfgs.get(i).getInteger(DESCRIPTOR_COUNT_KEY, DEFAULT_DESCRIPTOR_COUNT));
+                // The flags of the binding, eg. ["VK_DESCRIPTOR_BINDING_UPDATE_AFTER_BIND_BIT_EXT"]
+                // (by default chosen from the descriptor type).
+                List<String> defaultFlags = new ArrayList<>();
+                if (PipelineUtil.defaultBindingFlags(current.descriptorType()) != 0)
+                    defaultFlags.add(DEFAULT_BINDING_FLAG);
+                bindingFlags[i] = cfgs.get(i).getFlags(
+                        EXTDescriptorIndexing.class, BINDING_FLAGS_KEY, defaultFlags);
             } catch (Exception e) {
                 logger.log(Level.SEVERE, "Failed to load descriptor set binding information.");
                 e.printStackTrace();
@@ -87,7 +99,8 @@ public class FileDescriptorSetBlueprint implements DescriptorSetBlueprint, Destr
         }
 
         try {
-            descriptorLayout = PipelineUtil.createDescriptorSetLayout(device, layoutBindings);
+            descriptorLayout =
+                    PipelineUtil.createDescriptorSetLayout(device, layoutBindings, bindingFlags);
         } catch (VulkanException e) {
             logger.log(Level.SEVERE, "Failed to create descriptor set layout.");
             e.printStackTrace();
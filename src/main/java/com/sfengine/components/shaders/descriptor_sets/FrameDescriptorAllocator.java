@@ -0,0 +1,104 @@
+package com.sfengine.components.shaders.descriptor_sets;
+
+import com.sfengine.core.rendering.frames.FramesInFlight;
+import com.sfengine.core.resources.Destroyable;
+import com.sfengine.core.result.VulkanException;
+import java.util.function.IntConsumer;
+import org.lwjgl.vulkan.VkDevice;
+
+/**
+ * Allocates the descriptor sets that live for a single frame. Every frame(swapchain image) has its
+ * own transient {@link DescriptorAllocator}, the sets are allocated from the allocator of the frame
+ * being prepared and the allocator is reset when the frame ends(its fence was signalled), so its
+ * pools are reused by the next frame with the same index.
+ *
+ * <p>When the swapchain image count changes(no frame is in flight then) all of the allocators are
+ * destroyed and created again on demand.
+ */
+public class FrameDescriptorAllocator implements Destroyable {
+
+    private final VkDevice device;
+    private final FramesInFlight frames;
+
+    /** The allocators of the frames(created with the first allocation of a frame). */
+    private DescriptorAllocator[] allocators;
+
+    private final IntConsumer resize = this::resize;
+    private final IntConsumer frameEnd = this::reset;
+
+    /**
+     * Creates the allocator and registers it with the frames in flight.
+     *
+     * @param device the device.
+     * @param frames the frames in flight(tell which frame is being prepared and when it ends).
+     */
+    public FrameDescriptorAllocator(VkDevice device, FramesInFlight frames) {
+        this.device = device;
+        this.frames = frames;
+        this.allocators = new DescriptorAllocator[Math.max(1, frames.getImageCount())];
+
+        frames.addImageCountListener(resize);
+        frames.addFrameEndListener(frameEnd);
+    }
+
+    /**
+     * Allocates a descriptor set for the frame being prepared. The set must not be used after the
+     * frame ends.
+     *
+     * @param layout the descriptor set layout.
+     * @return the descriptor set handle.
+     * @throws VulkanException when the set or a new pool could not be created.
+     */
+    public synchronized long allocate(long layout) throws VulkanException {
+        int frame = frames.current();
+        if (frame < 0)
+            throw new AssertionError("No frame is being prepared.");
+
+        if (frame >= allocators.length) {
+            DescriptorAllocator[] grown = new DescriptorAllocator[frame + 1];
+            System.arraycopy(allocators, 0, grown, 0, allocators.length);
+            allocators = grown;
+        }
+
+        if (allocators[frame] == null)
+            allocators[frame] = DescriptorAllocator.createTransient(device);
+
+        return allocators[frame].allocate(layout);
+    }
+
+    /**
+     * Frees the sets of an ended frame.
+     *
+     * @param frame the frame index.
+     */
+    private synchronized void reset(int frame) {
+        if (frame < allocators.length && allocators[frame] != null)
+            allocators[frame].reset();
+    }
+
+    /**
+     * Destroys the allocators of the old swapchain images.
+     *
+     * @param images the new image count.
+     */
+    private synchronized void resize(int images) {
+        destroyAllocators();
+        allocators = new DescriptorAllocator[Math.max(1, images)];
+    }
+
+    private void destroyAllocators() {
+        for (DescriptorAllocator allocator : allocators) {
+            if (allocator != null)
+                allocator.destroy();
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        frames.removeImageCountListener(resize);
+        frames.removeFrameEndListener(frameEnd);
+
+        destroyAllocators();
+        allocators = new DescriptorAllocator[1];
+    }
+}
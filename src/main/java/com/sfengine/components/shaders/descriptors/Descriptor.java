@@ -36,6 +36,10 @@ public class Descriptor implements Destroyable {
         return indexMap.get(name);
     }
 
+    public int getValueCount() {
+        return valuesCount;
+    }
+
     public DescriptorValue getValue(int index) {
         return values[index];
     }
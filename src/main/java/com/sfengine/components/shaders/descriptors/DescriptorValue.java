@@ -1,7 +1,9 @@
 package com.sfengine.components.shaders.descriptors;
 
+import com.sfengine.components.shaders.descriptor_sets.DescriptorWriter;
 import com.sfengine.core.resources.Destroyable;
 import com.sfengine.core.result.VulkanException;
+import org.lwjgl.vulkan.VkWriteDescriptorSet;
 
 public interface DescriptorValue extends Destroyable {
 
@@ -21,4 +23,27 @@ public interface DescriptorValue extends Destroyable {
      * @throws VulkanException
      */
     public void update() throws VulkanException;
+
+    /**
+     * Updates the value data without writing the descriptor set, the write is returned to the
+     * caller(a DescriptorWriter) that batches the writes of many values.
+     *
+     * @return the descriptor write or null if the descriptor set does not have to be written.
+     * @throws VulkanException
+     */
+    public default VkWriteDescriptorSet prepareWrite() throws VulkanException {
+        update();
+        return null;
+    }
+
+    /**
+     * Sets the writer that has to be notified(DescriptorWriter.markDirty) when the value changes.
+     *
+     * @param writer the writer or null.
+     * @param index the index of the value within the writer.
+     * @return false if the value does not notify the writer(it has to be polled with isUpToDate).
+     */
+    public default boolean setWriter(DescriptorWriter writer, int index) {
+        return false;
+    }
 }
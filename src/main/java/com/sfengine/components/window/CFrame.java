@@ -1,5 +1,6 @@
 package com.sfengine.components.window;
 
+import com.sfengine.components.engines.ParkingIdleWait;
 import com.sfengine.components.window.input.CFrameInput;
 import com.sfengine.core.Application;
 import com.sfengine.core.engine.Engine;
@@ -12,6 +13,7 @@ import com.sfengine.core.result.VulkanException;
 import com.sfengine.core.synchronization.DependencyFence;
 import com.sfengine.core.synchronization.Dependable;
 import com.sfengine.core.synchronization.Dependency;
+import com.sfengine.core.synchronization.TaskFuture;
 import org.lwjgl.vulkan.VK10;
 
 import java.io.IOException;
@@ -28,6 +30,13 @@ public class CFrame implements Dependable {
 
     private static final Logger logger = Logger.getLogger(CFrame.class.getName());
 
+    /**
+     * Tells whether the first thread should wait for the window events(glfwWaitEventsTimeout)
+     * instead of parking when the engine is idle.
+     */
+    public static final boolean WINDOW_IDLE_WAIT =
+            Boolean.valueOf(System.getProperty("engine_window_idle_wait", "false"));
+
     private final Engine engine = EngineFactory.getEngine();
 
     public static final String WINDOW_CFG_FILE = "window.cfg";
@@ -52,6 +61,10 @@ public class CFrame implements Dependable {
 
         @Override
         public void destroy() {
+            // GLFW must not be waited on once the window is destroyed.
+            if (WINDOW_IDLE_WAIT)
+                engine.setIdleWait(new ParkingIdleWait());
+
             if (call != null)
                 call.destroy();
         }
@@ -67,25 +80,22 @@ public class CFrame implements Dependable {
 
     private void createWindow(String name) {
 
-        DependencyFence created = new DependencyFence();
         DependencyFence loaded = new DependencyFence();
 
-        engine.addTask(
+        TaskFuture created = engine.submitTask(
                 () -> {
                     try {
                         window = new Window(HardwareManager.getInstance());
                         handle = window.getWindowID();
 
                         logger.log(Level.INFO, "Window created.");
-
-                        created.release();
                     } catch (VulkanException e) {
-                        logger.log(Level.FINE, "Failed to create window.", e);
-                        e.printStackTrace();
+                        throw new AssertionError("Failed to create window.", e);
                     }
                 }, HardwareManager.getDependency());
 
-        engine.addFast(
+        // Submitted with a handle so that it is skipped if the window creation failed.
+        engine.submitFast(
                 () -> {
                     // Setting the window data to the values from the file.
                     try {
@@ -114,6 +124,9 @@ public class CFrame implements Dependable {
                     // Adding window tick task to the engine
                     engine.addTickTask(tickTask);
 
+                    if (WINDOW_IDLE_WAIT)
+                        engine.setIdleWait(new WindowIdleWait());
+
                     // Releasing the work done semaphore
                     windowCreated.release();
 
@@ -0,0 +1,31 @@
+package com.sfengine.components.window;
+
+import static org.lwjgl.glfw.GLFW.glfwPostEmptyEvent;
+import static org.lwjgl.glfw.GLFW.glfwWaitEventsTimeout;
+
+import com.sfengine.components.engines.IdleWait;
+import com.sfengine.core.engine.EngineTask;
+
+/**
+ * Idle wait that sleeps inside GLFW until a window event arrives. It is suitable for the engines
+ * whose only per tick tasks are the window tasks, as the waiting thread wakes up as soon as the
+ * user interacts with the window. The executor uses it only while every per tick task is a window
+ * task. The GLFW library must be initialized before it is used.
+ */
+public class WindowIdleWait implements IdleWait {
+
+    @Override
+    public void await(long timeoutNanos) {
+        glfwWaitEventsTimeout(timeoutNanos / 1_000_000_000.0);
+    }
+
+    @Override
+    public void wake() {
+        glfwPostEmptyEvent();
+    }
+
+    @Override
+    public boolean supports(EngineTask tickTask) {
+        return tickTask instanceof WindowTickTask;
+    }
+}
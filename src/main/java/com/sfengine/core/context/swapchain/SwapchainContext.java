@@ -17,6 +17,20 @@ public interface SwapchainContext extends Context, Destroyable {
 
     long[] getFrameBuffers();
 
+    /**
+     * Returns the number of the images actually created by the swapchain.
+     *
+     * @return the realized image count.
+     */
+    int getImageCount();
+
+    /**
+     * Returns the present mode the swapchain was created with.
+     *
+     * @return the realized present mode.
+     */
+    int getPresentMode();
+
     @Override
     default String getFactoryIdentifier() {
         return SwapchainContextFactory.CONTEXT_IDENTIFIER;
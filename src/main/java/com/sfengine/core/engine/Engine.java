@@ -1,7 +1,10 @@
 package com.sfengine.core.engine;
 
+import com.sfengine.components.engines.IdleWait;
 import com.sfengine.core.resources.Destroyable;
 import com.sfengine.core.synchronization.Dependency;
+import com.sfengine.core.synchronization.TaskFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Synchronization engine interface.
@@ -25,6 +28,77 @@ public interface Engine extends Runnable, Destroyable {
 
     void addSlow(Runnable run, Dependency... dependencies);
 
+    /**
+     * Adds a task to the task queue(see {@link #addTask(Runnable, Dependency...)}) and returns a
+     * handle that is released when the task finishes. If any of the dependencies is a failed
+     * {@link TaskFuture} the task is not performed and the failure is propagated. If the executor
+     * rejects the task(eg. its queue is full) the handle fails with the RejectedExecutionException.
+     *
+     * @param run Task to be added.
+     * @param dependencies Dependencies of the task.
+     * @return The handle of the task.
+     */
+    default TaskFuture submitTask(Runnable run, Dependency... dependencies) {
+        TaskFuture future = new TaskFuture();
+        try {
+            addTask(future.wrap(run, dependencies), dependencies);
+        } catch (RejectedExecutionException e) {
+            future.fail(e);
+        }
+        return future;
+    }
+
+    /**
+     * Same as {@link #submitTask(Runnable, Dependency...)} but for the configuration tasks.
+     *
+     * @param run Task to be added.
+     * @param dependencies Dependencies of the task.
+     * @return The handle of the task.
+     */
+    default TaskFuture submitConfig(Runnable run, Dependency... dependencies) {
+        TaskFuture future = new TaskFuture();
+        try {
+            addConfig(future.wrap(run, dependencies), dependencies);
+        } catch (RejectedExecutionException e) {
+            future.fail(e);
+        }
+        return future;
+    }
+
+    /**
+     * Same as {@link #submitTask(Runnable, Dependency...)} but for the fast tasks.
+     *
+     * @param run Task to be added.
+     * @param dependencies Dependencies of the task.
+     * @return The handle of the task.
+     */
+    default TaskFuture submitFast(Runnable run, Dependency... dependencies) {
+        TaskFuture future = new TaskFuture();
+        try {
+            addFast(future.wrap(run, dependencies), dependencies);
+        } catch (RejectedExecutionException e) {
+            future.fail(e);
+        }
+        return future;
+    }
+
+    /**
+     * Same as {@link #submitTask(Runnable, Dependency...)} but for the slow tasks.
+     *
+     * @param run Task to be added.
+     * @param dependencies Dependencies of the task.
+     * @return The handle of the task.
+     */
+    default TaskFuture submitSlow(Runnable run, Dependency... dependencies) {
+        TaskFuture future = new TaskFuture();
+        try {
+            addSlow(future.wrap(run, dependencies), dependencies);
+        } catch (RejectedExecutionException e) {
+            future.fail(e);
+        }
+        return future;
+    }
+
     /**
      * Adds a task to the per tick task list. The added task will execute once per tick.
      *
@@ -39,6 +113,14 @@ public interface Engine extends Runnable, Destroyable {
      */
     void removeTickTask(EngineTask tickTask);
 
+    /**
+     * Sets the strategy used by the first thread to wait when there is no work(eg. a window idle
+     * wait). The engines that never wait ignore it.
+     *
+     * @param idleWait the idle wait strategy or null to keep the thread busy spinning.
+     */
+    default void setIdleWait(IdleWait idleWait) {}
+
     /**
      * Tells whether the engine is currently running.
      *
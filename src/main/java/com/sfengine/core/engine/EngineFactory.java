@@ -1,20 +1,28 @@
 package com.sfengine.core.engine;
 
 import com.sfengine.components.engines.DefaultEngine;
+import com.sfengine.components.engines.WorkStealingEngine;
 import com.sfengine.core.engine.Engine;
+import java.util.function.Supplier;
 
 public class EngineFactory {
 
     public enum BuiltInEngines {
-        DEFAULT(new DefaultEngine());
+        DEFAULT(DefaultEngine::new),
+        WORK_STEALING(WorkStealingEngine::new);
 
+        private final Supplier<Engine> factory;
+        /** The engine, created when it is selected for the first time. */
         private Engine engine;
 
-        private BuiltInEngines(Engine engine) {
-            this.engine = engine;
+        private BuiltInEngines(Supplier<Engine> factory) {
+            this.factory = factory;
         }
 
-        private Engine getEngine() {
+        private synchronized Engine getEngine() {
+            if (engine == null) {
+                engine = factory.get();
+            }
             return engine;
         }
     }
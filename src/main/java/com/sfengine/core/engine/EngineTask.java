@@ -11,4 +11,26 @@ public interface EngineTask extends Runnable {
     /** Performs the task. */
     @Override
     public void run() throws AssertionError;
+
+    /**
+     * The priority of a per tick task. Tasks with a higher priority are performed earlier within
+     * a tick, and tasks with equal priorities are performed in the order they were added. The
+     * value is read when the task is added to the engine.
+     *
+     * @return the priority of the task.
+     */
+    default int priority() {
+        return 0;
+    }
+
+    /**
+     * Tells whether the per tick task polls for work that may complete at any moment(eg. a fence
+     * or an image acquire). The main thread executor backs off(waits between the ticks) only when
+     * none of its per tick tasks is busy, so that their polls are not delayed.
+     *
+     * @return true if the task has pending work.
+     */
+    default boolean isBusy() {
+        return false;
+    }
 }
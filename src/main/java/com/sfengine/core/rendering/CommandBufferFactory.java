@@ -6,36 +6,162 @@ import static org.lwjgl.vulkan.VK10.*;
 
 import com.sfengine.core.context.ContextDictionary;
 import com.sfengine.core.context.ContextUtil;
+import com.sfengine.core.rendering.recording.ParallelRecordable;
 import com.sfengine.core.rendering.recording.Recordable;
+import com.sfengine.core.resources.Destroyable;
 import com.sfengine.core.result.VulkanException;
 import com.sfengine.core.result.VulkanResult;
 import com.sfengine.components.rendering.RenderPass;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryStack;
 import org.lwjgl.vulkan.VkCommandBuffer;
 import org.lwjgl.vulkan.VkCommandBufferAllocateInfo;
 import org.lwjgl.vulkan.VkCommandBufferBeginInfo;
+import org.lwjgl.vulkan.VkCommandBufferInheritanceInfo;
 import org.lwjgl.vulkan.VkDevice;
 
 /**
  * Class for command buffer creation.
  *
+ * <p>Every createCmdBuffers() call records into its own set of command pools(one per recording
+ * thread). The released pool sets are kept in a ring and reset(with vkResetCommandPool) when they
+ * are reused, so recreating the command buffers does not create any new pools nor command buffers
+ * in the steady state.
+ *
  * @author Cezary Chodun
  * @since 19.10.2019
  */
-public class CommandBufferFactory {
+public class CommandBufferFactory implements Destroyable {
+
+    /** The minimal number of render objects recorded by a single worker. */
+    private static final int MIN_OBJECTS_PER_WORKER = 64;
+    /** The maximal number of released pool sets kept for reuse. */
+    private static final int MAX_FREE_POOL_SETS = 3;
+
+    /**
+     * The command pools used by a single createCmdBuffers() call, one for every recording thread
+     * (the first one records the primary command buffers). The command buffers allocated from the
+     * pools are kept, so they can be recorded again after the pools were reset.
+     */
+    private class PoolSet {
+
+        private final List<Long> pools = new ArrayList<>();
+        private final List<List<VkCommandBuffer>> buffers = new ArrayList<>();
+
+        /**
+         * Returns the pool of the thread, creating it if needed. Must not be invoked concurrently
+         * with the same index.
+         *
+         * @param device The device.
+         * @param index The thread index.
+         * @return The command pool.
+         */
+        private long pool(VkDevice device, int index) {
+            synchronized (this) {
+                while (pools.size() <= index) {
+                    pools.add(VK_NULL_HANDLE);
+                    buffers.add(new ArrayList<>());
+                }
+
+                if (pools.get(index) != VK_NULL_HANDLE)
+                    return pools.get(index);
+            }
+
+            long pool = createPool(device);
+            synchronized (this) {
+                pools.set(index, pool);
+            }
+            return pool;
+        }
+
+        /**
+         * Returns the command buffers of the thread's pool, allocating the missing ones.
+         *
+         * @param device The device.
+         * @param index The thread index.
+         * @param level The command buffer level.
+         * @param count The number of command buffers.
+         * @return The command buffers.
+         */
+        private VkCommandBuffer[] take(VkDevice device, int index, int level, int count) {
+            long pool = pool(device, index);
+
+            List<VkCommandBuffer> list;
+            synchronized (this) {
+                list = buffers.get(index);
+            }
+
+            if (list.size() < count) {
+                VkCommandBuffer[] allocated = allocate(device, pool, level, count - list.size());
+                for (VkCommandBuffer cmd : allocated)
+                    list.add(cmd);
+            }
+
+            return list.subList(0, count).toArray(new VkCommandBuffer[0]);
+        }
+
+        /**
+         * Resets the pools, the command buffers return to the initial state.
+         *
+         * @param device The device.
+         */
+        private synchronized void reset(VkDevice device) {
+            for (long pool : pools) {
+                if (pool != VK_NULL_HANDLE) {
+                    int err = vkResetCommandPool(device, pool, 0);
+                    VulkanResult.assertValidate(err, "Failed to reset command pool!");
+                }
+            }
+        }
 
+        /**
+         * Destroys the pools together with their command buffers.
+         *
+         * @param device The device.
+         */
+        private synchronized void destroy(VkDevice device) {
+            for (long pool : pools) {
+                if (pool != VK_NULL_HANDLE)
+                    vkDestroyCommandPool(device, pool, null);
+            }
 
+            pools.clear();
+            buffers.clear();
+        }
+    }
 
-    /** A map of command buffers pools. */
-    private HashMap<VkCommandBuffer, Long> cmdPools = new HashMap<VkCommandBuffer, Long>();
+    /** A map of command buffers pools(the pools used by a createCmdBuffers() call). */
+    private HashMap<VkCommandBuffer, PoolSet> cmdPools = new HashMap<VkCommandBuffer, PoolSet>();
+    /** The released pool sets(ready to be reset and reused). */
+    private final ArrayDeque<PoolSet> freePools = new ArrayDeque<>();
 
     /** */
     private int queueFamilyIndex, flags;
     private Recordable rec;
 
+    /** The parallel work(or null if the work is recorded serially). */
+    private ParallelRecordable parallelRec;
+    /** The maximal number of the recording threads. */
+    private int workers = 1;
+    /**
+     * The recording threads(besides the calling one). The recording tasks never wait for each
+     * other, so they cannot deadlock the pool(unlike the engine's pools that run the
+     * createCmdBuffers() calls themselves).
+     */
+    private ThreadPoolExecutor recorders;
+
     private ContextDictionary dict;
 
     /**
@@ -51,6 +177,62 @@ public class CommandBufferFactory {
         this.rec = rec;
     }
 
+    /**
+     * Creates a new Command Buffer factory which records the render objects in parallel. The
+     * objects are split between the workers, every worker records its objects into secondary
+     * command buffers(allocated from the worker's own command pool) and the primary command
+     * buffers execute them.
+     *
+     * @param queueFamilyIndex Index of the render queue family.
+     * @param flags Command buffer flags(for command pool creation).
+     * @param workers The maximal number of recording threads.
+     */
+    public CommandBufferFactory(ContextDictionary dict, ParallelRecordable rec, int queueFamilyIndex, int flags, int workers) {
+        if (workers < 1)
+            throw new AssertionError("There must be at least one recording worker.");
+
+        this.queueFamilyIndex = queueFamilyIndex;
+        this.flags = flags;
+        this.dict = dict;
+        this.parallelRec = rec;
+        this.workers = workers;
+
+        if (workers > 1) {
+            recorders =
+                    new ThreadPoolExecutor(
+                            workers - 1,
+                            workers - 1,
+                            0,
+                            TimeUnit.MILLISECONDS,
+                            new ArrayBlockingQueue<Runnable>(workers),
+                            task -> {
+                                Thread thread = new Thread(task, "command-buffer-recorder");
+                                thread.setDaemon(true);
+                                return thread;
+                            });
+        }
+    }
+
+    /**
+     * Returns a pool set for the next createCmdBuffers() call. A released set is reset and reused
+     * if there is any.
+     *
+     * @param device The device.
+     * @return The pool set.
+     */
+    private PoolSet nextPoolSet(VkDevice device) {
+        PoolSet set;
+        synchronized (freePools) {
+            set = freePools.poll();
+        }
+
+        if (set == null)
+            return new PoolSet();
+
+        set.reset(device);
+        return set;
+    }
+
     /**
      * Creates command buffers(one for each frame buffer).
      *
@@ -59,46 +241,33 @@ public class CommandBufferFactory {
      */
     public VkCommandBuffer[] createCmdBuffers(long... frameBuffers) {
         final VkDevice device = ContextUtil.getDevice(dict).getDevice();
+        final PoolSet poolSet = nextPoolSet(device);
 
-        long commandPool;
-        try {
-            commandPool = createCommandPool(device, queueFamilyIndex, flags);
-        } catch (VulkanException e) {
-            e.printStackTrace();
-            throw new AssertionError(e.getMessage());
+        VkCommandBuffer[] commandBuffers;
+        if (parallelRec != null)
+            commandBuffers = createParallelCmdBuffers(device, poolSet, frameBuffers);
+        else
+            commandBuffers = createSerialCmdBuffers(device, poolSet, frameBuffers);
+
+        synchronized (cmdPools) {
+            cmdPools.put(commandBuffers[0], poolSet);
         }
 
-        VkCommandBuffer[] commandBuffers;
+        return commandBuffers;
+    }
 
-        VkCommandBufferAllocateInfo cbai =
-                VkCommandBufferAllocateInfo.calloc()
-                        .sType(VK_STRUCTURE_TYPE_COMMAND_BUFFER_ALLOCATE_INFO)
-                        .pNext(NULL)
-                        .commandPool(commandPool)
-                        .level(VK_COMMAND_BUFFER_LEVEL_PRIMARY)
-                        .commandBufferCount(frameBuffers.length);
+    private VkCommandBuffer[] createSerialCmdBuffers(VkDevice device, PoolSet poolSet, long... frameBuffers) {
+        VkCommandBuffer[] commandBuffers =
+                poolSet.take(device, 0, VK_COMMAND_BUFFER_LEVEL_PRIMARY, frameBuffers.length);
 
         VkCommandBufferBeginInfo cbbi =
                 VkCommandBufferBeginInfo.calloc()
                         .sType(VK_STRUCTURE_TYPE_COMMAND_BUFFER_BEGIN_INFO)
                         .pNext(NULL);
 
-        PointerBuffer pCommandBuffer = memAllocPointer(frameBuffers.length);
-        int err = vkAllocateCommandBuffers(device, cbai, pCommandBuffer);
-        try {
-            VulkanResult.validate(err, "Failed to allocate command buffers!");
-        } catch (VulkanException e) {
-            e.printStackTrace();
-            throw new AssertionError(e.getMessage());
-        }
-        cbai.free();
-
-        commandBuffers = new VkCommandBuffer[frameBuffers.length];
-
+        int err;
         for (int i = 0; i < frameBuffers.length; i++) {
 
-            commandBuffers[i] = new VkCommandBuffer(pCommandBuffer.get(i), device);
-
             err = vkBeginCommandBuffer(commandBuffers[i], cbbi);
             try {
                 VulkanResult.validate(err, "Failed to begin command buffer!");
@@ -118,14 +287,228 @@ public class CommandBufferFactory {
             }
         }
 
-        cmdPools.put(commandBuffers[0], commandPool);
-
         cbbi.free();
-        pCommandBuffer.free();
 
         return commandBuffers;
     }
 
+    /**
+     * Creates a command pool, rethrowing the failure as an assertion error.
+     *
+     * @param device The device.
+     * @return The command pool.
+     */
+    private long createPool(VkDevice device) {
+        try {
+            return createCommandPool(device, queueFamilyIndex, flags);
+        } catch (VulkanException e) {
+            e.printStackTrace();
+            throw new AssertionError(e.getMessage());
+        }
+    }
+
+    /**
+     * Allocates command buffers from the pool.
+     *
+     * @param device The device.
+     * @param commandPool The command pool.
+     * @param level The command buffer level.
+     * @param count The number of command buffers.
+     * @return The command buffers.
+     */
+    private static VkCommandBuffer[] allocate(VkDevice device, long commandPool, int level, int count) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            VkCommandBufferAllocateInfo cbai =
+                    VkCommandBufferAllocateInfo.callocStack(stack)
+                            .sType(VK_STRUCTURE_TYPE_COMMAND_BUFFER_ALLOCATE_INFO)
+                            .pNext(NULL)
+                            .commandPool(commandPool)
+                            .level(level)
+                            .commandBufferCount(count);
+
+            PointerBuffer pCommandBuffer = stack.mallocPointer(count);
+            int err = vkAllocateCommandBuffers(device, cbai, pCommandBuffer);
+            VulkanResult.assertValidate(err, "Failed to allocate command buffers!");
+
+            VkCommandBuffer[] out = new VkCommandBuffer[count];
+            for (int i = 0; i < count; i++)
+                out[i] = new VkCommandBuffer(pCommandBuffer.get(i), device);
+
+            return out;
+        }
+    }
+
+    /**
+     * Records a part of the render objects into secondary command buffers(one for each frame
+     * buffer). The pipeline is bound whenever it changes between the adjacent objects.
+     *
+     * @param buffers The secondary command buffers.
+     * @param frameBuffers The frame buffers.
+     * @param objects The objects to record.
+     */
+    private void recordSecondary(VkCommandBuffer[] buffers, long[] frameBuffers, List<RenderObject> objects) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            VkCommandBufferInheritanceInfo inheritance =
+                    VkCommandBufferInheritanceInfo.callocStack(stack)
+                            .sType(VK_STRUCTURE_TYPE_COMMAND_BUFFER_INHERITANCE_INFO)
+                            .pNext(NULL)
+                            .renderPass(parallelRec.renderPass())
+                            .subpass(parallelRec.subpass());
+
+            VkCommandBufferBeginInfo cbbi =
+                    VkCommandBufferBeginInfo.callocStack(stack)
+                            .sType(VK_STRUCTURE_TYPE_COMMAND_BUFFER_BEGIN_INFO)
+                            .pNext(NULL)
+                            .flags(VK_COMMAND_BUFFER_USAGE_RENDER_PASS_CONTINUE_BIT)
+                            .pInheritanceInfo(inheritance);
+
+            for (int i = 0; i < buffers.length; i++) {
+                inheritance.framebuffer(frameBuffers[i]);
+
+                int err = vkBeginCommandBuffer(buffers[i], cbbi);
+                VulkanResult.assertValidate(err, "Failed to begin command buffer!");
+
+                long pipeline = VK_NULL_HANDLE;
+                for (RenderObject obj : objects) {
+                    if (obj.getPipeline() != pipeline) {
+                        pipeline = obj.getPipeline();
+                        vkCmdBindPipeline(buffers[i], VK_PIPELINE_BIND_POINT_GRAPHICS, pipeline);
+                    }
+
+                    obj.record(buffers[i], frameBuffers[i]);
+                }
+
+                err = vkEndCommandBuffer(buffers[i]);
+                VulkanResult.assertValidate(err, "Failed to end command buffer!");
+            }
+        }
+    }
+
+    /**
+     * Creates command buffers(one for each frame buffer) recording the render objects in
+     * parallel. The first part of the objects is recorded on the calling thread and the rest on
+     * the factory's recording threads(or on the calling thread if they reject the part).
+     *
+     * @param device The device.
+     * @param poolSet The command pools.
+     * @param frameBuffers The frame buffers.
+     * @return The primary command buffers.
+     */
+    private VkCommandBuffer[] createParallelCmdBuffers(VkDevice device, PoolSet poolSet, long... frameBuffers) {
+        List<RenderObject> objects = parallelRec.objects();
+        int count = Math.min(workers, objects.size() / MIN_OBJECTS_PER_WORKER);
+        if (count == 0 && !objects.isEmpty())
+            count = 1;
+
+        // Every worker uses its own command pool, as the pools cannot be used concurrently.
+        for (int i = 0; i <= count; i++)
+            poolSet.pool(device, i);
+
+        VkCommandBuffer[][] secondary = new VkCommandBuffer[count][];
+        List<Future<?>> futures = new ArrayList<>(count);
+
+        for (int w = count - 1; w >= 0; w--) {
+            final int worker = w;
+            final List<RenderObject> part = objects.subList(
+                    (int) ((long) objects.size() * w / count),
+                    (int) ((long) objects.size() * (w + 1) / count));
+
+            Runnable task = () -> {
+                secondary[worker] = poolSet.take(device, worker + 1,
+                        VK_COMMAND_BUFFER_LEVEL_SECONDARY, frameBuffers.length);
+                recordSecondary(secondary[worker], frameBuffers, part);
+            };
+
+            if (w == 0 || recorders == null) {
+                task.run();
+                continue;
+            }
+
+            try {
+                futures.add(recorders.submit(task));
+            } catch (RejectedExecutionException e) {
+                // The factory is being destroyed, records the part on the calling thread.
+                task.run();
+            }
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError("Interrupted while recording command buffers.", e);
+            } catch (ExecutionException e) {
+                throw new AssertionError("Failed to record secondary command buffers.",
+                        e.getCause());
+            }
+        }
+
+        VkCommandBuffer[] commandBuffers =
+                poolSet.take(device, 0, VK_COMMAND_BUFFER_LEVEL_PRIMARY, frameBuffers.length);
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            VkCommandBufferBeginInfo cbbi =
+                    VkCommandBufferBeginInfo.callocStack(stack)
+                            .sType(VK_STRUCTURE_TYPE_COMMAND_BUFFER_BEGIN_INFO)
+                            .pNext(NULL);
+            PointerBuffer pSecondary = stack.mallocPointer(Math.max(count, 1));
+
+            for (int i = 0; i < frameBuffers.length; i++) {
+                int err = vkBeginCommandBuffer(commandBuffers[i], cbbi);
+                VulkanResult.assertValidate(err, "Failed to begin command buffer!");
+
+                parallelRec.begin(commandBuffers[i], frameBuffers[i]);
+
+                if (count > 0) {
+                    pSecondary.clear();
+                    for (int w = 0; w < count; w++)
+                        pSecondary.put(w, secondary[w][i]);
+                    pSecondary.limit(count);
+
+                    vkCmdExecuteCommands(commandBuffers[i], pSecondary);
+                }
+
+                parallelRec.end(commandBuffers[i], frameBuffers[i]);
+
+                err = vkEndCommandBuffer(commandBuffers[i]);
+                VulkanResult.assertValidate(err, "Failed to end command buffer!");
+            }
+        }
+
+        return commandBuffers;
+    }
+
+    /**
+     * Releases the command buffers allocated from this factory. Their command pools are reset
+     * and reused by one of the next createCmdBuffers() calls. It is required that the command
+     * buffer list contains the same command buffer set. As returned in the createCmdBuffers().
+     *
+     * <p>Cannot be invoked if any of the command buffers is in the pending state(eg. it must be
+     * invoked after the fences of the frames using them were signalled)!
+     *
+     * @param buffers The list of buffers returned by createCmdBuffers().
+     */
+    public void releaseCmdBuffers(VkCommandBuffer[] buffers) {
+        PoolSet set;
+        synchronized (cmdPools) {
+            set = cmdPools.remove(buffers[0]);
+        }
+
+        if (set == null)
+            return;
+
+        synchronized (freePools) {
+            if (freePools.size() < MAX_FREE_POOL_SETS) {
+                freePools.add(set);
+                return;
+            }
+        }
+
+        // Keeps the memory bounded.
+        set.destroy(ContextUtil.getDevice(dict).getDevice());
+    }
+
     /**
      * Destroys the command buffers allocated from this factory. It is required that the command
      * buffer list contains the same command buffer set. As returned in the createCmdBuffers().
@@ -137,11 +520,30 @@ public class CommandBufferFactory {
     public void destroyCmdBuffers(VkCommandBuffer[] buffers) {
         final VkDevice device = ContextUtil.getDevice(dict).getDevice();
 
-        for (VkCommandBuffer cmd : buffers) {
-            if (cmdPools.containsKey(cmd)) {
-                Long pool = cmdPools.get(cmd);
-                vkDestroyCommandPool(device, pool, null);
-            }
+        PoolSet set;
+        synchronized (cmdPools) {
+            set = cmdPools.remove(buffers[0]);
+        }
+
+        if (set != null)
+            set.destroy(device);
+    }
+
+    /**
+     * Destroys the released command pools. The command buffers that were not released are not
+     * affected.
+     */
+    @Override
+    public void destroy() {
+        final VkDevice device = ContextUtil.getDevice(dict).getDevice();
+
+        if (recorders != null)
+            recorders.shutdown();
+
+        synchronized (freePools) {
+            for (PoolSet set : freePools)
+                set.destroy(device);
+            freePools.clear();
         }
     }
 }
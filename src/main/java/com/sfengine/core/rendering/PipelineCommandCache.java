@@ -0,0 +1,363 @@
+package com.sfengine.core.rendering;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.vulkan.VK10.*;
+
+import com.sfengine.components.rendering.RenderPass;
+import com.sfengine.core.context.ContextDictionary;
+import com.sfengine.core.context.ContextUtil;
+import com.sfengine.core.resources.Destroyable;
+import com.sfengine.core.result.VulkanException;
+import com.sfengine.core.result.VulkanResult;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.vulkan.VkCommandBuffer;
+import org.lwjgl.vulkan.VkCommandBufferAllocateInfo;
+import org.lwjgl.vulkan.VkCommandBufferBeginInfo;
+import org.lwjgl.vulkan.VkCommandBufferInheritanceInfo;
+import org.lwjgl.vulkan.VkDevice;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of the command buffers recorded for the pipeline containers. Every container is recorded
+ * into its own secondary command buffer(one per frame buffer), which is recorded again only when
+ * the container's version changes. The primary command buffers only begin the render pass and
+ * execute the secondary command buffers, so adding or removing an object costs a single pipeline
+ * re-recording instead of recording the whole scene.
+ *
+ * <p>The command buffers of a frame buffer are updated right before the frame is submitted, when
+ * none of them is pending. Every frame buffer records into its own command pool, and the pools of
+ * the released frames are reset and reused when the command buffers are recreated.
+ */
+public class PipelineCommandCache implements Destroyable {
+
+    /** A secondary command buffer of a single container. */
+    private static class Secondary {
+
+        private final VkCommandBuffer cmd;
+        /** The container version recorded in the command buffer. */
+        private long version = -1;
+
+        private Secondary(VkCommandBuffer cmd) {
+            this.cmd = cmd;
+        }
+    }
+
+    /**
+     * The command buffers of a single frame buffer. They are allocated from the frame's own command
+     * pool, which is reset(and the command buffers are reused) when the frame commands are reused
+     * for a new frame buffer.
+     */
+    public static class FrameCommands {
+
+        private final long commandPool;
+        private final VkCommandBuffer primary;
+        private long frameBuffer;
+        private final Map<PipelineContainer, Secondary> secondaries = new IdentityHashMap<>();
+        /** The containers executed by the primary command buffer(in the execution order). */
+        private final List<PipelineContainer> executed = new ArrayList<>();
+        /** Secondary command buffers of the removed containers(ready to be recorded again). */
+        private final ArrayDeque<VkCommandBuffer> spare = new ArrayDeque<>();
+        private boolean recorded = false;
+
+        private FrameCommands(long commandPool, VkCommandBuffer primary) {
+            this.commandPool = commandPool;
+            this.primary = primary;
+        }
+
+        /**
+         * Returns the primary command buffer.
+         *
+         * @return the primary command buffer.
+         */
+        public VkCommandBuffer getPrimary() {
+            return primary;
+        }
+
+        /**
+         * Returns the frame buffer the commands are recorded for.
+         *
+         * @return the frame buffer.
+         */
+        public long getFrameBuffer() {
+            return frameBuffer;
+        }
+    }
+
+    /** The maximal number of released frame commands kept for reuse. */
+    private static final int MAX_FREE_FRAMES = 8;
+
+    private final ContextDictionary dict;
+    private final RenderPass renderPass;
+    private final Map<Long, PipelineContainer> pipelines;
+    private final int queueFamilyIndex;
+
+    /** Every frame commands created by the cache(and not destroyed yet). */
+    private final List<FrameCommands> frames = new ArrayList<>();
+    /** The released frame commands(ready to be reset and reused). */
+    private final ArrayDeque<FrameCommands> free = new ArrayDeque<>();
+
+    private long recordedSecondary = 0, recordedPrimary = 0;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param dict the context dictionary.
+     * @param renderPass the render pass(with the secondary command buffer contents).
+     * @param pipelines the pipeline containers(guarded by their own monitor).
+     * @param queueFamilyIndex index of the render queue family.
+     */
+    public PipelineCommandCache(
+            ContextDictionary dict,
+            RenderPass renderPass,
+            Map<Long, PipelineContainer> pipelines,
+            int queueFamilyIndex) {
+        this.dict = dict;
+        this.renderPass = renderPass;
+        this.pipelines = pipelines;
+        this.queueFamilyIndex = queueFamilyIndex;
+    }
+
+    /**
+     * Creates the (not yet recorded) command buffers for the frame buffers. The released frame
+     * commands are reused(their command pools are reset) before any new ones are created.
+     *
+     * @param frameBuffers the frame buffers.
+     * @return the frame commands(one for each frame buffer).
+     */
+    public synchronized FrameCommands[] recreate(long... frameBuffers) {
+        VkDevice device = ContextUtil.getDevice(dict).getDevice();
+        FrameCommands[] out = new FrameCommands[frameBuffers.length];
+
+        for (int i = 0; i < frameBuffers.length; i++) {
+            FrameCommands frame = free.poll();
+
+            if (frame != null) {
+                int err = vkResetCommandPool(device, frame.commandPool, 0);
+                VulkanResult.assertValidate(err, "Failed to reset command pool!");
+
+                for (Secondary sec : frame.secondaries.values())
+                    frame.spare.add(sec.cmd);
+                frame.secondaries.clear();
+                frame.executed.clear();
+                frame.recorded = false;
+            } else {
+                long commandPool;
+                try {
+                    commandPool = RenderUtil.createCommandPool(device, queueFamilyIndex,
+                            VK_COMMAND_POOL_CREATE_RESET_COMMAND_BUFFER_BIT);
+                } catch (VulkanException e) {
+                    e.printStackTrace();
+                    throw new AssertionError(e.getMessage());
+                }
+
+                frame = new FrameCommands(commandPool,
+                        allocate(device, commandPool, VK_COMMAND_BUFFER_LEVEL_PRIMARY, 1)[0]);
+                frames.add(frame);
+            }
+
+            frame.frameBuffer = frameBuffers[i];
+            out[i] = frame;
+        }
+
+        return out;
+    }
+
+    /**
+     * Records again the command buffers of the frame that are out of date. Must be invoked when
+     * none of the frame's command buffers is pending.
+     *
+     * @param frame the frame commands.
+     */
+    public synchronized void update(FrameCommands frame) {
+        List<PipelineContainer> containers;
+        synchronized (pipelines) {
+            containers = new ArrayList<>(pipelines.values());
+        }
+
+        boolean primaryDirty = !frame.recorded;
+        List<PipelineContainer> executed = new ArrayList<>(containers.size());
+
+        for (PipelineContainer container : containers) {
+            if (container.isEmpty())
+                continue;
+
+            Secondary sec = frame.secondaries.get(container);
+            if (sec == null) {
+                sec = new Secondary(frame.spare.isEmpty() ? allocateSecondary(frame) : frame.spare.poll());
+                frame.secondaries.put(container, sec);
+            }
+
+            // The version is read before the recording, so any concurrent change is recorded
+            // during the next update.
+            long version = container.getVersion();
+            if (sec.version != version) {
+                recordSecondary(sec.cmd, frame.frameBuffer, container);
+                sec.version = version;
+                // The primary command buffer is invalidated by the secondary re-recording.
+                primaryDirty = true;
+            }
+
+            executed.add(container);
+        }
+
+        if (!executed.equals(frame.executed))
+            primaryDirty = true;
+
+        // Recycles the secondary command buffers of the removed containers.
+        if (frame.secondaries.size() > executed.size()) {
+            frame.secondaries.entrySet().removeIf(e -> {
+                if (executed.contains(e.getKey()))
+                    return false;
+                frame.spare.add(e.getValue().cmd);
+                return true;
+            });
+        }
+
+        if (primaryDirty) {
+            frame.executed.clear();
+            frame.executed.addAll(executed);
+            recordPrimary(frame);
+        }
+    }
+
+    /**
+     * Releases the frame commands, they will be reused by one of the next recreate() calls. Must
+     * be invoked once none of the frame's command buffers is pending(eg. after the frame's fence
+     * was signalled).
+     *
+     * @param frame the frame commands.
+     */
+    public synchronized void release(FrameCommands frame) {
+        if (free.size() < MAX_FREE_FRAMES) {
+            free.add(frame);
+            return;
+        }
+
+        // Keeps the memory bounded.
+        vkDestroyCommandPool(ContextUtil.getDevice(dict).getDevice(), frame.commandPool, null);
+        frames.remove(frame);
+    }
+
+    /**
+     * Returns the number of the secondary command buffer recordings so far.
+     *
+     * @return the secondary recording count.
+     */
+    public long getRecordedSecondaryCount() {
+        return recordedSecondary;
+    }
+
+    /**
+     * Returns the number of the primary command buffer recordings so far.
+     *
+     * @return the primary recording count.
+     */
+    public long getRecordedPrimaryCount() {
+        return recordedPrimary;
+    }
+
+    private VkCommandBuffer allocateSecondary(FrameCommands frame) {
+        VkDevice device = ContextUtil.getDevice(dict).getDevice();
+        return allocate(device, frame.commandPool, VK_COMMAND_BUFFER_LEVEL_SECONDARY, 1)[0];
+    }
+
+    private static VkCommandBuffer[] allocate(VkDevice device, long commandPool, int level, int count) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            VkCommandBufferAllocateInfo cbai =
+                    VkCommandBufferAllocateInfo.callocStack(stack)
+                            .sType(VK_STRUCTURE_TYPE_COMMAND_BUFFER_ALLOCATE_INFO)
+                            .pNext(NULL)
+                            .commandPool(commandPool)
+                            .level(level)
+                            .commandBufferCount(count);
+
+            PointerBuffer pCommandBuffer = stack.mallocPointer(count);
+            int err = vkAllocateCommandBuffers(device, cbai, pCommandBuffer);
+            VulkanResult.assertValidate(err, "Failed to allocate command buffers!");
+
+            VkCommandBuffer[] out = new VkCommandBuffer[count];
+            for (int i = 0; i < count; i++)
+                out[i] = new VkCommandBuffer(pCommandBuffer.get(i), device);
+
+            return out;
+        }
+    }
+
+    private void recordSecondary(VkCommandBuffer cmd, long frameBuffer, PipelineContainer container) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            VkCommandBufferInheritanceInfo inheritance =
+                    VkCommandBufferInheritanceInfo.callocStack(stack)
+                            .sType(VK_STRUCTURE_TYPE_COMMAND_BUFFER_INHERITANCE_INFO)
+                            .pNext(NULL)
+                            .renderPass(renderPass.handle())
+                            .subpass(0)
+                            .framebuffer(frameBuffer);
+
+            VkCommandBufferBeginInfo cbbi =
+                    VkCommandBufferBeginInfo.callocStack(stack)
+                            .sType(VK_STRUCTURE_TYPE_COMMAND_BUFFER_BEGIN_INFO)
+                            .pNext(NULL)
+                            .flags(VK_COMMAND_BUFFER_USAGE_RENDER_PASS_CONTINUE_BIT)
+                            .pInheritanceInfo(inheritance);
+
+            int err = vkBeginCommandBuffer(cmd, cbbi);
+            VulkanResult.assertValidate(err, "Failed to begin command buffer!");
+
+            container.record(cmd, frameBuffer);
+
+            err = vkEndCommandBuffer(cmd);
+            VulkanResult.assertValidate(err, "Failed to end command buffer!");
+        }
+
+        recordedSecondary++;
+    }
+
+    private void recordPrimary(FrameCommands frame) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            VkCommandBufferBeginInfo cbbi =
+                    VkCommandBufferBeginInfo.callocStack(stack)
+                            .sType(VK_STRUCTURE_TYPE_COMMAND_BUFFER_BEGIN_INFO)
+                            .pNext(NULL);
+
+            int err = vkBeginCommandBuffer(frame.primary, cbbi);
+            VulkanResult.assertValidate(err, "Failed to begin command buffer!");
+
+            renderPass.record(frame.primary, frame.frameBuffer);
+
+            if (!frame.executed.isEmpty()) {
+                PointerBuffer pSecondary = stack.mallocPointer(frame.executed.size());
+                for (PipelineContainer container : frame.executed)
+                    pSecondary.put(frame.secondaries.get(container).cmd);
+                pSecondary.flip();
+
+                vkCmdExecuteCommands(frame.primary, pSecondary);
+            }
+
+            vkCmdEndRenderPass(frame.primary);
+
+            err = vkEndCommandBuffer(frame.primary);
+            VulkanResult.assertValidate(err, "Failed to end command buffer!");
+        }
+
+        frame.recorded = true;
+        recordedPrimary++;
+    }
+
+    /** Destroys the command pools of every frame(none of the command buffers may be pending). */
+    @Override
+    public synchronized void destroy() {
+        VkDevice device = ContextUtil.getDevice(dict).getDevice();
+
+        for (FrameCommands frame : frames)
+            vkDestroyCommandPool(device, frame.commandPool, null);
+
+        frames.clear();
+        free.clear();
+    }
+}
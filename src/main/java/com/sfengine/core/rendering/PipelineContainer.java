@@ -4,6 +4,7 @@ import org.jetbrains.annotations.NotNull;
 import org.lwjgl.vulkan.VkCommandBuffer;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.lwjgl.vulkan.VK10.VK_PIPELINE_BIND_POINT_GRAPHICS;
 import static org.lwjgl.vulkan.VK10.vkCmdBindPipeline;
@@ -13,6 +14,8 @@ public class PipelineContainer implements RenderContainer {
     private final List<RenderObject> objs = Collections.synchronizedList(new ArrayList<>());
     private volatile long pipeline;
     private volatile int bindPoint = VK_PIPELINE_BIND_POINT_GRAPHICS;
+    /** Incremented whenever the recorded content of the container changes. */
+    private final AtomicLong version = new AtomicLong();
 
     public PipelineContainer(long pipeline) {
         this.pipeline = pipeline;
@@ -32,6 +35,36 @@ public class PipelineContainer implements RenderContainer {
         }
     }
 
+    /**
+     * Returns the version of the container's content. The version changes whenever an object is
+     * added or removed(or when the container is marked as dirty), so the command buffers recorded
+     * at an older version must be recorded again.
+     *
+     * @return the content version.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Marks the container as dirty, eg. when one of the objects changed the way it is recorded.
+     */
+    public void markDirty() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Marks the container as dirty if it was modified.
+     *
+     * @param modified tells whether the container was modified.
+     * @return the modified flag.
+     */
+    private boolean changed(boolean modified) {
+        if (modified)
+            version.incrementAndGet();
+        return modified;
+    }
+
     @Override
     public int size() {
         return objs.size();
@@ -67,12 +100,12 @@ public class PipelineContainer implements RenderContainer {
 
     @Override
     public boolean add(RenderObject renderObject) {
-        return objs.add(renderObject);
+        return changed(objs.add(renderObject));
     }
 
     @Override
     public boolean remove(Object o) {
-        return objs.remove(o);
+        return changed(objs.remove(o));
     }
 
     @Override
@@ -82,22 +115,23 @@ public class PipelineContainer implements RenderContainer {
 
     @Override
     public boolean addAll(@NotNull Collection<? extends RenderObject> c) {
-        return objs.addAll(c);
+        return changed(objs.addAll(c));
     }
 
     @Override
     public boolean retainAll(@NotNull Collection<?> c) {
-        return objs.retainAll(c);
+        return changed(objs.retainAll(c));
     }
 
     @Override
     public boolean removeAll(@NotNull Collection<?> c) {
-        return objs.removeAll(c);
+        return changed(objs.removeAll(c));
     }
 
     @Override
     public void clear() {
         objs.clear();
+        version.incrementAndGet();
     }
 
     @Override
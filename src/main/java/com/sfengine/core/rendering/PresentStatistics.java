@@ -0,0 +1,162 @@
+package com.sfengine.core.rendering;
+
+import com.sfengine.core.context.ContextDictionary;
+import com.sfengine.core.context.ContextUtil;
+import com.sfengine.core.context.swapchain.SwapchainContext;
+import com.sfengine.core.engine.EngineTask;
+import com.sfengine.core.synchronization.VkFence.LatencyHistogram;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.lwjgl.vulkan.KHRSurface.*;
+
+/**
+ * Measures the achieved frame rate and the input to present latency of a presenter. The latency
+ * of a frame is the time between the start of the tick that handles its input(before the
+ * swapchain image is acquired, so the wait for the image is included) and the moment its image is
+ * queued for the presentation.
+ *
+ * <p>The statistics are reported(and reset) periodically when the task is added to the tick task
+ * list, together with the realized present mode and image count of the swapchain. Thus running
+ * the application with different present policies allows to compare them. When a fence latency
+ * histogram is set, it is reported(and reset) as well. It holds the time between the moment the
+ * fence supervisor sees a fence signalled and the release of the fence's dependency.
+ */
+public class PresentStatistics implements EngineTask {
+
+    /** The default reporting interval(in milliseconds). */
+    public static final long REPORT_INTERVAL =
+            Long.getLong("rendering_present_benchmark_interval", 5000L);
+
+    private final Logger logger = Logger.getLogger(PresentStatistics.class.getSimpleName());
+
+    private final ContextDictionary dict;
+    private final long interval;
+
+    private long windowStart = System.nanoTime();
+    private long frames = 0;
+    private long latencySum = 0, latencyMax = 0;
+
+    private volatile LatencyHistogram fenceLatency;
+
+    private volatile double lastFps = 0, lastLatency = 0, lastMaxLatency = 0;
+
+    public PresentStatistics(ContextDictionary dict) {
+        this(dict, REPORT_INTERVAL);
+    }
+
+    /**
+     * Creates the statistics.
+     *
+     * @param dict the context dictionary(of the measured swapchain).
+     * @param interval the reporting interval in milliseconds.
+     */
+    public PresentStatistics(ContextDictionary dict, long interval) {
+        if (interval <= 0)
+            throw new AssertionError("The reporting interval must be positive.");
+
+        this.dict = dict;
+        this.interval = interval * 1000000L;
+    }
+
+    /**
+     * Records a presented frame.
+     *
+     * @param tickStart the time(System.nanoTime) the tick handling the frame's input started.
+     * @param presented the time(System.nanoTime) the frame was queued for the presentation.
+     */
+    public synchronized void framePresented(long tickStart, long presented) {
+        long latency = presented - tickStart;
+
+        frames++;
+        latencySum += latency;
+        latencyMax = Math.max(latencyMax, latency);
+    }
+
+    /**
+     * Sets the histogram of the fence signal(seen by the supervisor) to release latency reported
+     * with the statistics.
+     *
+     * @param fenceLatency the histogram(attached to a fence supervisor) or null.
+     */
+    public void setFenceLatency(LatencyHistogram fenceLatency) {
+        this.fenceLatency = fenceLatency;
+    }
+
+    @Override
+    public void run() throws AssertionError {
+        long now = System.nanoTime();
+
+        synchronized (this) {
+            long elapsed = now - windowStart;
+            if (elapsed < interval)
+                return;
+
+            lastFps = frames * 1e9 / elapsed;
+            lastLatency = frames == 0 ? 0 : latencySum / 1e6 / frames;
+            lastMaxLatency = latencyMax / 1e6;
+
+            windowStart = now;
+            frames = 0;
+            latencySum = 0;
+            latencyMax = 0;
+        }
+
+        SwapchainContext swapchain = ContextUtil.getSwapchain(dict);
+        String report = String.format(
+                "Present mode: %s, images: %d, fps: %.1f, input to present latency: %.2fms(max %.2fms)",
+                presentModeName(swapchain.getPresentMode()), swapchain.getImageCount(),
+                lastFps, lastLatency, lastMaxLatency);
+
+        LatencyHistogram histogram = fenceLatency;
+        if (histogram != null) {
+            report += "\nFence signal to release latency: " + histogram;
+            histogram.reset();
+        }
+
+        logger.log(Level.INFO, report);
+    }
+
+    /**
+     * Returns the frame rate of the last reported interval.
+     *
+     * @return the frames per second.
+     */
+    public double getFps() {
+        return lastFps;
+    }
+
+    /**
+     * Returns the average input to present latency of the last reported interval.
+     *
+     * @return the latency in milliseconds.
+     */
+    public double getLatency() {
+        return lastLatency;
+    }
+
+    /**
+     * Returns the maximal input to present latency of the last reported interval.
+     *
+     * @return the latency in milliseconds.
+     */
+    public double getMaxLatency() {
+        return lastMaxLatency;
+    }
+
+    private static String presentModeName(int mode) {
+        switch (mode) {
+            case VK_PRESENT_MODE_IMMEDIATE_KHR:
+                return "IMMEDIATE";
+            case VK_PRESENT_MODE_MAILBOX_KHR:
+                return "MAILBOX";
+            case VK_PRESENT_MODE_FIFO_KHR:
+                return "FIFO";
+            case VK_PRESENT_MODE_FIFO_RELAXED_KHR:
+                return "FIFO_RELAXED";
+            default:
+                return String.valueOf(mode);
+        }
+    }
+}
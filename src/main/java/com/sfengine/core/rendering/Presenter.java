@@ -2,6 +2,7 @@ package com.sfengine.core.rendering;
 
 import com.sfengine.core.rendering.frames.Frame;
 import com.sfengine.core.rendering.frames.FrameFactory;
+import com.sfengine.core.rendering.frames.FramesInFlight;
 import com.sfengine.core.context.ContextDictionary;
 import com.sfengine.core.context.ContextUtil;
 import com.sfengine.core.context.swapchain.SwapchainContext;
@@ -9,9 +10,8 @@ import com.sfengine.core.engine.Engine;
 import com.sfengine.core.engine.EngineFactory;
 import com.sfengine.core.engine.EngineTask;
 import com.sfengine.core.resources.Destroyable;
-import com.sfengine.core.result.VulkanException;
 import com.sfengine.core.result.VulkanResult;
-import com.sfengine.core.synchronization.VkSemaphore.VkSemaphoreFactory;
+import com.sfengine.core.synchronization.VkSemaphore.VkSemaphorePool;
 import org.lwjgl.vulkan.VkDevice;
 import org.lwjgl.vulkan.VkPresentInfoKHR;
 import org.lwjgl.vulkan.VkQueue;
@@ -22,10 +22,16 @@ import java.nio.LongBuffer;
 
 import static org.lwjgl.system.MemoryUtil.*;
 import static org.lwjgl.vulkan.KHRSwapchain.*;
-import static org.lwjgl.vulkan.VK10.VK_NULL_HANDLE;
+import static org.lwjgl.vulkan.VK10.*;
 
 public class Presenter implements EngineTask, Destroyable {
 
+    /**
+     * The default image acquire timeout(in nanoseconds). The presenter returns to the tick loop
+     * when no image is available within the timeout.
+     */
+    public static final long ACQUIRE_TIMEOUT = Long.getLong("rendering_acquire_timeout", 0L);
+
     private final Engine engine = EngineFactory.getEngine();
 
     private FrameFactory frames;
@@ -35,9 +41,32 @@ public class Presenter implements EngineTask, Destroyable {
 
     private final VkPresentInfoKHR presentInfo;
 
+    private final FramesInFlight framesInFlight;
+
+    private volatile long acquireTimeout = ACQUIRE_TIMEOUT;
+    /** Tells whether the swapchain is out of date(or suboptimal) and should be recreated. */
+    private volatile boolean recreateRequested = false;
+    private volatile boolean recreateScheduled = false;
+    private volatile long skippedAcquires = 0;
+
+    private volatile PresentStatistics statistics;
+
     public Presenter(ContextDictionary dict, FrameFactory frames) {
+        this(dict, frames, new FramesInFlight(Integer.MAX_VALUE));
+    }
+
+    /**
+     * Creates a presenter that keeps at most the given number of frames in flight. The next frame
+     * is prepared(and its updates are performed) while the GPU renders the previous ones.
+     *
+     * @param dict the context dictionary.
+     * @param frames the frame factory.
+     * @param framesInFlight the frames in flight limit.
+     */
+    public Presenter(ContextDictionary dict, FrameFactory frames, FramesInFlight framesInFlight) {
         this.dict = dict;
         this.frames =  frames;
+        this.framesInFlight = framesInFlight;
 
         LongBuffer pSwapchain = memAllocLong(1);
         pSwapchain.put(0);
@@ -64,46 +93,86 @@ public class Presenter implements EngineTask, Destroyable {
 
     @Override
     public void run() throws AssertionError {
+        // The frame's input is handled in this tick, so its latency is measured from here(it
+        // includes the wait for the image).
+        final long tickStart = System.nanoTime();
         SwapchainContext swapchainContext = ContextUtil.getSwapchain(dict);
         long newSwapchain = swapchainContext.getHandle();
 
         if (lastSwapchain != newSwapchain) {
+            // Before the frames record their command buffers, so the per frame resources can be
+            // resized first.
+            framesInFlight.setImageCount(swapchainContext.getImageCount());
             frames.update(swapchainContext);
             lastSwapchain = newSwapchain;
         }
 
+        if (recreateRequested) {
+            // The swapchain is recreated(on the next engine tick) once none of its images is in
+            // flight.
+            if (!recreateScheduled && framesInFlight.getInFlight() == 0) {
+                recreateScheduled = true;
+                engine.addTask(() -> {
+                    recreateRequested = false;
+                    swapchainContext.recreate();
+                    recreateScheduled = false;
+                });
+            }
+            return;
+        }
 
-        if (frames.lazyCount() == 0)
+        if (frames.lazyCount() == 0 || !framesInFlight.canBegin())
             return;
 
-        final long semaphore = VkSemaphoreFactory.createSemaphore(dict);
         VkQueue presentQueue = ContextUtil.getQueue(dict).getQueue();
         VkDevice device = ContextUtil.getDevice(dict).getDevice();
+        final VkSemaphorePool semaphores = VkSemaphorePool.get(device);
+        final long semaphore = semaphores.acquire();
 
         int[] pImageIndex = new int[1];
         int err = vkAcquireNextImageKHR(
                         device,
                         swapchainContext.getHandle(),
-                        0xFFFFFFFFFFFFFFFFL,
+                        acquireTimeout,
                         semaphore,
                         VK_NULL_HANDLE,
                         pImageIndex); // Fences can be used for synchronization.
-        try {
-            VulkanResult.validate(err, "Failed to acquire imageIndex image KHR!");
-        } catch (VulkanException e) {
-            e.printStackTrace();
+
+        switch (err) {
+            case VK_SUCCESS:
+                break;
+            case VK_SUBOPTIMAL_KHR:
+                // The image was acquired and can still be presented.
+                requestRecreate();
+                break;
+            case VK_NOT_READY:
+            case VK_TIMEOUT:
+                // No image is available yet, the other tick tasks are performed meanwhile.
+                semaphores.release(semaphore);
+                skippedAcquires++;
+                return;
+            case VK_ERROR_OUT_OF_DATE_KHR:
+                semaphores.release(semaphore);
+                requestRecreate();
+                return;
+            default:
+                semaphores.release(semaphore);
+                VulkanResult.assertValidate(err, "Failed to acquire imageIndex image KHR!");
         }
         int nextImage = pImageIndex[0];
 
         final Frame frame = frames.popFrame(nextImage);
-        frame.render(semaphore);
+        framesInFlight.begin(nextImage);
+        frame.render(swapchainContext.getHandle(), semaphore);
 
 
         engine.addTask(() -> {
             int subErr;
 
             synchronized (presentInfo) {
-                VkSemaphoreFactory.destroySemaphore(device, semaphore);
+                // The frame's fence is signalled, so the submission waiting on the semaphore
+                // is complete.
+                semaphores.release(semaphore);
 
                 long[] sems = frame.getRenderCompleteSemaphores();
                 if (sems.length > 1)
@@ -119,10 +188,76 @@ public class Presenter implements EngineTask, Destroyable {
                 frames.releaseFrame(frame);
             }
 
-            VulkanResult.assertValidate(subErr, "Failed to present the image.");
+            framesInFlight.end(nextImage);
+
+            PresentStatistics stats = statistics;
+            if (stats != null)
+                stats.framePresented(tickStart, System.nanoTime());
+
+            if (subErr == VK_ERROR_OUT_OF_DATE_KHR || subErr == VK_SUBOPTIMAL_KHR)
+                requestRecreate();
+            else
+                VulkanResult.assertValidate(subErr, "Failed to present the image.");
         }, frame.getDependency());
     }
 
+    /**
+     * The presenter is busy while it can begin a frame, as it polls for an image every tick. While
+     * every frame is in flight it waits for their fences(the fence supervisor's work).
+     */
+    @Override
+    public boolean isBusy() {
+        return !recreateRequested && frames.lazyCount() > 0 && framesInFlight.canBegin();
+    }
+
+    /** Requests the swapchain recreation, it is performed once no frame is in flight. */
+    public void requestRecreate() {
+        recreateRequested = true;
+    }
+
+    /**
+     * Sets the image acquire timeout. The presenter returns to the tick loop(and retries during
+     * the next tick) when no image is available within the timeout.
+     *
+     * @param nanos the timeout in nanoseconds(0 to only check whether an image is available).
+     */
+    public void setAcquireTimeout(long nanos) {
+        if (nanos < 0)
+            throw new AssertionError("The acquire timeout cannot be negative.");
+        acquireTimeout = nanos;
+    }
+
+    public long getAcquireTimeout() {
+        return acquireTimeout;
+    }
+
+    /**
+     * Returns the number of the ticks that did not acquire an image(VK_NOT_READY or VK_TIMEOUT).
+     *
+     * @return the skipped acquire count.
+     */
+    public long getSkippedAcquires() {
+        return skippedAcquires;
+    }
+
+    /**
+     * Sets the statistics that measure the presented frames.
+     *
+     * @param statistics the statistics(or null).
+     */
+    public void setStatistics(PresentStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Returns the frames in flight limit.
+     *
+     * @return the frames in flight.
+     */
+    public FramesInFlight getFramesInFlight() {
+        return framesInFlight;
+    }
+
     @Override
     public void destroy() {
 
@@ -1,7 +1,12 @@
 package com.sfengine.core.rendering;
 
+import com.sfengine.components.memory.StagingUploader;
+import com.sfengine.components.memory.UniformRing;
 import com.sfengine.components.rendering.RenderPass;
+import com.sfengine.components.shaders.descriptor_sets.DescriptorWriter;
+import com.sfengine.components.shaders.descriptor_sets.FrameDescriptorAllocator;
 import com.sfengine.components.window.CFrame;
+import com.sfengine.core.rendering.frames.FramesInFlight;
 import com.sfengine.core.resources.Destroyable;
 import com.sfengine.core.synchronization.Dependable;
 
@@ -22,4 +27,43 @@ public interface RenderingEngine extends Destroyable, Dependable {
     RenderPass getRenderPass();
 
     CFrame getCFrame();
+
+    /**
+     * Returns the frames in flight of the engine. The uniforms updated every frame should be kept
+     * in the uniform ring(one partition per frame), as the next frame is prepared while the
+     * previous ones render.
+     *
+     * @return the frames in flight.
+     */
+    FramesInFlight getFramesInFlight();
+
+    /**
+     * Returns the uploader that fills the device local buffers(eg. the meshes) of the engine.
+     *
+     * @return the staging uploader.
+     */
+    StagingUploader getUploader();
+
+    /**
+     * Returns the uniform ring of the engine, it is updated after the updatables of every frame.
+     *
+     * @return the uniform ring.
+     */
+    UniformRing getUniformRing();
+
+    /**
+     * Returns the descriptor writer of the engine, it is flushed once per frame(after the
+     * updatables).
+     *
+     * @return the descriptor writer.
+     */
+    DescriptorWriter getDescriptorWriter();
+
+    /**
+     * Returns the allocator of the descriptor sets that live for a single frame, the sets of a
+     * frame are freed when the frame ends.
+     *
+     * @return the frame descriptor allocator.
+     */
+    FrameDescriptorAllocator getFrameDescriptorAllocator();
 }
@@ -0,0 +1,177 @@
+package com.sfengine.core.rendering.frames;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Limits the number of frames in flight(frames submitted but not yet presented) and tells which
+ * frame is being prepared. While the GPU renders a frame, the CPU prepares the next one, so every
+ * resource written by the CPU must have a copy per frame. The command buffers are recorded per
+ * swapchain image and the uniforms are written to the frame's partition of the uniform ring(the
+ * descriptor sets select it with a dynamic offset, so they need no copies). The descriptor sets
+ * that live for a single frame are allocated from the frame's transient allocator, which is
+ * reset when the frame ends.
+ *
+ * <p>The frames are identified by their swapchain image indices. An image is acquired again only
+ * after its previous frame was presented, so the resources of a frame are never written while
+ * the GPU uses them.
+ */
+public class FramesInFlight {
+
+    /** The default maximal number of frames in flight. */
+    public static final int DEFAULT_FRAMES_IN_FLIGHT =
+            Integer.getInteger("rendering_frames_in_flight", 2);
+
+    private final int limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /** Index of the frame being prepared(or -1 before the first frame). */
+    private volatile int current = -1;
+    private volatile long frames = 0;
+
+    /** The number of the swapchain images(0 until the presenter sets it). */
+    private volatile int imageCount = 0;
+    private final List<IntConsumer> imageCountListeners = new CopyOnWriteArrayList<>();
+    private final List<IntConsumer> frameEndListeners = new CopyOnWriteArrayList<>();
+
+    /** Creates a limit with the default number of frames in flight. */
+    public FramesInFlight() {
+        this(DEFAULT_FRAMES_IN_FLIGHT);
+    }
+
+    /**
+     * Creates a limit of the frames in flight.
+     *
+     * @param limit the maximal number of frames in flight.
+     */
+    public FramesInFlight(int limit) {
+        if (limit < 1)
+            throw new AssertionError("At least one frame must be allowed in flight.");
+
+        this.limit = limit;
+    }
+
+    /**
+     * Tells whether a new frame can be started.
+     *
+     * @return true if there are less frames in flight than the limit.
+     */
+    public boolean canBegin() {
+        return inFlight.get() < limit;
+    }
+
+    /**
+     * Begins a new frame. Must be invoked before the frame's resources are updated.
+     *
+     * @param index the frame index(the swapchain image index).
+     */
+    public void begin(int index) {
+        inFlight.incrementAndGet();
+        current = index;
+        frames++;
+    }
+
+    /**
+     * Ends a frame(invoked once the frame's fence was signalled and the frame was presented) and
+     * notifies the frame end listeners, so they can reuse the frame's resources.
+     *
+     * @param index the frame index(the swapchain image index).
+     */
+    public void end(int index) {
+        for (IntConsumer listener : frameEndListeners)
+            listener.accept(index);
+
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Returns the index of the frame being prepared.
+     *
+     * @return the frame index or -1 if no frame was started yet.
+     */
+    public int current() {
+        return current;
+    }
+
+    /**
+     * Returns the maximal number of frames in flight.
+     *
+     * @return the limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the number of frames in flight.
+     *
+     * @return the frames in flight.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Sets the number of the swapchain images(the range of the frame indices) and notifies the
+     * listeners if it changed. The presenter sets it while no frame is in flight, before the
+     * command buffers of the new swapchain are recorded.
+     *
+     * @param count the swapchain image count.
+     */
+    public void setImageCount(int count) {
+        if (count == imageCount)
+            return;
+
+        imageCount = count;
+        for (IntConsumer listener : imageCountListeners)
+            listener.accept(count);
+    }
+
+    /**
+     * Returns the number of the swapchain images.
+     *
+     * @return the image count or 0 if it is not known yet.
+     */
+    public int getImageCount() {
+        return imageCount;
+    }
+
+    /**
+     * Adds a listener notified with the new swapchain image count(eg. to resize the per frame
+     * resources).
+     *
+     * @param listener the listener.
+     */
+    public void addImageCountListener(IntConsumer listener) {
+        imageCountListeners.add(listener);
+    }
+
+    public void removeImageCountListener(IntConsumer listener) {
+        imageCountListeners.remove(listener);
+    }
+
+    /**
+     * Adds a listener notified with the index of every ended frame(eg. to reset the frame's
+     * transient resources, as the GPU no longer uses them).
+     *
+     * @param listener the listener.
+     */
+    public void addFrameEndListener(IntConsumer listener) {
+        frameEndListeners.add(listener);
+    }
+
+    public void removeFrameEndListener(IntConsumer listener) {
+        frameEndListeners.remove(listener);
+    }
+
+    /**
+     * Returns the number of the started frames.
+     *
+     * @return the frame count.
+     */
+    public long getFrameCount() {
+        return frames;
+    }
+}
@@ -0,0 +1,55 @@
+package com.sfengine.core.rendering.recording;
+
+import com.sfengine.core.rendering.RenderObject;
+import org.lwjgl.vulkan.VkCommandBuffer;
+
+import java.util.List;
+
+/**
+ * Class for the render work that can be recorded by many threads at once. The render objects are
+ * split between the worker threads and recorded into secondary command buffers, which are then
+ * executed by the primary command buffer inside of the render pass.
+ */
+public interface ParallelRecordable {
+
+    /**
+     * Records the commands preceding the secondary command buffers. It must begin the render pass
+     * with the secondary command buffer contents(VK_SUBPASS_CONTENTS_SECONDARY_COMMAND_BUFFERS).
+     *
+     * @param buffer the primary command buffer.
+     * @param framebuffer the frame buffer.
+     */
+    void begin(VkCommandBuffer buffer, long framebuffer);
+
+    /**
+     * Returns the objects to be recorded into the secondary command buffers. The objects are
+     * recorded in the returned order, so the objects sharing a pipeline should be adjacent.
+     *
+     * @return a snapshot of the render objects.
+     */
+    List<RenderObject> objects();
+
+    /**
+     * Records the commands following the secondary command buffers(eg. ends the render pass).
+     *
+     * @param buffer the primary command buffer.
+     * @param framebuffer the frame buffer.
+     */
+    void end(VkCommandBuffer buffer, long framebuffer);
+
+    /**
+     * Returns the render pass the secondary command buffers are executed in.
+     *
+     * @return the render pass handle.
+     */
+    long renderPass();
+
+    /**
+     * Returns the subpass the secondary command buffers are executed in.
+     *
+     * @return the subpass index.
+     */
+    default int subpass() {
+        return 0;
+    }
+}
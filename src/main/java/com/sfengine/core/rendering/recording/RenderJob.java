@@ -8,4 +8,10 @@ public interface RenderJob {
 
     void performUpdate();
 
+    /**
+     * Tells that the job will not be submitted anymore and that its last submission completed(eg.
+     * the fence of the frame was signalled), so its command buffer can be reused.
+     */
+    default void release() {}
+
 }
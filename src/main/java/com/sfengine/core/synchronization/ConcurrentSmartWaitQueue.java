@@ -0,0 +1,157 @@
+package com.sfengine.core.synchronization;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Smart wait queue without a global monitor. Every waiting task keeps its pending dependency count
+ * in an atomic counter, and the tasks waiting on a dependency are kept in a lock-free list hanging
+ * off that dependency. Thus releasing a dependency only touches the tasks waiting on it and never
+ * blocks unrelated submissions.
+ */
+public class ConcurrentSmartWaitQueue extends SmartWaitQueue {
+
+    /** A task waiting for its dependencies. */
+    private static class PendingTask {
+
+        private final SynchronizedTask task;
+        /** Pending dependencies(plus one while the task is being added). */
+        private final AtomicInteger pending = new AtomicInteger(1);
+
+        private PendingTask(SynchronizedTask task) {
+            this.task = task;
+        }
+    }
+
+    /** A node of the lock-free waiter list. */
+    private static class Waiter {
+
+        private final PendingTask task;
+        private final Waiter next;
+
+        private Waiter(PendingTask task, Waiter next) {
+            this.task = task;
+            this.next = next;
+        }
+    }
+
+    /** Marks a waiter list of a released dependency. */
+    private static final Waiter CLOSED = new Waiter(null, null);
+
+    /** Lock-free(Treiber stack) list of the tasks waiting on a single dependency. */
+    private static class Waiters {
+
+        private final AtomicReference<Waiter> head = new AtomicReference<>();
+
+        /**
+         * Adds a task to the list.
+         *
+         * @param task the task.
+         * @return true if the task was added and false if the list was already closed.
+         */
+        private boolean push(PendingTask task) {
+            while (true) {
+                Waiter h = head.get();
+                if (h == CLOSED) {
+                    return false;
+                }
+
+                if (head.compareAndSet(h, new Waiter(task, h))) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Closes the list.
+         *
+         * @return the waiting tasks.
+         */
+        private Waiter close() {
+            Waiter h = head.getAndSet(CLOSED);
+            return h == CLOSED ? null : h;
+        }
+    }
+
+    /** The waiter lists of the unreleased dependencies. */
+    private final ConcurrentMap<Dependency, Waiters> links = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a task to the queue.
+     *
+     * @param task the task.
+     */
+    @Override
+    public void addTask(SynchronizedTask task) {
+        List<Dependency> deps = task.dependencies();
+        if (deps == null || deps.size() == 0) {
+            invoke(task);
+            return;
+        }
+
+        PendingTask pending = new PendingTask(task);
+
+        for (Dependency d : deps) {
+            if (d == null || d.isReleased()) {
+                continue;
+            }
+
+            Waiters waiters = links.get(d);
+            boolean created = false;
+            if (waiters == null) {
+                Waiters fresh = new Waiters();
+                waiters = links.putIfAbsent(d, fresh);
+                if (waiters == null) {
+                    waiters = fresh;
+                    created = true;
+                }
+            }
+
+            pending.pending.incrementAndGet();
+            if (!waiters.push(pending)) {
+                // The dependency was released in the meantime.
+                pending.pending.decrementAndGet();
+            }
+
+            if (created) {
+                // Might pop the dependency right away if it was released in the meantime.
+                d.addSmartQueue(this);
+            }
+        }
+
+        if (pending.pending.decrementAndGet() == 0) {
+            invoke(task);
+        }
+    }
+
+    /**
+     * Updates the state of a dependency.
+     *
+     * @param d the dependency.
+     */
+    @Override
+    public void popDependency(Dependency d) {
+        Waiters waiters = links.remove(d);
+        if (waiters == null) {
+            return;
+        }
+
+        for (Waiter w = waiters.close(); w != null; w = w.next) {
+            if (w.task.pending.decrementAndGet() == 0) {
+                invoke(w.task.task);
+            }
+        }
+    }
+
+    /**
+     * Invokes a task.
+     *
+     * @param task the task.
+     */
+    private void invoke(SynchronizedTask task) {
+        task.run();
+    }
+}
@@ -0,0 +1,67 @@
+package com.sfengine.core.synchronization;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A lightweight, one-shot dependency. Unlike the {@link DependencyFence} it does not use a monitor
+ * or a set of the queues, instead the waiting queues are pushed onto a lock-free stack which is
+ * swapped out by the release. Checking an already released latch is a single volatile read.
+ */
+public class DependencyLatch implements Dependency {
+
+    /** A node of the waiting queue stack. */
+    private static class Waiter {
+
+        private final SmartWaitQueue queue;
+        private final Waiter next;
+
+        private Waiter(SmartWaitQueue queue, Waiter next) {
+            this.queue = queue;
+            this.next = next;
+        }
+    }
+
+    /** Marks a released latch. */
+    private static final Waiter RELEASED = new Waiter(null, null);
+
+    private static final AtomicReferenceFieldUpdater<DependencyLatch, Waiter> HEAD =
+            AtomicReferenceFieldUpdater.newUpdater(DependencyLatch.class, Waiter.class, "head");
+
+    /** The top of the waiting queue stack(or RELEASED). */
+    private volatile Waiter head;
+
+    @Override
+    public void addSmartQueue(SmartWaitQueue queue) {
+        while (true) {
+            Waiter h = head;
+            if (h == RELEASED) {
+                queue.popDependency(this);
+                return;
+            }
+
+            if (HEAD.compareAndSet(this, h, new Waiter(queue, h))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Releases the latch and updates every queue waiting on it. Only the first invocation has any
+     * effect.
+     */
+    public void release() {
+        Waiter h = HEAD.getAndSet(this, RELEASED);
+        if (h == RELEASED) {
+            return;
+        }
+
+        for (; h != null; h = h.next) {
+            h.queue.popDependency(this);
+        }
+    }
+
+    @Override
+    public boolean isReleased() {
+        return head == RELEASED;
+    }
+}
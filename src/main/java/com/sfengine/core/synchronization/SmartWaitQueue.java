@@ -35,18 +35,23 @@ public class SmartWaitQueue {
             return;
         }
 
+        // The dependencies the queue has to be registered with(outside of the monitor, as a
+        // released dependency pops itself immediately).
+        List<Dependency> register = new ArrayList<>();
+
         synchronized (this) {
             int added = 0;
 
             for (Dependency d : deps) {
                 if (d != null && !d.isReleased()) {
-                    d.addSmartQueue(this);
-
-                    if (!links.containsKey(d)) {
-                        links.put(d, new ArrayList<>());
+                    List<SynchronizedTask> waiting = links.get(d);
+                    if (waiting == null) {
+                        waiting = new ArrayList<>();
+                        links.put(d, waiting);
+                        register.add(d);
                     }
 
-                    links.get(d).add(task);
+                    waiting.add(task);
                     added++;
                 }
             }
@@ -57,6 +62,11 @@ public class SmartWaitQueue {
             }
             degree.put(task, added);
         }
+
+        // The task is already linked, so a dependency released in the meantime finds it.
+        for (Dependency d : register) {
+            d.addSmartQueue(this);
+        }
     }
 
     /**
@@ -70,6 +80,9 @@ public class SmartWaitQueue {
 
         synchronized (this) {
             List<SynchronizedTask> tasks = links.remove(d);
+            if (tasks == null) {
+                throw new AssertionError("Popped a dependency that has no waiting tasks.");
+            }
 
             for (SynchronizedTask t : tasks) {
                 int x = degree.get(t) - 1;
@@ -3,6 +3,7 @@ package com.sfengine.core.synchronization;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 
 /**
@@ -36,7 +37,13 @@ public class SyncTask implements SynchronizedTask {
 
     @Override
     public void run() {
-        exec.execute(task);
+        try {
+            exec.execute(task);
+        } catch (RejectedExecutionException e) {
+            // The handle of a submitted task fails instead of leaving its dependents waiting.
+            if (!TaskFuture.reject(task, e))
+                throw e;
+        }
     }
 
     @Override
@@ -0,0 +1,212 @@
+package com.sfengine.core.synchronization;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A handle for a task submitted to the engine. It is a dependency fence released when the task
+ * finishes, so it can be passed directly as a dependency of the following tasks. If the task
+ * fails(or one of its dependencies failed) the failure is stored in the handle, and the tasks
+ * depending on it are not performed but fail with the same cause.
+ *
+ * <p><b>Note:</b> the fence is released by the task itself and must not be released manually.
+ */
+public class TaskFuture extends DependencyFence implements Dependable {
+
+    /** */
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger logger = Logger.getLogger(TaskFuture.class.getName());
+
+    /** Latch for the threads waiting for the task. */
+    private final CountDownLatch done = new CountDownLatch(1);
+    /** Tells whether the handle was completed(it is completed only once). */
+    private final AtomicBoolean completed = new AtomicBoolean(false);
+
+    /** The failure cause or null if the task did not fail. */
+    private volatile Throwable failure;
+
+    /** The hooks invoked when the task completes(guarded by itself). */
+    private final List<Runnable> hooks = new ArrayList<>();
+
+    /**
+     * Wraps the task so that it completes this handle when it finishes. The returned task checks
+     * the dependencies first, and if any of them failed it fails without running the task.
+     *
+     * @param task the task.
+     * @param dependencies the dependencies of the task.
+     * @return the wrapped task.
+     */
+    public Runnable wrap(Runnable task, Dependency... dependencies) {
+        return new Task(task, dependencies);
+    }
+
+    /**
+     * Fails the handle of a task that was wrapped by a TaskFuture(eg. when the executor rejected
+     * it), so that the tasks waiting for it do not hang.
+     *
+     * @param task the task passed to the executor.
+     * @param cause the failure cause.
+     * @return true if the task was wrapped by a TaskFuture and false otherwise.
+     */
+    public static boolean reject(Runnable task, Throwable cause) {
+        if (!(task instanceof Task))
+            return false;
+
+        ((Task) task).owner().complete(cause);
+        return true;
+    }
+
+    /**
+     * Completes the task exceptionally(if it did not finish yet).
+     *
+     * @param cause the failure cause.
+     */
+    public void fail(Throwable cause) {
+        complete(cause);
+    }
+
+    /** A task that completes its handle when it finishes. */
+    private final class Task implements Runnable {
+
+        private final Runnable task;
+        private final Dependency[] dependencies;
+
+        private Task(Runnable task, Dependency[] dependencies) {
+            this.task = task;
+            this.dependencies = dependencies;
+        }
+
+        private TaskFuture owner() {
+            return TaskFuture.this;
+        }
+
+        @Override
+        public void run() {
+            for (Dependency d : dependencies) {
+                if (d instanceof TaskFuture && ((TaskFuture) d).isFailed()) {
+                    complete(((TaskFuture) d).getFailure());
+                    return;
+                }
+            }
+
+            try {
+                task.run();
+            } catch (Throwable t) {
+                logger.log(Level.WARNING, "Engine task failed.", t);
+                complete(t);
+                return;
+            }
+
+            complete(null);
+        }
+    }
+
+    /**
+     * Completes the task.
+     *
+     * @param cause the failure cause or null if the task succeeded.
+     */
+    private void complete(Throwable cause) {
+        if (!completed.compareAndSet(false, true))
+            return;
+
+        failure = cause;
+        done.countDown();
+        release();
+
+        Runnable[] completed;
+        synchronized (hooks) {
+            completed = hooks.toArray(new Runnable[0]);
+            hooks.clear();
+        }
+
+        for (Runnable hook : completed) {
+            runHook(hook);
+        }
+    }
+
+    /**
+     * Invokes the hook when the task completes(successfully, exceptionally or because it was
+     * rejected). If the task has already completed the hook is invoked immediately. The hook runs
+     * on the thread that completed the task, so it should be short.
+     *
+     * @param hook the hook.
+     */
+    public void onComplete(Runnable hook) {
+        synchronized (hooks) {
+            if (!isDone()) {
+                hooks.add(hook);
+                return;
+            }
+        }
+
+        runHook(hook);
+    }
+
+    private static void runHook(Runnable hook) {
+        try {
+            hook.run();
+        } catch (Throwable t) {
+            logger.log(Level.WARNING, "Task completion hook failed.", t);
+        }
+    }
+
+    /**
+     * Waits until the task finishes.
+     *
+     * @throws InterruptedException if the thread was interrupted while waiting.
+     */
+    public void await() throws InterruptedException {
+        done.await();
+    }
+
+    /**
+     * Waits until the task finishes or the timeout elapses.
+     *
+     * @param timeout the maximal waiting time.
+     * @param unit the time unit.
+     * @return true if the task finished and false if the timeout elapsed.
+     * @throws InterruptedException if the thread was interrupted while waiting.
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+
+    /**
+     * Tells whether the task finished(successfully or not).
+     *
+     * @return true if the task finished.
+     */
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    /**
+     * Tells whether the task(or one of its dependencies) failed.
+     *
+     * @return true if the task failed.
+     */
+    public boolean isFailed() {
+        return isDone() && failure != null;
+    }
+
+    /**
+     * Returns the cause of the failure.
+     *
+     * @return the failure cause or null if the task did not fail(or did not finish yet).
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    @Override
+    public Dependency getDependency() {
+        return this;
+    }
+}
@@ -0,0 +1,536 @@
+package com.sfengine.core.synchronization;
+
+import com.sfengine.core.engine.Engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * A graph of engine tasks registered up front. Every node knows its dependencies, the executor
+ * class it runs on and its estimated cost. When the graph is submitted, the critical path is
+ * computed. The ready nodes wait in a queue per executor class ordered by their longest
+ * remaining path(the longest path first), and only a limited number of the nodes of every class
+ * is given to the engine at once(see {@link #setConcurrency(ExecutorClass, int)}). So the engine's
+ * FIFO queues do not decide the order of the nodes that are ready at the same time. The realized
+ * schedule can be exported afterwards(in the chrome tracing format), which makes it easier to cut
+ * the start up time.
+ */
+public class TaskGraph implements Dependable {
+
+    /** Executor classes of the engine. */
+    public enum ExecutorClass {
+        /** The first thread(Engine.addTask). */
+        MAIN,
+        /** The configuration pool(Engine.addConfig). */
+        CONFIG,
+        /** The fast pool(Engine.addFast). */
+        FAST,
+        /** The slow pool(Engine.addSlow). */
+        SLOW;
+    }
+
+    /** A single task of the graph. */
+    public class Node implements Dependable {
+
+        private final int index;
+        private final String name;
+        private final ExecutorClass executor;
+        private final long cost;
+        private final Runnable task;
+
+        private final List<Node> predecessors = new ArrayList<>();
+        private final List<Node> successors = new ArrayList<>();
+        private final List<Dependency> external = new ArrayList<>();
+
+        private final TaskFuture future = new TaskFuture();
+        private final AtomicInteger pending = new AtomicInteger();
+
+        /** The cost of the longest path starting at this node. */
+        private long rank;
+        /** The task given to the engine(it completes the future). */
+        private Runnable wrapped;
+        /** Released after the outside dependencies(or null if there are none). */
+        private TaskFuture gate;
+
+        private volatile long readyTime, startTime, endTime;
+        private volatile String threadName;
+
+        private Node(int index, String name, ExecutorClass executor, long cost, Runnable task) {
+            this.index = index;
+            this.name = name;
+            this.executor = executor;
+            this.cost = cost;
+            this.task = task;
+        }
+
+        /**
+         * Makes this node wait for the given nodes.
+         *
+         * @param nodes the nodes of the same graph.
+         * @return this node.
+         */
+        public Node dependsOn(Node... nodes) {
+            checkNotSubmitted();
+
+            for (Node n : nodes) {
+                if (n.graph() != TaskGraph.this) {
+                    throw new AssertionError("The node belongs to a different graph.");
+                }
+
+                predecessors.add(n);
+                n.successors.add(this);
+            }
+
+            return this;
+        }
+
+        /**
+         * Makes this node wait for the dependencies from outside of the graph.
+         *
+         * @param dependencies the dependencies.
+         * @return this node.
+         */
+        public Node waitsFor(Dependency... dependencies) {
+            checkNotSubmitted();
+
+            for (Dependency d : dependencies) {
+                if (d != null) {
+                    external.add(d);
+                }
+            }
+
+            return this;
+        }
+
+        private TaskGraph graph() {
+            return TaskGraph.this;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ExecutorClass getExecutor() {
+            return executor;
+        }
+
+        public long getCost() {
+            return cost;
+        }
+
+        /**
+         * Returns the cost of the longest path that starts at this node(including this node).
+         * Available after the graph was submitted.
+         *
+         * @return the rank of the node.
+         */
+        public long getRank() {
+            return rank;
+        }
+
+        /**
+         * Returns the handle of the node's task.
+         *
+         * @return the task handle.
+         */
+        public TaskFuture getFuture() {
+            return future;
+        }
+
+        @Override
+        public Dependency getDependency() {
+            return future;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /** Orders the nodes by their ranks(the longest path first, then in the order of addition). */
+    private static final Comparator<Node> RANK_ORDER =
+            (a, b) -> a.rank != b.rank ? Long.compare(b.rank, a.rank) : Integer.compare(a.index, b.index);
+
+    private static final int EXECUTOR_CLASSES = ExecutorClass.values().length;
+
+    private final List<Node> nodes = new ArrayList<>();
+
+    /** The ready nodes of every executor class(guarded by the array). */
+    @SuppressWarnings("unchecked")
+    private final PriorityQueue<Node>[] ready = new PriorityQueue[EXECUTOR_CLASSES];
+    /** The number of the nodes given to the engine and not finished, per executor class. */
+    private final int[] running = new int[EXECUTOR_CLASSES];
+    /** The maximal number of the nodes given to the engine at once, per executor class. */
+    private final int[] concurrency = new int[EXECUTOR_CLASSES];
+
+    private final DependencyFence completed = new DependencyFence();
+    private final AtomicInteger remaining = new AtomicInteger();
+
+    private volatile Engine engine;
+    private volatile long submitTime;
+    private List<Node> criticalPath = Collections.emptyList();
+
+    /**
+     * Creates an empty graph. By default one node of every executor class is given to the engine
+     * at once, except for the fast tasks(two nodes), like the core threads of the DefaultEngine.
+     */
+    public TaskGraph() {
+        for (int i = 0; i < EXECUTOR_CLASSES; i++) {
+            ready[i] = new PriorityQueue<>(RANK_ORDER);
+            concurrency[i] = 1;
+        }
+        concurrency[ExecutorClass.FAST.ordinal()] = 2;
+    }
+
+    /**
+     * Sets the maximal number of the nodes of the executor class given to the engine at once. It
+     * should match the number of the engine's threads of the class. A higher limit lets the
+     * engine's FIFO queue order some of the ready nodes, a lower one leaves threads unused.
+     *
+     * @param executor the executor class.
+     * @param nodes the maximal number of the nodes(at least 1).
+     * @return this graph.
+     */
+    public synchronized TaskGraph setConcurrency(ExecutorClass executor, int nodes) {
+        checkNotSubmitted();
+
+        if (nodes < 1) {
+            throw new AssertionError("At least one node must be given to the engine at once.");
+        }
+
+        concurrency[executor.ordinal()] = nodes;
+        return this;
+    }
+
+    /**
+     * Registers a new task in the graph.
+     *
+     * @param name the name of the task(used in the schedule).
+     * @param executor the executor class of the task.
+     * @param cost the estimated cost of the task(in any unit, eg. microseconds).
+     * @param task the task.
+     * @return the node of the task.
+     */
+    public synchronized Node add(String name, ExecutorClass executor, long cost, Runnable task) {
+        checkNotSubmitted();
+
+        if (cost < 0) {
+            throw new AssertionError("The task cost cannot be negative.");
+        }
+
+        Node node = new Node(nodes.size(), name, executor, cost, task);
+        nodes.add(node);
+        return node;
+    }
+
+    /**
+     * Registers a new task with a unit cost in the graph.
+     *
+     * @param name the name of the task(used in the schedule).
+     * @param executor the executor class of the task.
+     * @param task the task.
+     * @return the node of the task.
+     */
+    public Node add(String name, ExecutorClass executor, Runnable task) {
+        return add(name, executor, 1, task);
+    }
+
+    private void checkNotSubmitted() {
+        if (engine != null) {
+            throw new AssertionError("The graph was already submitted.");
+        }
+    }
+
+    /**
+     * Computes the ranks of the nodes.
+     *
+     * @return the nodes in a topological order.
+     */
+    private List<Node> computeRanks() {
+        List<Node> order = new ArrayList<>(nodes.size());
+        for (Node n : nodes) {
+            n.pending.set(n.predecessors.size());
+            if (n.predecessors.isEmpty()) {
+                order.add(n);
+            }
+        }
+
+        for (int i = 0; i < order.size(); i++) {
+            for (Node s : order.get(i).successors) {
+                if (s.pending.decrementAndGet() == 0) {
+                    order.add(s);
+                }
+            }
+        }
+
+        if (order.size() != nodes.size()) {
+            throw new AssertionError("The task graph contains a cycle.");
+        }
+
+        for (int i = order.size() - 1; i >= 0; i--) {
+            Node n = order.get(i);
+            long longest = 0;
+            for (Node s : n.successors) {
+                longest = Math.max(longest, s.rank);
+            }
+            n.rank = n.cost + longest;
+        }
+
+        return order;
+    }
+
+    /**
+     * Finds the critical path(the most expensive chain of the tasks).
+     *
+     * @return the nodes on the critical path.
+     */
+    private List<Node> findCriticalPath() {
+        List<Node> path = new ArrayList<>();
+
+        Node next = null;
+        for (Node n : nodes) {
+            if (n.predecessors.isEmpty() && (next == null || n.rank > next.rank)) {
+                next = n;
+            }
+        }
+
+        while (next != null) {
+            path.add(next);
+
+            Node best = null;
+            for (Node s : next.successors) {
+                if (best == null || s.rank > best.rank) {
+                    best = s;
+                }
+            }
+            next = best;
+        }
+
+        return Collections.unmodifiableList(path);
+    }
+
+    /**
+     * Submits the graph to the engine. The graph cannot be modified afterwards.
+     *
+     * @param engine the engine.
+     */
+    public synchronized void submit(Engine engine) {
+        checkNotSubmitted();
+
+        computeRanks();
+        criticalPath = findCriticalPath();
+
+        remaining.set(nodes.size());
+        submitTime = System.nanoTime();
+        this.engine = engine;
+
+        if (nodes.isEmpty()) {
+            completed.release();
+            return;
+        }
+
+        for (Node n : nodes) {
+            List<Dependency> deps = new ArrayList<>(n.predecessors.size() + 1);
+            for (Node p : n.predecessors) {
+                deps.add(p.future);
+            }
+
+            int pending = n.predecessors.size();
+            if (!n.external.isEmpty()) {
+                // The node enters its ready queue only after the outside dependencies are
+                // released, so that it does not hold an engine slot while waiting for them.
+                n.gate = engine.submitTask(() -> {}, n.external.toArray(new Dependency[0]));
+                deps.add(n.gate);
+                pending++;
+            }
+            n.pending.set(pending);
+
+            n.wrapped = n.future.wrap(() -> {
+                n.startTime = System.nanoTime();
+                n.threadName = Thread.currentThread().getName();
+                try {
+                    n.task.run();
+                } finally {
+                    n.endTime = System.nanoTime();
+                }
+            }, deps.toArray(new Dependency[0]));
+            // Invoked also when the engine rejects the node, so the successors are not stuck.
+            n.future.onComplete(() -> finished(n));
+        }
+
+        // Every node is prepared before any of them can finish.
+        for (Node n : nodes) {
+            if (n.pending.get() == 0) {
+                makeReady(n);
+            }
+        }
+        for (Node n : nodes) {
+            if (n.gate != null) {
+                n.gate.onComplete(() -> satisfied(n));
+            }
+        }
+        dispatch();
+    }
+
+    /**
+     * Marks one of the node's dependencies(a predecessor or the outside dependencies) satisfied.
+     *
+     * @param n the node.
+     */
+    private void satisfied(Node n) {
+        if (n.pending.decrementAndGet() == 0) {
+            makeReady(n);
+            dispatch();
+        }
+    }
+
+    private void makeReady(Node n) {
+        n.readyTime = System.nanoTime();
+        synchronized (ready) {
+            ready[n.executor.ordinal()].add(n);
+        }
+    }
+
+    /** Gives the ready nodes to the engine(the longest path first) while the limits allow it. */
+    private void dispatch() {
+        List<Node> taken = new ArrayList<>();
+        synchronized (ready) {
+            for (int i = 0; i < EXECUTOR_CLASSES; i++) {
+                while (running[i] < concurrency[i] && !ready[i].isEmpty()) {
+                    taken.add(ready[i].poll());
+                    running[i]++;
+                }
+            }
+        }
+
+        for (Node n : taken) {
+            try {
+                switch (n.executor) {
+                    case MAIN:
+                        engine.addTask(n.wrapped);
+                        break;
+                    case CONFIG:
+                        engine.addConfig(n.wrapped);
+                        break;
+                    case FAST:
+                        engine.addFast(n.wrapped);
+                        break;
+                    case SLOW:
+                        engine.addSlow(n.wrapped);
+                        break;
+                    default:
+                        throw new AssertionError("Unknown executor class.");
+                }
+            } catch (RejectedExecutionException e) {
+                n.future.fail(e);
+            }
+        }
+    }
+
+    /**
+     * Updates the successors of a finished(or failed) node and dispatches the nodes that became
+     * ready.
+     *
+     * @param n the node.
+     */
+    private void finished(Node n) {
+        synchronized (ready) {
+            running[n.executor.ordinal()]--;
+        }
+
+        for (Node s : n.successors) {
+            if (s.pending.decrementAndGet() == 0) {
+                makeReady(s);
+            }
+        }
+        dispatch();
+
+        if (remaining.decrementAndGet() == 0) {
+            completed.release();
+        }
+    }
+
+    /**
+     * Returns the critical path of the graph. Available after the graph was submitted.
+     *
+     * @return the nodes on the critical path.
+     */
+    public synchronized List<Node> getCriticalPath() {
+        return criticalPath;
+    }
+
+    /**
+     * Returns the estimated cost of the critical path. Available after the graph was submitted.
+     *
+     * @return the cost of the critical path.
+     */
+    public synchronized long getCriticalPathCost() {
+        return criticalPath.isEmpty() ? 0 : criticalPath.get(0).rank;
+    }
+
+    /**
+     * Returns the registered nodes.
+     *
+     * @return the nodes.
+     */
+    public synchronized List<Node> getNodes() {
+        return Collections.unmodifiableList(new ArrayList<>(nodes));
+    }
+
+    /**
+     * Exports the realized schedule in the chrome tracing format(chrome://tracing). Every
+     * performed task is a complete event with the time measured from the graph submission. The
+     * nodes that were not performed(yet) are omitted.
+     *
+     * @return the schedule.
+     */
+    public synchronized JSONArray exportSchedule() {
+        JSONArray events = new JSONArray();
+
+        for (Node n : nodes) {
+            if (n.endTime == 0) {
+                continue;
+            }
+
+            JSONObject args = new JSONObject();
+            args.put("executor", n.executor.name());
+            args.put("cost", n.cost);
+            args.put("rank", n.rank);
+            args.put("critical", criticalPath.contains(n));
+            args.put("queuedUs", (n.startTime - n.readyTime) / 1000);
+            args.put("failed", n.future.isFailed());
+
+            JSONObject event = new JSONObject();
+            event.put("name", n.name);
+            event.put("ph", "X");
+            event.put("pid", 0);
+            event.put("tid", n.threadName);
+            event.put("ts", (n.startTime - submitTime) / 1000);
+            event.put("dur", (n.endTime - n.startTime) / 1000);
+            event.put("args", args);
+
+            events.put(event);
+        }
+
+        return events;
+    }
+
+    /**
+     * Returns a dependency that is released when every task of the graph finished.
+     *
+     * @return the dependency.
+     */
+    @Override
+    public Dependency getDependency() {
+        return completed;
+    }
+}
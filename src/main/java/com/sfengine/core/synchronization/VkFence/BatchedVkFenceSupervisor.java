@@ -0,0 +1,193 @@
+package com.sfengine.core.synchronization.VkFence;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.vulkan.VK10.*;
+
+import com.sfengine.core.resources.Destroyable;
+import com.sfengine.core.result.VulkanResult;
+import org.lwjgl.vulkan.VkDevice;
+
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Fence supervisor that checks all of the pending fences at once. Every check performs a single
+ * vkWaitForFences(waitAll = false, timeout = 0) call. Only if any of the fences was signalled the
+ * signalled ones are searched for, as Vulkan does not report which fence it was:
+ *
+ * <ul>
+ *   <li>the fences are kept in the submission order, and as the fences of a queue are signalled
+ *       in that order, the signalled prefix is found with a binary search of waitAll calls,
+ *   <li>the remaining signalled fences(eg. from other queues) are found by halving the ranges
+ *       that contain a signalled fence.
+ * </ul>
+ *
+ * <p>Hence a tick costs one call when no fence was signalled, O(log N) calls for the fences
+ * signalled in the submission order and O(log N) calls per fence signalled out of order, instead
+ * of a vkGetFenceStatus call per pending fence. The fences of multiple devices are still checked
+ * one by one.
+ *
+ * <p><b>Note:</b> the fences handles are passed to Vulkan through a preallocated buffer, which is
+ * only reallocated when the number of pending fences grows above its capacity.
+ */
+public class BatchedVkFenceSupervisor extends VkFenceSupervisor implements Destroyable {
+
+    /** Initial capacity of the fence handle buffer. */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /** The pending fences in the submission order. */
+    private final List<VkFenceWrapper> pending = new ArrayList<>();
+    /** The signalled fences found during a check(reused). */
+    private final BitSet signalled = new BitSet();
+
+    private LongBuffer pFences = memAllocLong(INITIAL_CAPACITY);
+
+    @Override
+    public void addFence(VkFenceWrapper fence) {
+        synchronized (pending) {
+            pending.add(fence);
+        }
+    }
+
+    @Override
+    public void checkAll() {
+        synchronized (pending) {
+            int count = pending.size();
+            if (count == 0 || pFences == null) {
+                return;
+            }
+
+            if (count > pFences.capacity()) {
+                pFences = memRealloc(pFences, Math.max(count, pFences.capacity() * 2));
+            }
+
+            VkDevice device = pending.get(0).getDevice();
+            boolean sameDevice = true;
+
+            pFences.clear();
+            for (int i = 0; i < count; i++) {
+                VkFenceWrapper fence = pending.get(i);
+                if (fence.getDevice() != device) {
+                    sameDevice = false;
+                    break;
+                }
+
+                pFences.put(i, fence.getFence());
+            }
+
+            signalled.clear();
+            long seen;
+            if (sameDevice) {
+                if (!isSignalled(device, 0, count, false)) {
+                    return;
+                }
+                seen = System.nanoTime();
+
+                // The largest prefix of the signalled fences.
+                int lo = 0, hi = count + 1;
+                while (hi - lo > 1) {
+                    int mid = (lo + hi) >>> 1;
+                    if (isSignalled(device, 0, mid, true)) {
+                        lo = mid;
+                    } else {
+                        hi = mid;
+                    }
+                }
+                signalled.set(0, lo);
+
+                // The fence at 'lo' is not signalled, the rest may contain signalled fences.
+                if (lo + 1 < count && isSignalled(device, lo + 1, count, false)) {
+                    find(device, lo + 1, count);
+                }
+            } else {
+                seen = System.nanoTime();
+                // With fences from multiple devices each of them must be checked.
+                for (int i = 0; i < count; i++) {
+                    if (vkGetFenceStatus(pending.get(i).getDevice(), pending.get(i).getFence())
+                            == VK_SUCCESS) {
+                        signalled.set(i);
+                    }
+                }
+            }
+
+            // Releases the signalled fences and keeps the order of the pending ones.
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                VkFenceWrapper fence = pending.get(i);
+                if (signalled.get(i)) {
+                    fence.signalled(seen);
+                    released(fence);
+                } else {
+                    pending.set(kept++, fence);
+                }
+            }
+            pending.subList(kept, count).clear();
+        }
+    }
+
+    @Override
+    public boolean needsChecks() {
+        synchronized (pending) {
+            return !pending.isEmpty();
+        }
+    }
+
+    /**
+     * Marks the signalled fences within a range that contains at least one signalled fence.
+     *
+     * @param device the device.
+     * @param from the first fence index.
+     * @param to the index after the last fence.
+     */
+    private void find(VkDevice device, int from, int to) {
+        if (to - from == 1) {
+            signalled.set(from);
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        if (isSignalled(device, from, mid, false)) {
+            find(device, from, mid);
+        }
+        if (isSignalled(device, mid, to, false)) {
+            find(device, mid, to);
+        }
+    }
+
+    /**
+     * Checks a range of the fences with a single vkWaitForFences call.
+     *
+     * @param device the device.
+     * @param from the first fence index.
+     * @param to the index after the last fence.
+     * @param all whether all of the fences(or any of them) must be signalled.
+     * @return true if the fences are signalled.
+     */
+    private boolean isSignalled(VkDevice device, int from, int to, boolean all) {
+        if (from >= to) {
+            return true;
+        }
+
+        pFences.limit(to).position(from);
+        int err = vkWaitForFences(device, pFences, all, 0);
+        pFences.clear();
+        if (err == VK_TIMEOUT) {
+            return false;
+        }
+        VulkanResult.assertValidate(err, "Failed to wait for the fences.");
+
+        return true;
+    }
+
+    /** Frees the fence handle buffer. The pending fences will no longer be checked. */
+    @Override
+    public void destroy() {
+        synchronized (pending) {
+            memFree(pFences);
+            pFences = null;
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.sfengine.core.synchronization.VkFence;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.vulkan.VK10.*;
+
+import com.sfengine.core.resources.Destroyable;
+import com.sfengine.core.result.VulkanResult;
+import org.lwjgl.vulkan.VkDevice;
+
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fence supervisor backed by a dedicated thread that blocks inside the driver(vkWaitForFences)
+ * instead of polling the fences every engine tick. The thread sleeps while there are no pending
+ * fences and is woken up as soon as a fence is added, so the dependencies are released right after
+ * the GPU signals the fences.
+ *
+ * <p>The {@link #checkAll()} method does nothing, thus the supervisor does not need a
+ * {@link VkFenceSupervisorTask}.
+ */
+public class BlockingVkFenceSupervisor extends VkFenceSupervisor implements Destroyable {
+
+    /**
+     * The maximal time of a single wait. It bounds the delay of the fences added while the thread
+     * is already waiting for the other fences.
+     */
+    private static final long WAIT_TIMEOUT_NANOS = 1_000_000L;
+    /** Initial capacity of the fence handle buffer. */
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final List<VkFenceWrapper> pending = new ArrayList<>();
+
+    /** The fence handle buffer(used only by the waiter thread). */
+    private LongBuffer pFences = memAllocLong(INITIAL_CAPACITY);
+
+    private volatile boolean running = true;
+    private final Thread waiter;
+
+    /** Creates the supervisor and starts its thread. */
+    public BlockingVkFenceSupervisor() {
+        waiter = new Thread(this::waitLoop, "SFE-fence-waiter");
+        waiter.setDaemon(true);
+        waiter.start();
+    }
+
+    @Override
+    public void addFence(VkFenceWrapper fence) {
+        synchronized (pending) {
+            pending.add(fence);
+            pending.notifyAll();
+        }
+    }
+
+    /** Does nothing as the fences are checked by the supervisor's thread. */
+    @Override
+    public void checkAll() {
+    }
+
+    /** The fences are checked by the supervisor's thread, so the ticks never need to check them. */
+    @Override
+    public boolean needsChecks() {
+        return false;
+    }
+
+    /** The waiter thread loop. */
+    private void waitLoop() {
+        try {
+            while (running) {
+                VkDevice device;
+
+                synchronized (pending) {
+                    while (running && pending.isEmpty()) {
+                        pending.wait();
+                    }
+                    if (!running) {
+                        return;
+                    }
+
+                    int count = pending.size();
+                    if (count > pFences.capacity()) {
+                        pFences = memRealloc(pFences, Math.max(count, pFences.capacity() * 2));
+                    }
+
+                    // Waits only for the fences of the oldest pending fence's device.
+                    device = pending.get(0).getDevice();
+                    pFences.clear();
+                    for (int i = 0; i < count; i++) {
+                        VkFenceWrapper fence = pending.get(i);
+                        if (fence.getDevice() == device) {
+                            pFences.put(fence.getFence());
+                        }
+                    }
+                    pFences.flip();
+                }
+
+                int err = vkWaitForFences(device, pFences, false, WAIT_TIMEOUT_NANOS);
+                if (err == VK_TIMEOUT) {
+                    continue;
+                }
+                VulkanResult.assertValidate(err, "Failed to wait for the fences.");
+
+                releaseSignalled(System.nanoTime());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (pending) {
+                memFree(pFences);
+                pFences = null;
+            }
+        }
+    }
+
+    /**
+     * Releases every signalled fence.
+     *
+     * @param seen the time the wait returned(the fences were seen signalled).
+     */
+    private void releaseSignalled(long seen) {
+        synchronized (pending) {
+            for (int i = pending.size() - 1; i >= 0; i--) {
+                VkFenceWrapper fence = pending.get(i);
+                if (vkGetFenceStatus(fence.getDevice(), fence.getFence()) == VK_SUCCESS) {
+                    fence.signalled(seen);
+                    released(fence);
+                    int last = pending.size() - 1;
+                    pending.set(i, pending.get(last));
+                    pending.remove(last);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the supervisor's thread and waits until it has finished. The pending fences will no
+     * longer be checked.
+     */
+    @Override
+    public void destroy() {
+        synchronized (pending) {
+            running = false;
+            pending.clear();
+            pending.notifyAll();
+        }
+
+        // The waiter may be inside vkWaitForFences(bounded by WAIT_TIMEOUT_NANOS), the fences
+        // can be destroyed only after it has returned.
+        boolean interrupted = false;
+        while (waiter.isAlive()) {
+            try {
+                waiter.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+}
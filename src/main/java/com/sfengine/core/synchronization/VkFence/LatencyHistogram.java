@@ -0,0 +1,114 @@
+package com.sfengine.core.synchronization.VkFence;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe histogram of latencies with power of two(microsecond) buckets. Bucket 0 counts the
+ * latencies below 1us and bucket i the latencies in [2^(i-1), 2^i) microseconds.
+ */
+public class LatencyHistogram {
+
+    /** Number of the buckets(the last one counts everything above ~35 minutes). */
+    public static final int BUCKETS = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        total.addAndGet(nanos);
+
+        long m;
+        while (nanos > (m = max.get()) && !max.compareAndSet(m, nanos)) {
+            // Retries.
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the number of latencies in the given bucket.
+     *
+     * @param bucket the bucket index.
+     * @return the number of latencies.
+     */
+    public long getBucket(int bucket) {
+        return buckets.get(bucket);
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    public long getMeanNanos() {
+        long c = count.get();
+        return c == 0 ? 0 : total.get() / c;
+    }
+
+    /**
+     * Returns the upper bound(in microseconds) of the bucket containing the given percentile.
+     *
+     * @param percentile the percentile(from 0 to 100).
+     * @return the latency upper bound in microseconds.
+     */
+    public long getPercentileMicros(double percentile) {
+        long c = count.get();
+        if (c == 0) {
+            return 0;
+        }
+
+        long target = (long) Math.ceil(c * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= Math.max(1, target)) {
+                return 1L << i;
+            }
+        }
+
+        return 1L << (BUCKETS - 1);
+    }
+
+    /** Clears the histogram. */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("count=").append(getCount())
+                .append(" mean=").append(getMeanNanos() / 1000).append("us")
+                .append(" p50<").append(getPercentileMicros(50)).append("us")
+                .append(" p99<").append(getPercentileMicros(99)).append("us")
+                .append(" max=").append(getMaxNanos() / 1000).append("us");
+
+        for (int i = 0; i < BUCKETS; i++) {
+            long b = buckets.get(i);
+            if (b != 0) {
+                sb.append("\n  <").append(1L << i).append("us: ").append(b);
+            }
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.sfengine.core.synchronization.VkFence;
+
+import static org.lwjgl.vulkan.VK10.*;
+
+import com.sfengine.core.context.ContextDictionary;
+import com.sfengine.core.context.ContextUtil;
+import com.sfengine.core.result.VulkanResult;
+import com.sfengine.core.synchronization.VkHandlePool;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.vulkan.VkDevice;
+import org.lwjgl.vulkan.VkFenceCreateInfo;
+
+import java.nio.LongBuffer;
+
+/**
+ * A recycling pool of fences(one per device). The fences are reset when they are returned to the
+ * pool, so they must not be used by any pending submission at that time(eg. they must be
+ * signalled).
+ */
+public class VkFencePool extends VkHandlePool {
+
+    private static final Registry<VkFencePool> pools = new Registry<>(VkFencePool::new);
+
+    private VkFencePool(VkDevice device) {
+        super(device);
+    }
+
+    /**
+     * Returns the fence pool of the device.
+     *
+     * @param device the device.
+     * @return the pool.
+     */
+    public static VkFencePool get(VkDevice device) {
+        return pools.get(device);
+    }
+
+    /**
+     * Returns the fence pool of the dictionary's device.
+     *
+     * @param dict the context dictionary.
+     * @return the pool.
+     */
+    public static VkFencePool get(ContextDictionary dict) {
+        return get(ContextUtil.getDevice(dict).getDevice());
+    }
+
+    @Override
+    protected long createHandle() {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            VkFenceCreateInfo ci = VkFenceCreateInfo.callocStack(stack)
+                    .sType(VK_STRUCTURE_TYPE_FENCE_CREATE_INFO);
+            LongBuffer pFence = stack.mallocLong(1);
+
+            int err = vkCreateFence(device, ci, null, pFence);
+            VulkanResult.assertValidate(err, "Failed to create fence.");
+
+            return pFence.get(0);
+        }
+    }
+
+    @Override
+    protected void destroyHandle(long fence) {
+        vkDestroyFence(device, fence, null);
+    }
+
+    @Override
+    protected void resetHandles(long[] fences) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            int err = vkResetFences(device, stack.longs(fences));
+            VulkanResult.assertValidate(err, "Failed to reset fences.");
+        }
+    }
+
+    /**
+     * Destroys the free fences of the device's pool and forgets the pool.
+     *
+     * @param device the device.
+     */
+    public static void destroyPool(VkDevice device) {
+        pools.destroy(device);
+    }
+}
@@ -6,6 +6,9 @@ public class VkFenceSupervisor {
 
     private final Queue<VkFenceWrapper> fences = new LinkedList<>();
 
+    /** Histogram of the signal to release latencies(or null). */
+    private volatile LatencyHistogram histogram;
+
     public void addFence(VkFenceWrapper fence) {
         synchronized (fences) {
             fences.add(fence);
@@ -19,8 +22,10 @@ public class VkFenceSupervisor {
             if (fence == null)
                 return;
 
-            if (fence.check())
+            if (fence.check()) {
                 fences.poll();
+                released(fence);
+            }
         }
 //        List<VkFenceWrapper> toRemove = new LinkedList<>();
 //
@@ -33,4 +38,43 @@ public class VkFenceSupervisor {
 //            fences.removeAll(toRemove);
 //        }
     }
+
+    /**
+     * Tells whether {@link #checkAll()} has pending fences to check.
+     *
+     * @return true if there are pending fences.
+     */
+    public boolean needsChecks() {
+        synchronized (fences) {
+            return !fences.isEmpty();
+        }
+    }
+
+    /**
+     * Invoked after the dependency of a fence was released.
+     *
+     * @param fence the fence.
+     */
+    protected void released(VkFenceWrapper fence) {
+        LatencyHistogram h = histogram;
+        if (h != null) {
+            h.record(System.nanoTime() - fence.getSignalledNanos());
+        }
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Sets the histogram of the latencies between the moment the supervisor sees a fence
+     * signalled(its status query or wait returned) and the dependency release. It measures the
+     * supervisor's own release cost(eg. the searches and the status calls after a wait), not the
+     * time the fence stayed signalled before the supervisor looked at it.
+     *
+     * @param histogram the histogram or null to disable the measurements.
+     */
+    public void setHistogram(LatencyHistogram histogram) {
+        this.histogram = histogram;
+    }
 }
@@ -15,4 +15,9 @@ public class VkFenceSupervisorTask implements EngineTask {
     public void run() throws AssertionError {
         supervisor.checkAll();
     }
+
+    @Override
+    public boolean isBusy() {
+        return supervisor.needsChecks();
+    }
 }
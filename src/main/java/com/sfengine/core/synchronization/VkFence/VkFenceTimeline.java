@@ -0,0 +1,175 @@
+package com.sfengine.core.synchronization.VkFence;
+
+import static org.lwjgl.vulkan.VK10.*;
+
+import com.sfengine.core.engine.EngineTask;
+import com.sfengine.core.synchronization.Dependency;
+import com.sfengine.core.synchronization.DependencyLatch;
+import org.lwjgl.vulkan.VkDevice;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A monotonically increasing counter of the work submitted to a single queue. Every submission
+ * gets the next value of the timeline and the timeline's completed value advances as the GPU
+ * finishes the submissions(which on a single queue complete in order). Thus a single timeline
+ * tracks any number of frames in flight, and a dependency on a submission is just a value of the
+ * counter.
+ *
+ * <p>The submissions are signalled with reusable binary fences(owned by the caller) instead of
+ * the timeline semaphores, so the timeline works with Vulkan 1.0 devices.
+ *
+ * <p>The timeline must be checked regularly, it is an engine task that can be added to the tick
+ * task list.
+ */
+public class VkFenceTimeline implements EngineTask {
+
+    /** Initial capacity of the pending submission ring. */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /** A dependency that is already released. */
+    private static final DependencyLatch RELEASED = new DependencyLatch();
+
+    static {
+        RELEASED.release();
+    }
+
+    private final VkDevice device;
+
+    /** The last value handed out. */
+    private long submitted = 0;
+    /** The last completed value. */
+    private volatile long completed = 0;
+
+    /** Ring of the pending submissions(the values and their fences). */
+    private long[] values = new long[INITIAL_CAPACITY], fences = new long[INITIAL_CAPACITY];
+    private int head = 0, size = 0;
+
+    /** The dependencies waiting for the values. */
+    private final ConcurrentNavigableMap<Long, DependencyLatch> waiting =
+            new ConcurrentSkipListMap<>();
+
+    /**
+     * Creates a timeline for a queue of the device.
+     *
+     * @param device the device.
+     */
+    public VkFenceTimeline(VkDevice device) {
+        this.device = device;
+    }
+
+    /**
+     * Registers a new submission. Must be invoked before the submission is made with the given
+     * (unsignalled) fence.
+     *
+     * @param fence the fence that will be signalled by the submission.
+     * @return the timeline value of the submission.
+     */
+    public synchronized long next(long fence) {
+        if (size == values.length) {
+            long[] newValues = new long[size * 2];
+            long[] newFences = new long[size * 2];
+            for (int i = 0; i < size; i++) {
+                newValues[i] = values[(head + i) % size];
+                newFences[i] = fences[(head + i) % size];
+            }
+            values = newValues;
+            fences = newFences;
+            head = 0;
+        }
+
+        int tail = (head + size) % values.length;
+        values[tail] = ++submitted;
+        fences[tail] = fence;
+        size++;
+
+        return submitted;
+    }
+
+    /**
+     * Checks the pending submissions(in the submission order) and advances the completed value.
+     */
+    public void check() {
+        long value = 0;
+
+        synchronized (this) {
+            while (size > 0 && vkGetFenceStatus(device, fences[head]) == VK_SUCCESS) {
+                value = values[head];
+                head = (head + 1) % values.length;
+                size--;
+            }
+
+            if (value == 0) {
+                return;
+            }
+            completed = value;
+        }
+
+        Map.Entry<Long, DependencyLatch> e;
+        while ((e = waiting.firstEntry()) != null && e.getKey() <= value) {
+            if (waiting.remove(e.getKey(), e.getValue())) {
+                e.getValue().release();
+            }
+        }
+    }
+
+    @Override
+    public void run() throws AssertionError {
+        check();
+    }
+
+    /** The timeline is busy while any submission is pending. */
+    @Override
+    public synchronized boolean isBusy() {
+        return size > 0;
+    }
+
+    /**
+     * Returns a dependency that is released when the timeline reaches the value.
+     *
+     * @param value the timeline value.
+     * @return the dependency.
+     */
+    public Dependency getDependency(long value) {
+        if (value <= completed) {
+            return RELEASED;
+        }
+
+        DependencyLatch latch = waiting.get(value);
+        if (latch == null) {
+            DependencyLatch fresh = new DependencyLatch();
+            latch = waiting.putIfAbsent(value, fresh);
+            if (latch == null) {
+                latch = fresh;
+            }
+        }
+
+        // The value might have been reached in the meantime.
+        if (value <= completed) {
+            waiting.remove(value, latch);
+            latch.release();
+        }
+
+        return latch;
+    }
+
+    /**
+     * Returns the last completed value(the counter value).
+     *
+     * @return the completed value.
+     */
+    public long getCompletedValue() {
+        return completed;
+    }
+
+    /**
+     * Returns the last value handed out.
+     *
+     * @return the submitted value.
+     */
+    public synchronized long getSubmittedValue() {
+        return submitted;
+    }
+}
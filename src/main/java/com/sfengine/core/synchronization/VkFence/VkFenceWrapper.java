@@ -2,16 +2,18 @@ package com.sfengine.core.synchronization.VkFence;
 
 import com.sfengine.core.synchronization.Dependable;
 import com.sfengine.core.synchronization.Dependency;
-import com.sfengine.core.synchronization.DependencyFence;
+import com.sfengine.core.synchronization.DependencyLatch;
 import org.lwjgl.vulkan.VkDevice;
 
 import static org.lwjgl.vulkan.VK10.*;
 
 public class VkFenceWrapper implements Dependable {
 
-    private final DependencyFence dep = new DependencyFence();
+    private final DependencyLatch dep = new DependencyLatch();
     private VkDevice device;
     private long vkFence;
+    /** The time a supervisor saw the fence signalled(0 if it did not yet). */
+    private volatile long signalledNanos = 0;
 
     protected VkFenceWrapper(VkDevice device, long vkFence) {
         this.device = device;
@@ -25,15 +27,39 @@ public class VkFenceWrapper implements Dependable {
         return vkFence;
     }
 
+    public VkDevice getDevice() {
+        return device;
+    }
+
+    /**
+     * Returns the time when a supervisor saw the fence signalled(a successful status query or
+     * wait), before it released the dependency.
+     *
+     * @return the time(System.nanoTime()) or 0 if the fence was not seen signalled yet.
+     */
+    public long getSignalledNanos() {
+        return signalledNanos;
+    }
+
     public boolean check() {
         if (vkGetFenceStatus(device, vkFence) == VK_SUCCESS) {
-            dep.release();
+            signalled(System.nanoTime());
             return true;
         }
 
         return false;
     }
 
+    /**
+     * Releases the dependency of a fence that is known to be signalled.
+     *
+     * @param seenNanos the time(System.nanoTime()) the fence was seen signalled.
+     */
+    void signalled(long seenNanos) {
+        signalledNanos = seenNanos;
+        dep.release();
+    }
+
     @Override
     public Dependency getDependency() {
         return dep;
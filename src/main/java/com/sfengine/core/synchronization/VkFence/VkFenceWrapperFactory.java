@@ -2,26 +2,18 @@ package com.sfengine.core.synchronization.VkFence;
 
 import com.sfengine.core.context.ContextDictionary;
 import com.sfengine.core.context.ContextUtil;
-import com.sfengine.core.result.VulkanException;
 import com.sfengine.core.synchronization.VkFence.VkFenceWrapper;
 import org.lwjgl.vulkan.VK10;
 import org.lwjgl.vulkan.VkDevice;
-import org.lwjgl.vulkan.VkFenceCreateInfo;
 
 import java.nio.LongBuffer;
 
 import static org.lwjgl.system.MemoryUtil.*;
 import static org.lwjgl.vulkan.VK10.*;
-import static com.sfengine.core.result.VulkanResult.*;
 
 
 public class VkFenceWrapperFactory {
 
-    private static final VkFenceCreateInfo CREATE_INFO = VkFenceCreateInfo.calloc()
-            .sType(VK_STRUCTURE_TYPE_FENCE_CREATE_INFO)
-            .pNext(NULL)
-            .flags(0);
-
     private static VkFenceWrapper[] create(ContextDictionary dict, long... fences) {
         VkFenceWrapper[] out = new VkFenceWrapper[fences.length];
 
@@ -43,19 +35,12 @@ public class VkFenceWrapperFactory {
         memFree(lbuf);
     }
 
-    private static VkFenceWrapper[] createMany(ContextDictionary dict, VkFenceCreateInfo ci, int count) throws VulkanException {
+    private static VkFenceWrapper[] createMany(ContextDictionary dict, int count) {
+        VkFencePool pool = VkFencePool.get(dict);
         long[] fences = new long[count];
-        LongBuffer lbuf = memAllocLong(1);
-
-        int err;
-
-        for (int i = 0; i < count; i++) {
-            err = vkCreateFence(ContextUtil.getDevice(dict).getDevice(), ci, null, lbuf);
-            validate(err, "Failed to create fences.");
-            fences[i] = lbuf.get(0);
-        }
 
-//        memFree(lbuf);
+        for (int i = 0; i < count; i++)
+            fences[i] = pool.acquire();
 
         return create(dict, fences);
     }
@@ -70,12 +55,7 @@ public class VkFenceWrapperFactory {
     }
 
     public static VkFenceWrapper[] createWrapper(ContextDictionary dict, int count) {
-        try {
-            return createMany(dict, CREATE_INFO, count);
-        } catch (VulkanException e) {
-            e.printStackTrace();
-            throw new AssertionError("Failed to create fence wrappers.", e);
-        }
+        return createMany(dict, count);
     }
 
     public static VkFenceWrapper[] recreateWrapper(ContextDictionary dict, VkFenceWrapper... wrappers) {
@@ -93,4 +73,20 @@ public class VkFenceWrapperFactory {
             vkDestroyFence(device, fence.getFence(), null);
     }
 
+    /**
+     * Returns the fences of the wrappers to the device's fence pool. The fences must not be used
+     * by any pending submission.
+     *
+     * @param device the device.
+     * @param wrappers the fence wrappers.
+     */
+    public static void recycle(VkDevice device, VkFenceWrapper... wrappers) {
+        long[] handles = new long[wrappers.length];
+
+        for(int i = 0; i < wrappers.length; i++)
+            handles[i] = wrappers[i].getFence();
+
+        VkFencePool.get(device).release(handles);
+    }
+
 }
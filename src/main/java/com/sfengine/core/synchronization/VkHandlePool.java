@@ -0,0 +1,174 @@
+package com.sfengine.core.synchronization;
+
+import com.sfengine.core.resources.Destroyable;
+import org.lwjgl.vulkan.VkDevice;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A recycling pool of Vulkan handles of a single device. The free handles are kept on a growable
+ * stack, a handle is created only when the stack is empty.
+ *
+ * <p>The pool counts the created and reused handles, so that it can be verified that no handles
+ * are created in the steady state.
+ */
+public abstract class VkHandlePool implements Destroyable {
+
+    /** Initial capacity of the free handle stack. */
+    private static final int INITIAL_CAPACITY = 8;
+
+    protected final VkDevice device;
+
+    /** The free handles. */
+    private long[] free = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private final AtomicLong created = new AtomicLong(), reused = new AtomicLong();
+
+    protected VkHandlePool(VkDevice device) {
+        this.device = device;
+    }
+
+    /**
+     * Creates a new handle.
+     *
+     * @return the handle.
+     */
+    protected abstract long createHandle();
+
+    /**
+     * Destroys a free handle.
+     *
+     * @param handle the handle.
+     */
+    protected abstract void destroyHandle(long handle);
+
+    /**
+     * Prepares the handles to be reused, invoked(outside of the pool's lock) before they are
+     * returned to the pool.
+     *
+     * @param handles the released handles.
+     */
+    protected void resetHandles(long[] handles) {
+
+    }
+
+    /**
+     * Takes a handle from the pool or creates a new one if the pool is empty.
+     *
+     * @return the handle.
+     */
+    public long acquire() {
+        synchronized (this) {
+            if (size > 0) {
+                reused.incrementAndGet();
+                return free[--size];
+            }
+        }
+
+        long handle = createHandle();
+        created.incrementAndGet();
+        return handle;
+    }
+
+    /**
+     * Returns the handles to the pool.
+     *
+     * @param handles the handles without pending operations.
+     */
+    public void release(long... handles) {
+        if (handles.length == 0) {
+            return;
+        }
+
+        resetHandles(handles);
+
+        synchronized (this) {
+            if (size + handles.length > free.length) {
+                long[] grown = new long[Math.max(free.length * 2, size + handles.length)];
+                System.arraycopy(free, 0, grown, 0, size);
+                free = grown;
+            }
+
+            for (long handle : handles) {
+                free[size++] = handle;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of handles created by the pool.
+     *
+     * @return the created handle count.
+     */
+    public long getCreatedCount() {
+        return created.get();
+    }
+
+    /**
+     * Returns the number of handles that were reused instead of being created.
+     *
+     * @return the reused handle count.
+     */
+    public long getReusedCount() {
+        return reused.get();
+    }
+
+    /**
+     * Returns the number of the handles in the pool.
+     *
+     * @return the free handle count.
+     */
+    public synchronized int getFreeCount() {
+        return size;
+    }
+
+    /** Destroys the handles in the pool(the handles in use are not affected). */
+    @Override
+    public synchronized void destroy() {
+        for (int i = 0; i < size; i++) {
+            destroyHandle(free[i]);
+        }
+        size = 0;
+    }
+
+    /**
+     * The pools of a handle type, one per device.
+     *
+     * @param <T> the pool type.
+     */
+    public static class Registry<T extends VkHandlePool> {
+
+        private final Map<VkDevice, T> pools = new ConcurrentHashMap<>();
+        private final Function<VkDevice, T> factory;
+
+        public Registry(Function<VkDevice, T> factory) {
+            this.factory = factory;
+        }
+
+        /**
+         * Returns the pool of the device.
+         *
+         * @param device the device.
+         * @return the pool.
+         */
+        public T get(VkDevice device) {
+            return pools.computeIfAbsent(device, factory);
+        }
+
+        /**
+         * Destroys the free handles of the device's pool and forgets the pool.
+         *
+         * @param device the device.
+         */
+        public void destroy(VkDevice device) {
+            T pool = pools.remove(device);
+            if (pool != null) {
+                pool.destroy();
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.sfengine.core.synchronization.VkSemaphore;
 import com.sfengine.core.context.ContextDictionary;
 import com.sfengine.core.context.ContextUtil;
 import com.sfengine.core.result.VulkanResult;
+import org.lwjgl.system.MemoryStack;
 import org.lwjgl.vulkan.VkDevice;
 import org.lwjgl.vulkan.VkSemaphoreCreateInfo;
 
@@ -23,13 +24,17 @@ public class VkSemaphoreFactory {
             .pNext(NULL)
             .flags(0);
 
-    private static LongBuffer handleBuffer = memAllocLong(1);
-
     public static long createSemaphore(VkDevice device) {
-        int err = vkCreateSemaphore(device, basicCI, null, handleBuffer);
-        VulkanResult.assertValidate(err, "Failed to acquire semaphore!");
+        // The handle buffer is allocated on the thread's stack, so the semaphores can be created
+        // from many threads at once.
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            LongBuffer handleBuffer = stack.mallocLong(1);
+
+            int err = vkCreateSemaphore(device, basicCI, null, handleBuffer);
+            VulkanResult.assertValidate(err, "Failed to acquire semaphore!");
 
-        return handleBuffer.get(0);
+            return handleBuffer.get(0);
+        }
     }
 
     public static long createSemaphore(ContextDictionary dict) {
@@ -0,0 +1,59 @@
+package com.sfengine.core.synchronization.VkSemaphore;
+
+import com.sfengine.core.context.ContextDictionary;
+import com.sfengine.core.context.ContextUtil;
+import com.sfengine.core.synchronization.VkHandlePool;
+import org.lwjgl.vulkan.VkDevice;
+
+/**
+ * A recycling pool of binary semaphores(one per device). The semaphores returned to the pool must
+ * be unsignalled and must not have any pending operations, eg. they can be returned once the
+ * fence of the submission that waited on them is signalled.
+ */
+public class VkSemaphorePool extends VkHandlePool {
+
+    private static final Registry<VkSemaphorePool> pools = new Registry<>(VkSemaphorePool::new);
+
+    private VkSemaphorePool(VkDevice device) {
+        super(device);
+    }
+
+    /**
+     * Returns the semaphore pool of the device.
+     *
+     * @param device the device.
+     * @return the pool.
+     */
+    public static VkSemaphorePool get(VkDevice device) {
+        return pools.get(device);
+    }
+
+    /**
+     * Returns the semaphore pool of the dictionary's device.
+     *
+     * @param dict the context dictionary.
+     * @return the pool.
+     */
+    public static VkSemaphorePool get(ContextDictionary dict) {
+        return get(ContextUtil.getDevice(dict).getDevice());
+    }
+
+    @Override
+    protected long createHandle() {
+        return VkSemaphoreFactory.createSemaphore(device);
+    }
+
+    @Override
+    protected void destroyHandle(long semaphore) {
+        VkSemaphoreFactory.destroySemaphore(device, semaphore);
+    }
+
+    /**
+     * Destroys the free semaphores of the device's pool and forgets the pool.
+     *
+     * @param device the device.
+     */
+    public static void destroyPool(VkDevice device) {
+        pools.destroy(device);
+    }
+}
@@ -0,0 +1,99 @@
+package demos.benchmarks;
+
+import com.sfengine.components.engines.DefaultEngine;
+import com.sfengine.components.engines.WorkStealingEngine;
+import com.sfengine.core.engine.Engine;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Compares the fast task throughput of the DefaultEngine and the WorkStealingEngine with 1 to 64
+ * submitting threads. A rejected submission is retried(and counted), so both engines perform the
+ * same amount of work.
+ *
+ * <p>System properties: benchmark_tasks(tasks per run, default 200000).
+ */
+public class EngineThroughput {
+
+    private static final int TASKS = Integer.getInteger("benchmark_tasks", 200_000);
+    private static final int[] SUBMITTERS = {1, 2, 4, 8, 16, 32, 64};
+
+    /**
+     * Submits the tasks from the given number of threads and waits until all of them are done.
+     *
+     * @param engine the engine.
+     * @param submitters the number of submitting threads.
+     * @param rejected counts the rejected submissions.
+     * @return the elapsed time in nanoseconds.
+     */
+    private static long run(Engine engine, int submitters, LongAdder rejected)
+            throws InterruptedException {
+        final int perThread = TASKS / submitters;
+        final CountDownLatch done = new CountDownLatch(perThread * submitters);
+        final CountDownLatch start = new CountDownLatch(1);
+        final Runnable task = done::countDown;
+
+        Thread[] threads = new Thread[submitters];
+        for (int t = 0; t < submitters; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                for (int i = 0; i < perThread; i++) {
+                    while (true) {
+                        try {
+                            engine.addFast(task);
+                            break;
+                        } catch (RejectedExecutionException e) {
+                            rejected.increment();
+                            Thread.yield();
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+
+        for (Thread t : threads)
+            t.join();
+
+        return elapsed;
+    }
+
+    private static void benchmark(String name, Supplier<Engine> factory)
+            throws InterruptedException {
+        for (int submitters : SUBMITTERS) {
+            Engine engine = factory.get();
+            try {
+                // Warm up.
+                run(engine, submitters, new LongAdder());
+
+                LongAdder rejected = new LongAdder();
+                long elapsed = run(engine, submitters, rejected);
+                System.out.printf(
+                        "%-14s submitters: %2d  %10.0f tasks/s  rejected: %d%n",
+                        name,
+                        submitters,
+                        (TASKS / submitters * submitters) / (elapsed / 1e9),
+                        rejected.sum());
+            } finally {
+                engine.destroy();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        benchmark("DefaultEngine", DefaultEngine::new);
+        benchmark("WorkStealing", WorkStealingEngine::new);
+    }
+}
@@ -0,0 +1,237 @@
+package demos.benchmarks;
+
+import com.sfengine.components.engines.OscillatoryEngineExecutor;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feeds the main thread executor from 16 producer threads and compares the steady state enqueue
+ * throughput with a synchronized LinkedList queue(the previous implementation guarded by a lock).
+ *
+ * <p>Every round each producer enqueues a burst of tasks, then the producers wait until the
+ * executor has performed all of them. The tasks are created up front, so only the queues
+ * allocate during the measurement. The ring queue is sized for a whole round, so the executor
+ * stays on its allocation free path(the overflow count is reported). The first rounds warm the
+ * JIT up and are not measured. Every task marks its own id, after the last round the ids are
+ * checked for lost or repeated tasks.
+ *
+ * <p>System properties: benchmark_burst(tasks per producer per round, default 2048),
+ * benchmark_warmup_rounds(default 200), benchmark_rounds(measured rounds, default 500).
+ */
+public class MainThreadQueueStress {
+
+    private static final int PRODUCERS = 16;
+    private static final int BURST = Integer.getInteger("benchmark_burst", 2048);
+    private static final int WARMUP_ROUNDS = Integer.getInteger("benchmark_warmup_rounds", 200);
+    private static final int ROUNDS = Integer.getInteger("benchmark_rounds", 500);
+
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** The previous main thread queue: a linked list guarded by its monitor. */
+    private static class LockedQueueExecutor implements Executor, Runnable {
+
+        private final LinkedList<Runnable> tasks = new LinkedList<>();
+        private volatile boolean running = true;
+
+        @Override
+        public void execute(Runnable command) {
+            synchronized (tasks) {
+                tasks.add(command);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Runnable task;
+                synchronized (tasks) {
+                    task = tasks.poll();
+                }
+
+                if (task != null)
+                    task.run();
+                else if (!running)
+                    return;
+            }
+        }
+
+        void shutdown() {
+            running = false;
+        }
+    }
+
+    /** The measured enqueue time and the bytes allocated by the producers. */
+    private static class Result {
+        private final long[] roundNanos = new long[ROUNDS];
+        private final AtomicLong allocated = new AtomicLong();
+    }
+
+    /** Marks the execution of a task. */
+    private static class Mark implements Runnable {
+
+        private final AtomicIntegerArray seen;
+        private final int id;
+        private volatile CountDownLatch round;
+
+        Mark(AtomicIntegerArray seen, int id) {
+            this.seen = seen;
+            this.id = id;
+        }
+
+        @Override
+        public void run() {
+            seen.incrementAndGet(id);
+            round.countDown();
+        }
+    }
+
+    private static long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Performs the warm up and the measured rounds.
+     *
+     * @param executor the main thread executor.
+     * @param seen counts the executions of every task.
+     * @return the result.
+     */
+    private static Result produce(Executor executor, AtomicIntegerArray seen)
+            throws Exception {
+        final int rounds = WARMUP_ROUNDS + ROUNDS;
+        final Result result = new Result();
+        final CountDownLatch[] latches = new CountDownLatch[rounds];
+        for (int r = 0; r < rounds; r++)
+            latches[r] = new CountDownLatch(PRODUCERS * BURST);
+
+        final long[] begin = new long[1];
+        final AtomicLong end = new AtomicLong();
+        final int[] round = new int[1];
+        // The last producer to arrive starts the next round(and records the previous one).
+        final CyclicBarrier barrier = new CyclicBarrier(PRODUCERS, () -> {
+            int r = round[0];
+            if (r > 0) {
+                long elapsed = end.getAndSet(0) - begin[0];
+                if (r > WARMUP_ROUNDS)
+                    result.roundNanos[r - WARMUP_ROUNDS - 1] = elapsed;
+            }
+            round[0] = r + 1;
+            begin[0] = System.nanoTime();
+        });
+
+        Thread[] producers = new Thread[PRODUCERS];
+        Throwable[] failure = new Throwable[1];
+        for (int p = 0; p < PRODUCERS; p++) {
+            final Mark[] tasks = new Mark[BURST];
+            for (int i = 0; i < BURST; i++)
+                tasks[i] = new Mark(seen, p * BURST + i);
+
+            producers[p] = new Thread(() -> {
+                try {
+                    for (int r = 0; r < rounds; r++) {
+                        for (Mark task : tasks)
+                            task.round = latches[r];
+
+                        barrier.await();
+
+                        long allocated = allocatedBytes();
+                        for (Mark task : tasks)
+                            executor.execute(task);
+                        allocated = allocatedBytes() - allocated;
+
+                        end.accumulateAndGet(System.nanoTime(), Math::max);
+                        if (r >= WARMUP_ROUNDS)
+                            result.allocated.addAndGet(allocated);
+
+                        latches[r].await();
+                    }
+                    barrier.await();
+                } catch (Throwable t) {
+                    failure[0] = t;
+                }
+            });
+            producers[p].start();
+        }
+
+        for (Thread t : producers)
+            t.join();
+        if (failure[0] != null)
+            throw new AssertionError("A producer failed.", failure[0]);
+
+        return result;
+    }
+
+    /**
+     * Checks that every task was performed once per round.
+     *
+     * @param seen the execution counters.
+     * @return a description of the lost and repeated tasks.
+     */
+    private static String verify(AtomicIntegerArray seen) {
+        int expected = WARMUP_ROUNDS + ROUNDS;
+        int lost = 0, repeated = 0;
+        for (int i = 0; i < seen.length(); i++) {
+            if (seen.get(i) < expected)
+                lost++;
+            else if (seen.get(i) > expected)
+                repeated++;
+        }
+
+        return "lost: " + lost + ", repeated: " + repeated;
+    }
+
+    private static void report(String name, Result result, AtomicIntegerArray seen, String extra) {
+        long[] sorted = result.roundNanos.clone();
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long nanos : sorted)
+            total += nanos;
+
+        double perRound = PRODUCERS * BURST;
+        System.out.printf(
+                "%-26s mean %10.0f  median %10.0f enqueues/s  %6.2f B/enqueue  %s%s%n",
+                name,
+                perRound * ROUNDS / (total / 1e9),
+                perRound / (sorted[sorted.length / 2] / 1e9),
+                result.allocated.get() / (perRound * ROUNDS),
+                verify(seen),
+                extra);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (threads.isThreadAllocatedMemorySupported())
+            threads.setThreadAllocatedMemoryEnabled(true);
+
+        for (int run = 0; run < 3; run++) {
+            AtomicIntegerArray seen = new AtomicIntegerArray(PRODUCERS * BURST);
+            // Sized for a whole round, so no task goes through the overflow queue.
+            OscillatoryEngineExecutor executor = new OscillatoryEngineExecutor(PRODUCERS * BURST);
+            executor.setIdleWait(null);
+            Thread main = new Thread(executor, "main-thread-executor");
+            main.start();
+
+            Result result = produce(executor, seen);
+            executor.shutdown();
+            main.join();
+            report("OscillatoryEngineExecutor", result, seen,
+                    "  overflowed: " + executor.getOverflowCount());
+
+            seen = new AtomicIntegerArray(PRODUCERS * BURST);
+            LockedQueueExecutor locked = new LockedQueueExecutor();
+            main = new Thread(locked, "locked-executor");
+            main.start();
+
+            result = produce(locked, seen);
+            locked.shutdown();
+            main.join();
+            report("synchronized LinkedList", result, seen, "");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package demos.benchmarks;
+
+import com.sfengine.components.engines.DefaultEngine;
+import com.sfengine.components.engines.OscillatoryEngineExecutor;
+import com.sfengine.components.engines.VirtualThreads;
+import com.sfengine.core.resources.Asset;
+import com.sfengine.core.resources.ConfigFile;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loads thousands of configuration files concurrently with Engine.addSlow and compares the
+ * completion time of the slow thread pool with the virtual thread slow pool. A rejected
+ * submission(full slow pool queue) is retried and counted.
+ *
+ * <p>System properties: benchmark_files(number of the files, default 4000), benchmark_io_delay_ms
+ * (additional blocking time per read simulating a slow device, default 2).
+ */
+public class SlowPoolConfigLoad {
+
+    private static final int FILES = Integer.getInteger("benchmark_files", 4000);
+    private static final long IO_DELAY_MS = Long.getLong("benchmark_io_delay_ms", 2L);
+
+    private static Asset createFiles() throws IOException {
+        File dir = Files.createTempDirectory("sfe-config-benchmark").toFile();
+        dir.deleteOnExit();
+
+        for (int i = 0; i < FILES; i++) {
+            File file = new File(dir, "config" + i + "." + ConfigFile.EXT);
+            file.deleteOnExit();
+            try (FileWriter writer = new FileWriter(file)) {
+                writer.write("{\"index\": " + i + ", \"name\": \"config" + i + "\"}");
+            }
+        }
+
+        return new Asset(dir);
+    }
+
+    /**
+     * Loads all of the files.
+     *
+     * @param engine the engine.
+     * @param asset the asset with the files.
+     * @param rejected counts the rejected submissions.
+     * @return the completion time in nanoseconds.
+     */
+    private static long load(DefaultEngine engine, Asset asset, LongAdder rejected)
+            throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(FILES);
+        LongAdder checksum = new LongAdder();
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < FILES; i++) {
+            final String path = "config" + i + "." + ConfigFile.EXT;
+            Runnable task = () -> {
+                try {
+                    if (IO_DELAY_MS > 0)
+                        Thread.sleep(IO_DELAY_MS);
+
+                    ConfigFile cfg = new ConfigFile(asset, path);
+                    checksum.add(cfg.getInteger("index", 0));
+                } catch (IOException | InterruptedException e) {
+                    e.printStackTrace();
+                } finally {
+                    done.countDown();
+                }
+            };
+
+            while (true) {
+                try {
+                    engine.addSlow(task);
+                    break;
+                } catch (RejectedExecutionException e) {
+                    rejected.increment();
+                    Thread.yield();
+                }
+            }
+        }
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+
+        if (checksum.sum() != (long) FILES * (FILES - 1) / 2)
+            throw new AssertionError("Some of the files were not loaded.");
+
+        return elapsed;
+    }
+
+    private static void benchmark(String name, boolean virtual, Asset asset)
+            throws InterruptedException {
+        DefaultEngine engine = new DefaultEngine(new OscillatoryEngineExecutor(), virtual);
+        try {
+            // Warm up.
+            load(engine, asset, new LongAdder());
+
+            LongAdder rejected = new LongAdder();
+            long elapsed = load(engine, asset, rejected);
+            System.out.printf(
+                    "%-22s %d files in %8.1f ms  rejected: %d%n",
+                    name, FILES, elapsed / 1e6, rejected.sum());
+        } finally {
+            engine.destroy();
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Asset asset = createFiles();
+
+        ExecutorService probe = VirtualThreads.newVirtualThreadExecutor();
+        if (probe != null) {
+            probe.shutdown();
+        } else {
+            System.out.println(
+                    "Virtual threads are not supported by this JVM, both runs use the thread pool.");
+        }
+
+        benchmark("slow thread pool", false, asset);
+        benchmark("virtual thread pool", true, asset);
+    }
+}
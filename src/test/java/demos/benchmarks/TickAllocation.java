@@ -0,0 +1,107 @@
+package demos.benchmarks;
+
+import com.sfengine.components.engines.OscillatoryEngineExecutor;
+import com.sfengine.core.engine.EngineTask;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Measures the bytes allocated by the main thread per tick of the OscillatoryEngineExecutor(the
+ * per tick tasks are iterated over the copy-on-write snapshot) and compares them with copying the
+ * synchronized task set into a new list every tick(the previous iteration). The allocations are
+ * read from the thread allocation counter of the JVM(com.sun.management.ThreadMXBean).
+ *
+ * <p>System properties: benchmark_ticks(measured ticks, default 1000000), benchmark_tick_tasks
+ * (number of per tick tasks, default 16).
+ */
+public class TickAllocation {
+
+    private static final int TICKS = Integer.getInteger("benchmark_ticks", 1_000_000);
+    private static final int TICK_TASKS = Integer.getInteger("benchmark_tick_tasks", 16);
+    private static final int WARMUP_TICKS = 100_000;
+
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /** Counts the ticks and measures the allocations between the warm up and the last tick. */
+    private static class Probe implements EngineTask {
+
+        private final OscillatoryEngineExecutor executor;
+        private int ticks = 0;
+        private long start, end;
+
+        Probe(OscillatoryEngineExecutor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public int priority() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public void run() {
+            ticks++;
+            if (ticks == WARMUP_TICKS) {
+                start = allocatedBytes();
+            } else if (ticks == WARMUP_TICKS + TICKS) {
+                end = allocatedBytes();
+                executor.shutdown();
+            }
+        }
+    }
+
+    private static double executorBytesPerTick() {
+        OscillatoryEngineExecutor executor = new OscillatoryEngineExecutor();
+        // Spins, so that the ticks are not throttled by the idle waits.
+        executor.setIdleWait(null);
+
+        for (int i = 0; i < TICK_TASKS; i++)
+            executor.addTickTask(() -> {});
+
+        Probe probe = new Probe(executor);
+        executor.addTickTask(probe);
+        executor.run();
+
+        return (double) (probe.end - probe.start) / TICKS;
+    }
+
+    private static double copyBytesPerTick() {
+        Set<EngineTask> tickTasks = Collections.synchronizedSet(new HashSet<>());
+        for (int i = 0; i < TICK_TASKS; i++)
+            tickTasks.add(() -> {});
+
+        long start = 0;
+        for (int tick = 0; tick < WARMUP_TICKS + TICKS; tick++) {
+            if (tick == WARMUP_TICKS)
+                start = allocatedBytes();
+
+            List<EngineTask> copy = new ArrayList<EngineTask>(tickTasks);
+            for (EngineTask task : copy)
+                task.run();
+        }
+
+        return (double) (allocatedBytes() - start) / TICKS;
+    }
+
+    public static void main(String[] args) {
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("The JVM does not measure the thread allocations.");
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        for (int run = 0; run < 3; run++) {
+            System.out.printf("snapshot iteration: %8.2f B/tick%n", executorBytesPerTick());
+            System.out.printf("copied list:        %8.2f B/tick%n", copyBytesPerTick());
+        }
+    }
+}
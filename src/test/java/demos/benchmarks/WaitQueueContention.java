@@ -0,0 +1,91 @@
+package demos.benchmarks;
+
+import com.sfengine.core.synchronization.ConcurrentSmartWaitQueue;
+import com.sfengine.core.synchronization.DependencyFence;
+import com.sfengine.core.synchronization.SmartWaitQueue;
+import com.sfengine.core.synchronization.SyncTask;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Measures the dependent submission throughput of the SmartWaitQueue(a single monitor) and the
+ * ConcurrentSmartWaitQueue with 1 to 32 threads. Every thread repeatedly creates a fence, adds
+ * tasks depending on it to the shared queue and releases the fence, the tasks run inline.
+ *
+ * <p>System properties: benchmark_rounds(fences per thread, default 100000).
+ */
+public class WaitQueueContention {
+
+    private static final int ROUNDS = Integer.getInteger("benchmark_rounds", 100_000);
+    private static final int TASKS_PER_FENCE = 4;
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32};
+
+    private static final Executor INLINE = Runnable::run;
+
+    /**
+     * Runs the dependent submissions.
+     *
+     * @param queue the queue shared by all of the threads.
+     * @param threadCount the number of the submitting threads.
+     * @return the elapsed time in nanoseconds.
+     */
+    private static long run(SmartWaitQueue queue, int threadCount) throws InterruptedException {
+        final LongAdder performed = new LongAdder();
+        final Runnable task = performed::increment;
+        final CountDownLatch start = new CountDownLatch(1);
+
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                for (int r = 0; r < ROUNDS; r++) {
+                    DependencyFence fence = new DependencyFence();
+                    for (int i = 0; i < TASKS_PER_FENCE; i++)
+                        queue.addTask(new SyncTask(INLINE, task, fence));
+                    fence.release();
+                }
+            });
+            threads[t].start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread t : threads)
+            t.join();
+        long elapsed = System.nanoTime() - begin;
+
+        long expected = (long) threadCount * ROUNDS * TASKS_PER_FENCE;
+        if (performed.sum() != expected)
+            throw new AssertionError(
+                    "Lost tasks: " + (expected - performed.sum()) + " of " + expected);
+
+        return elapsed;
+    }
+
+    private static void benchmark(String name, Supplier<SmartWaitQueue> factory)
+            throws InterruptedException {
+        for (int threads : THREADS) {
+            // Warm up.
+            run(factory.get(), threads);
+
+            long elapsed = run(factory.get(), threads);
+            System.out.printf(
+                    "%-24s threads: %2d  %10.0f dependent tasks/s%n",
+                    name,
+                    threads,
+                    (double) threads * ROUNDS * TASKS_PER_FENCE / (elapsed / 1e9));
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        benchmark("SmartWaitQueue", SmartWaitQueue::new);
+        benchmark("ConcurrentSmartWaitQueue", ConcurrentSmartWaitQueue::new);
+    }
+}
@@ -12,6 +12,7 @@ import com.sfengine.components.contexts.renderjob.BasicRenderJobContext;
 import com.sfengine.components.contexts.renderjob.BasicRenderJobContextFactory;
 import com.sfengine.components.contexts.swapchain.BasicSwapchainContextFactory;
 import com.sfengine.components.geometry.indexed.MeshI3D;
+import com.sfengine.components.memory.UniformRing;
 import com.sfengine.components.rendering.RenderPassFactory;
 import com.sfengine.components.rendering.pipeline.GraphicsPipeline;
 import com.sfengine.components.rendering.pipeline.Pipeline;
@@ -19,9 +20,11 @@ import com.sfengine.components.rendering.pipeline.PipelineLayout;
 import com.sfengine.components.rendering.BasicFrameFactory;
 import com.sfengine.components.rendering.RenderPass;
 import com.sfengine.components.resources.MemoryBin;
+import com.sfengine.components.shaders.descriptor_sets.DescriptorAllocator;
 import com.sfengine.components.shaders.descriptor_sets.DescriptorSet;
 import com.sfengine.components.shaders.descriptor_sets.DescriptorSetBlueprint;
 import com.sfengine.components.shaders.descriptor_sets.DescriptorSetFactory;
+import com.sfengine.components.shaders.descriptor_sets.DescriptorWriter;
 import com.sfengine.components.shaders.descriptor_sets.FileDescriptorSetBlueprint;
 import com.sfengine.components.transform.CameraTransform;
 import com.sfengine.components.transform.ModelTransform3D;
@@ -33,6 +36,7 @@ import com.sfengine.core.engine.Engine;
 import com.sfengine.core.engine.EngineFactory;
 import com.sfengine.core.engine.EngineTask;
 import com.sfengine.core.rendering.*;
+import com.sfengine.core.rendering.frames.FramesInFlight;
 import com.sfengine.core.rendering.recording.Recordable;
 import com.sfengine.core.rendering.CommandBufferFactory;
 import com.sfengine.core.resources.Asset;
@@ -48,6 +52,7 @@ import java.util.Timer;
 import com.sfengine.core.synchronization.VkFence.VkFenceSupervisor;
 import com.sfengine.core.synchronization.VkFence.VkFenceSupervisorTask;
 import org.joml.Vector3f;
+import org.lwjgl.system.MemoryStack;
 import org.lwjgl.vulkan.VkAttachmentReference;
 import org.lwjgl.vulkan.VkDevice;
 import org.lwjgl.vulkan.VkPhysicalDevice;
@@ -80,6 +85,10 @@ public class InitializeRendering implements EngineTask, Destroyable {
 
     private ContextDictionary dict;
 
+    private final FramesInFlight framesInFlight = new FramesInFlight();
+    private UniformRing ring;
+    private DescriptorWriter descriptorWriter;
+
     public InitializeRendering(CFrame frame) {
         this.frame = frame;
         this.dict = DefaultContexts.getDictionary();
@@ -108,6 +117,9 @@ public class InitializeRendering implements EngineTask, Destroyable {
 
         camera = new CameraTransform(window.getWidth(), window.getHeight());
 
+        ring = destroy.add(new UniformRing(physicalDevice, device, framesInFlight));
+        descriptorWriter = destroy.add(new DescriptorWriter(device));
+
         DescriptorSet[] descriptorSets = createDescriptorSets(physicalDevice, device, dscBlueprint);
         destroy.add(descriptorSets);
         pDesc = memAllocLong(descriptorSets.length);
@@ -117,7 +129,8 @@ public class InitializeRendering implements EngineTask, Destroyable {
         pDesc.flip();
 
         Recordable cmdPreset = makePreset(window);
-        Recordable cmdWork = makeWorkRecordable(physicalDevice, device, pipeline, pDesc);
+        Recordable cmdWork =
+                makeWorkRecordable(physicalDevice, device, pipeline, pDesc, dict, ring);
         renderPass.setPreset(cmdPreset);
         renderPass.setWork(cmdWork);
 
@@ -126,8 +139,14 @@ public class InitializeRendering implements EngineTask, Destroyable {
         dict.put(BasicFrameBufferFactoryContextFactory.createFrameBufferFactoryContext("BasicFBFactory", dict, renderPass.handle()));
         dict.put(BasicSwapchainContextFactory.createSwapchainContext("BasicSwapchain", dict, frame, renderPass.getAttachmentBlueprints(), colorFormat));
 
+        // Flushes the changed transformations and copies them into the partition of the frame
+        // being prepared.
+        Runnable update = () -> {
+            descriptorWriter.update();
+            ring.update();
+        };
         BasicRenderJobContext renderJobContext =
-                BasicRenderJobContextFactory.createContext("helloCube", basicCMD, dict);
+                BasicRenderJobContextFactory.createContext("helloCube", basicCMD, dict, update);
         dict.put(renderJobContext);
 
         VkFenceSupervisor vksupervisor = new VkFenceSupervisor();
@@ -136,7 +155,8 @@ public class InitializeRendering implements EngineTask, Destroyable {
         tickTasks.add(supTask);
 
         engine.addTask(()-> {
-            Presenter presenter = new Presenter(dict, new BasicFrameFactory(dict, vksupervisor));
+            Presenter presenter =
+                    new Presenter(dict, new BasicFrameFactory(dict, vksupervisor), framesInFlight);
             engine.addTickTask(presenter);
             tickTasks.add(presenter);
             destroy.add(presenter);
@@ -159,6 +179,8 @@ public class InitializeRendering implements EngineTask, Destroyable {
         memFree(pDesc);
 
         destroy.destroy();
+        // The descriptor sets were allocated by the DescriptorSetFactory.
+        DescriptorAllocator.destroyAllocator(ContextUtil.getDevice(dict).getDevice());
     }
 
     /**
@@ -281,8 +303,8 @@ public class InitializeRendering implements EngineTask, Destroyable {
         cubeTransform.getPosition().set(0.0f, 0.0f, 2.0f);
 
         DescriptorSet[] out = new DescriptorSet[dscs.length];
-        TransformationDescriptorSet env =
-                new TransformationDescriptorSet(physicalDevice, device, dscs[0]);
+        TransformationDescriptorSet env = new TransformationDescriptorSet(ring, dscs[0]);
+        descriptorWriter.add(env);
         Transform4fPeriodicalDescriptorUpdater timeUp =
                 new Transform4fPeriodicalDescriptorUpdater(env, cubeTransform, camera, "transform");
         timer = new Timer("Time timer");
@@ -325,6 +347,26 @@ public class InitializeRendering implements EngineTask, Destroyable {
         return out;
     }
 
+    /** The number of the dynamic uniform buffer bindings(model and camera). */
+    private static final int DYNAMIC_BINDINGS = 2;
+
+    /**
+     * Finds the swapchain image index of the frame buffer(the frame index).
+     *
+     * @param dict
+     * @param framebuffer
+     * @return
+     */
+    private static int imageIndex(ContextDictionary dict, long framebuffer) {
+        long[] frameBuffers = ContextUtil.getSwapchain(dict).getFrameBuffers();
+        for (int i = 0; i < frameBuffers.length; i++) {
+            if (frameBuffers[i] == framebuffer)
+                return i;
+        }
+
+        throw new AssertionError("Unknown frame buffer.");
+    }
+
     /**
      * Makes a square face from the vertices. The first two vertices must not share a edge of the
      * square.
@@ -348,10 +390,17 @@ public class InitializeRendering implements EngineTask, Destroyable {
      * @param physicalDevice
      * @param device
      * @param pipeline
+     * @param dict
+     * @param ring the ring of the dynamic uniform buffers(the descriptor sets bindings).
      * @return
      */
     private static Recordable makeWorkRecordable(
-            VkPhysicalDevice physicalDevice, VkDevice device, Pipeline pipeline, LongBuffer pDesc) {
+            VkPhysicalDevice physicalDevice,
+            VkDevice device,
+            Pipeline pipeline,
+            LongBuffer pDesc,
+            ContextDictionary dict,
+            UniformRing ring) {
 
         // Cube
         List<Vector3f> vert = new ArrayList<Vector3f>();
@@ -391,14 +440,22 @@ public class InitializeRendering implements EngineTask, Destroyable {
                     vkCmdBindPipeline(
                             buffer, VK_PIPELINE_BIND_POINT_GRAPHICS, pipeline.handle());
 
-                    // Bind descriptor sets
-                    vkCmdBindDescriptorSets(
-                            buffer,
-                            VK_PIPELINE_BIND_POINT_GRAPHICS,
-                            pipeline.layout(),
-                            0,
-                            pDesc,
-                            null);
+                    // Bind descriptor sets, the dynamic offsets(one per dynamic binding)
+                    // select the ring partition of the frame buffer's image.
+                    int image = imageIndex(dict, framebuffer);
+                    try (MemoryStack stack = MemoryStack.stackPush()) {
+                        IntBuffer pDynamicOffsets = stack.mallocInt(DYNAMIC_BINDINGS);
+                        for (int i = 0; i < DYNAMIC_BINDINGS; i++)
+                            pDynamicOffsets.put(i, ring.getDynamicOffset(image));
+
+                        vkCmdBindDescriptorSets(
+                                buffer,
+                                VK_PIPELINE_BIND_POINT_GRAPHICS,
+                                pipeline.layout(),
+                                0,
+                                pDesc,
+                                pDynamicOffsets);
+                    }
 
                     // Bind triangle vertices
                     LongBuffer offsets = memAllocLong(1);
@@ -45,10 +45,8 @@ public class Transform4fPeriodicalDescriptorUpdater extends TimerTask {
         transform.getRotation().rotateAxis(0.006f * delta / 10, new Vector3f(1, 1, 0));
         mili = newTime;
 
-        // Updates the descriptors.
+        // Updates the descriptors, the descriptor writer flushes them during the frame updates.
         modelDescriptor.setUniform(0, transform.getTransformation());
-        modelDescriptor.update();
         cameraDescriptor.setUniform(0, camera.getTransformation());
-        cameraDescriptor.update();
     }
 }
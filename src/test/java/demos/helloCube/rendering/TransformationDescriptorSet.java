@@ -1,29 +1,26 @@
 package demos.helloCube.rendering;
 
+import com.sfengine.components.memory.UniformRing;
 import com.sfengine.components.shaders.GeneralizedDescriptorValue;
 import com.sfengine.components.shaders.UniformUsage;
 import com.sfengine.components.shaders.descriptor_sets.DescriptorSet;
 import com.sfengine.components.shaders.descriptors.Descriptor;
 import org.joml.Matrix4f;
-import org.lwjgl.vulkan.VkDevice;
-import org.lwjgl.vulkan.VkPhysicalDevice;
 
 /**
- * Descriptor set for camera and model transformation.
+ * Descriptor set for camera and model transformation. The transformations are kept in a uniform
+ * ring(dynamic uniform buffer bindings), the frames select their copies with the dynamic offsets.
  *
  * @author Cezary Chodun
  * @since 12.03.2020
  */
 public class TransformationDescriptorSet extends DescriptorSet {
 
-    private VkPhysicalDevice physicalDevice;
-    private VkDevice device;
+    private UniformRing ring;
     private long descriptorSet;
 
-    public TransformationDescriptorSet(
-            VkPhysicalDevice physicalDevice, VkDevice device, long descriptorSet) {
-        this.physicalDevice = physicalDevice;
-        this.device = device;
+    public TransformationDescriptorSet(UniformRing ring, long descriptorSet) {
+        this.ring = ring;
         this.descriptorSet = descriptorSet;
 
         makeDescriptors();
@@ -34,8 +31,7 @@ public class TransformationDescriptorSet extends DescriptorSet {
         GeneralizedDescriptorValue[] descVals = new GeneralizedDescriptorValue[2];
         descVals[0] =
                 new GeneralizedDescriptorValue(
-                        physicalDevice,
-                        device,
+                        ring,
                         getDescriptorSet(),
                         0,
                         "transform",
@@ -47,8 +43,7 @@ public class TransformationDescriptorSet extends DescriptorSet {
 
         descVals[1] =
                 new GeneralizedDescriptorValue(
-                        physicalDevice,
-                        device,
+                        ring,
                         getDescriptorSet(),
                         1,
                         "transform",
@@ -21,9 +21,11 @@ import com.sfengine.components.rendering.pipeline.PipelineLayout;
 import com.sfengine.components.rendering.BasicFrameFactory;
 import com.sfengine.components.rendering.RenderPass;
 import com.sfengine.components.resources.MemoryBin;
+import com.sfengine.components.shaders.descriptor_sets.DescriptorAllocator;
 import com.sfengine.components.shaders.descriptor_sets.DescriptorSet;
 import com.sfengine.components.shaders.descriptor_sets.DescriptorSetBlueprint;
 import com.sfengine.components.shaders.descriptor_sets.DescriptorSetFactory;
+import com.sfengine.components.shaders.descriptor_sets.DescriptorWriter;
 import com.sfengine.components.shaders.descriptor_sets.FileDescriptorSetBlueprint;
 import com.sfengine.components.window.CFrame;
 import com.sfengine.core.Application;
@@ -100,8 +102,12 @@ public class InitializeRendering implements EngineTask, Destroyable {
                         device, Application.getConfigAssets().getSubAsset("descriptors"), destroy);
         final Pipeline pipeline = createPipeline(physicalDevice, device, renderPass, dscBlueprint);
 
+        DescriptorWriter descriptorWriter = destroy.add(new DescriptorWriter(device));
         DescriptorSet[] descriptorSets = createDescriptorSets(physicalDevice, device, dscBlueprint);
         destroy.add(descriptorSets);
+        for (DescriptorSet dsc : descriptorSets) {
+            descriptorWriter.add(dsc);
+        }
         pDesc = memAllocLong(descriptorSets.length);
         for (DescriptorSet dsc : descriptorSets) {
             pDesc.put(dsc.getDescriptorSet());
@@ -119,8 +125,10 @@ public class InitializeRendering implements EngineTask, Destroyable {
         dict.put(BasicFrameBufferFactoryContextFactory.createFrameBufferFactoryContext("BasicFBFactory", dict, renderPass.handle()));
         dict.put(BasicSwapchainContextFactory.createSwapchainContext("BasicSwapchain", dict, frame, renderPass.getAttachmentBlueprints(), colorFormat));
 
+        // Writes the changed descriptors before the frame is submitted.
         BasicRenderJobContext renderJobContext =
-                BasicRenderJobContextFactory.createContext("helloCube", basicCMD, dict);
+                BasicRenderJobContextFactory.createContext(
+                        "helloCube", basicCMD, dict, descriptorWriter::update);
         dict.put(renderJobContext);
 
         VkFenceSupervisor vksupervisor = new VkFenceSupervisor();
@@ -151,6 +159,8 @@ public class InitializeRendering implements EngineTask, Destroyable {
         memFree(pDesc);
 
         destroy.destroy();
+        // The descriptor sets were allocated by the DescriptorSetFactory.
+        DescriptorAllocator.destroyAllocator(ContextUtil.getDevice(dict).getDevice());
     }
 
     /**
@@ -28,7 +28,7 @@ public class TimeDescriptorUpdater extends TimerTask {
             state *= -1;
         }
 
+        // The descriptor writer flushes the value during the frame updates.
         val.setUniform(0, state);
-        val.update();
     }
 }
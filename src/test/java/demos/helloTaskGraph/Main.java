@@ -0,0 +1,128 @@
+package demos.helloTaskGraph;
+
+import com.sfengine.components.engines.DefaultEngine;
+import com.sfengine.core.engine.Engine;
+import com.sfengine.core.synchronization.DependencyFence;
+import com.sfengine.core.synchronization.TaskFuture;
+import com.sfengine.core.synchronization.TaskGraph;
+import com.sfengine.core.synchronization.TaskGraph.ExecutorClass;
+import com.sfengine.core.synchronization.TaskGraph.Node;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Builds a small start up graph, checks its ranks and critical path, runs it on the engine and
+ * exports the realized schedule(chrome://tracing) to the file given as the first argument(or
+ * taskgraph.json).
+ *
+ * <p>The "slow" nodes become ready in two separate batches while the only config slot is busy,
+ * so the node on the longer path must start first although it became ready later. A failing node
+ * must fail its successor without blocking the graph.
+ */
+public class Main {
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition)
+            throw new AssertionError(message);
+    }
+
+    private static void run(Engine engine, String output) throws InterruptedException, IOException {
+        DependencyFence window = new DependencyFence();
+
+        TaskGraph graph = new TaskGraph().setConcurrency(ExecutorClass.SLOW, 2);
+
+        Node blocker = graph.add("blocker", ExecutorClass.CONFIG, 10, () -> sleep(100));
+        Node shortRead = graph.add("shortRead", ExecutorClass.SLOW, 1, () -> sleep(10));
+        Node longRead = graph.add("longRead", ExecutorClass.SLOW, 1, () -> sleep(30));
+        Node shortParse = graph.add("shortParse", ExecutorClass.CONFIG, 1, () -> sleep(5))
+                .dependsOn(shortRead);
+        Node longParse = graph.add("longParse", ExecutorClass.CONFIG, 20, () -> sleep(5))
+                .dependsOn(longRead);
+        Node upload = graph.add("upload", ExecutorClass.FAST, 20, () -> sleep(5))
+                .dependsOn(longParse)
+                .waitsFor(window);
+        Node broken = graph.add("broken", ExecutorClass.FAST, 1, () -> {
+            throw new IllegalStateException("Expected failure.");
+        });
+        Node afterBroken = graph.add("afterBroken", ExecutorClass.MAIN, 1, () -> {})
+                .dependsOn(broken);
+
+        graph.submit(engine);
+
+        check(blocker.getRank() == 10, "Wrong rank of the blocker: " + blocker.getRank());
+        check(shortRead.getRank() == 2, "Wrong rank of the short read: " + shortRead.getRank());
+        check(longRead.getRank() == 41, "Wrong rank of the long read: " + longRead.getRank());
+        check(graph.getCriticalPath().equals(Arrays.asList(longRead, longParse, upload)),
+                "Wrong critical path: " + graph.getCriticalPath());
+        check(graph.getCriticalPathCost() == 41,
+                "Wrong critical path cost: " + graph.getCriticalPathCost());
+
+        // The outside dependency of the upload.
+        sleep(50);
+        window.release();
+
+        TaskFuture done = engine.submitTask(() -> {}, graph.getDependency());
+        check(done.await(5, TimeUnit.SECONDS), "The graph did not finish.");
+
+        check(broken.getFuture().isFailed(), "The broken node did not fail.");
+        check(afterBroken.getFuture().isFailed(), "The failure was not propagated.");
+        check(!upload.getFuture().isFailed(), "The upload failed.");
+
+        JSONArray schedule = graph.exportSchedule();
+        Map<String, Long> starts = new HashMap<>();
+        for (int i = 0; i < schedule.length(); i++) {
+            JSONObject event = schedule.getJSONObject(i);
+            starts.put(event.getString("name"), event.getLong("ts"));
+        }
+        check(starts.get("longParse") < starts.get("shortParse"),
+                "The longest path was not dispatched first.");
+        check(starts.get("upload") >= 50_000, "The upload did not wait for the window.");
+
+        try (FileWriter writer = new FileWriter(output)) {
+            writer.write(schedule.toString(2));
+        }
+
+        List<Node> path = graph.getCriticalPath();
+        System.out.println("Critical path: " + path + " cost: " + graph.getCriticalPathCost());
+        System.out.println("Schedule exported to " + output + ".");
+    }
+
+    public static void main(String[] args) {
+        final String output = args.length > 0 ? args[0] : "taskgraph.json";
+        final DefaultEngine engine = new DefaultEngine();
+
+        // The first thread runs the engine, so the graph is driven from a separate thread.
+        Thread graphThread = new Thread(() -> {
+            try {
+                run(engine, output);
+            } catch (Throwable t) {
+                t.printStackTrace();
+            } finally {
+                // Stopped from the engine's thread(which holds the engine while it runs).
+                engine.addTask(engine::stop);
+            }
+        });
+        graphThread.start();
+
+        try {
+            engine.run();
+        } finally {
+            engine.destroy();
+        }
+    }
+}